@@ -0,0 +1,285 @@
+package com.ss.editor.font.generator.jmh;
+
+import com.ss.editor.font.generator.core.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks of the separate steps of the generation pipeline: glyph measuring, glyph layout, rasterization,
+ * building the description and PNG encoding. Glyphs are measured by one glyph vector and by a text layout
+ * per glyph to compare both ways, PNG images are encoded by {@link PngEncoder} with the fast, default, max and
+ * parallel compression and by ImageIO, DDS textures are encoded by {@link DdsEncoder} in one thread and in
+ * parallel. Every step gets its input from the previous steps in the setup, so only
+ * the step itself is measured. Run them with the GC profiler to see allocation rates:
+ * <pre>
+ * ./gradlew jmh -PjmhArgs="GenerationBenchmark.render -p charRange=CJK -p fontName=NotoSansCJKsc"
+ * </pre>
+ * The CJK range needs a font which has CJK glyphs, the benchmark fails if the font can't display any character
+ * of the range.
+ *
+ * @author JavaSaBr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GenerationBenchmark {
+
+    /**
+     * The benchmarked ranges of characters.
+     */
+    public enum CharRange {
+
+        /**
+         * Printable characters of Latin-1.
+         */
+        LATIN_1("32-126, 160-255"),
+
+        /**
+         * The Cyrillic block.
+         */
+        CYRILLIC("Cyrillic"),
+
+        /**
+         * The first 512 CJK unified ideographs.
+         */
+        CJK("U+4E00-U+4FFF");
+
+        /**
+         * The specification of the characters.
+         */
+        @NotNull
+        private final String spec;
+
+        CharRange(@NotNull String spec) {
+            this.spec = spec;
+        }
+    }
+
+    /**
+     * The writer which ignores written characters.
+     */
+    private static final class NullWriter extends Writer {
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * The output stream which only counts written bytes.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        /**
+         * The count of written bytes.
+         */
+        private long count;
+
+        @Override
+        public void write(int value) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            count += length;
+        }
+    }
+
+    @Param({Font.DIALOG})
+    public String fontName;
+
+    @Param({"16", "32"})
+    public int fontSize;
+
+    @Param({"512", "1024"})
+    public int imageSize;
+
+    @Param({"LATIN_1", "CYRILLIC", "CJK"})
+    public CharRange charRange;
+
+    private GlyphLayoutFactory layoutFactory;
+    private GlyphRasterizer rasterizer;
+    private FontDescriptionBuilder descriptionBuilder;
+    private BitmapFontSettings settings;
+    private Font font;
+    private FontRenderContext fontRenderContext;
+    private int[] codePoints;
+    private GlyphLayout layout;
+    private BufferedImage image;
+    private List<String> pageFiles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        // PNG encoding shouldn't be measured with the disk cache of ImageIO
+        ImageIO.setUseCache(false);
+
+        settings = new BitmapFontSettings(fontName);
+        settings.setFontSize(fontSize);
+        settings.setImageSize(imageSize);
+        settings.setMaxPages(64);
+        settings.setCharacterSet(CharacterSet.parse(charRange.spec));
+
+        font = FontRegistry.getDefault().getFont(settings);
+        layoutFactory = new GlyphLayoutFactory();
+        rasterizer = new GlyphRasterizer();
+        descriptionBuilder = new FontDescriptionBuilder();
+        layout = layoutFactory.layout(font, settings);
+
+        if (layout.getCount() < 1) {
+            throw new IllegalStateException("The font \"" + fontName + "\" can't display " + charRange + ".");
+        }
+
+        fontRenderContext = new FontRenderContext(null, true, false);
+        codePoints = new int[layout.getCount()];
+
+        for (int i = 0; i < codePoints.length; i++) {
+            codePoints[i] = layout.getId(i);
+        }
+
+        image = rasterizer.render(layout, false);
+        pageFiles = new ArrayList<>();
+
+        for (int page = 0; page < layout.getPageCount(); page++) {
+            pageFiles.add("font_" + page + ".png");
+        }
+    }
+
+    @Benchmark
+    public GlyphMetrics[] measureGlyphVector() {
+        return GlyphMetrics.measureAll(font, codePoints, codePoints.length, fontRenderContext);
+    }
+
+    @Benchmark
+    public GlyphMetrics[] measureTextLayout() {
+
+        var result = new GlyphMetrics[codePoints.length];
+
+        for (int i = 0; i < codePoints.length; i++) {
+            result[i] = GlyphMetrics.measure(font, codePoints[i], fontRenderContext);
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public GlyphLayout layout() {
+        return layoutFactory.layout(font, settings);
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        return rasterizer.render(layout, false);
+    }
+
+    @Benchmark
+    public Writer buildDescription() throws IOException {
+        var out = new NullWriter();
+        descriptionBuilder.write(layout, "font.png", pageFiles, fontSize, out);
+        return out;
+    }
+
+    @Benchmark
+    public long encodePng() throws IOException {
+        var out = new CountingOutputStream();
+        PngEncoder.write(image, out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long encodePngFast() throws IOException {
+        return encodePng(PngEncoder.FAST_COMPRESSION_LEVEL, PngFilter.UP, null);
+    }
+
+    @Benchmark
+    public long encodePngMax() throws IOException {
+        return encodePng(PngEncoder.MAX_COMPRESSION_LEVEL, PngFilter.ADAPTIVE, null);
+    }
+
+    @Benchmark
+    public long encodePngParallel() throws IOException {
+        return encodePng(PngEncoder.DEFAULT_COMPRESSION_LEVEL, PngFilter.ADAPTIVE, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public long encodeDds() throws IOException {
+        return encodeDds(null);
+    }
+
+    @Benchmark
+    public long encodeDdsParallel() throws IOException {
+        return encodeDds(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public long encodePngImageIO() throws IOException {
+        var out = new CountingOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.count;
+    }
+
+    /**
+     * Encode the image with the compression.
+     *
+     * @param level  the compression level.
+     * @param filter the filter of rows.
+     * @param pool   the pool to compress blocks in parallel or null.
+     * @return the count of written bytes.
+     * @throws IOException if the image can't be written.
+     */
+    private long encodePng(int level, @NotNull PngFilter filter, @Nullable ForkJoinPool pool) throws IOException {
+
+        var out = new CountingOutputStream();
+        var grayscale = image.getType() == BufferedImage.TYPE_BYTE_GRAY;
+
+        try (var encoder = new PngEncoder(out, image.getWidth(), image.getHeight(), grayscale, level, filter, pool)) {
+            encoder.writeRows(image);
+        }
+
+        return out.count;
+    }
+
+    /**
+     * Encode the image to a block-compressed texture.
+     *
+     * @param pool the pool to compress blocks in parallel or null.
+     * @return the count of written bytes.
+     * @throws IOException if the image can't be written.
+     */
+    private long encodeDds(@Nullable ForkJoinPool pool) throws IOException {
+
+        var out = new CountingOutputStream();
+        var grayscale = image.getType() == BufferedImage.TYPE_BYTE_GRAY;
+
+        try (var encoder = new DdsEncoder(out, image.getWidth(), image.getHeight(), grayscale, pool)) {
+            encoder.writeRows(image);
+        }
+
+        return out.count;
+    }
+}
@@ -26,4 +26,21 @@ public interface PluginMessages {
     @NotNull String FONT_GENERATOR_PROP_LETTER_SPACING = RESOURCE_BUNDLE.getString("FontGeneratorPropLetterSpacing");
     @NotNull String FONT_GENERATOR_PROP_FIRST_CHAR = RESOURCE_BUNDLE.getString("FontGeneratorPropFirstChar");
     @NotNull String FONT_GENERATOR_PROP_LAST_CHAR = RESOURCE_BUNDLE.getString("FontGeneratorPropLastChar");
+    @NotNull String FONT_GENERATOR_PROP_PACKING_STRATEGY = RESOURCE_BUNDLE.getString("FontGeneratorPropPackingStrategy");
+    @NotNull String FONT_GENERATOR_PROP_AUTO_IMAGE_SIZE = RESOURCE_BUNDLE.getString("FontGeneratorPropAutoImageSize");
+    @NotNull String FONT_GENERATOR_PROP_NON_SQUARE_IMAGE = RESOURCE_BUNDLE.getString("FontGeneratorPropNonSquareImage");
+    @NotNull String FONT_GENERATOR_PROP_MAX_PAGES = RESOURCE_BUNDLE.getString("FontGeneratorPropMaxPages");
+    @NotNull String FONT_GENERATOR_PROP_CHARACTERS = RESOURCE_BUNDLE.getString("FontGeneratorPropCharacters");
+    @NotNull String FONT_GENERATOR_PROP_DISTANCE_FIELD = RESOURCE_BUNDLE.getString("FontGeneratorPropDistanceField");
+    @NotNull String FONT_GENERATOR_PROP_DISTANCE_FIELD_SPREAD = RESOURCE_BUNDLE.getString("FontGeneratorPropDistanceFieldSpread");
+    @NotNull String FONT_GENERATOR_PROP_ATLAS_FORMAT = RESOURCE_BUNDLE.getString("FontGeneratorPropAtlasFormat");
+    @NotNull String FONT_GENERATOR_PROP_BINARY_DESCRIPTION = RESOURCE_BUNDLE.getString("FontGeneratorPropBinaryDescription");
+    @NotNull String FONT_GENERATOR_PROP_KERNING = RESOURCE_BUNDLE.getString("FontGeneratorPropKerning");
+    @NotNull String FONT_GENERATOR_PROP_FAMILY_SIZES = RESOURCE_BUNDLE.getString("FontGeneratorPropFamilySizes");
+    @NotNull String FONT_GENERATOR_PROP_FAMILY_STYLES = RESOURCE_BUNDLE.getString("FontGeneratorPropFamilyStyles");
+    @NotNull String FONT_GENERATOR_PROP_SHARED_ATLAS = RESOURCE_BUNDLE.getString("FontGeneratorPropSharedAtlas");
+    @NotNull String FONT_GENERATOR_PROP_COMPRESSION_LEVEL = RESOURCE_BUNDLE.getString("FontGeneratorPropCompressionLevel");
+    @NotNull String FONT_GENERATOR_PROP_PNG_FILTER = RESOURCE_BUNDLE.getString("FontGeneratorPropPngFilter");
+    @NotNull String FONT_GENERATOR_PROP_DEDUPLICATE_GLYPHS = RESOURCE_BUNDLE.getString("FontGeneratorPropDeduplicateGlyphs");
+    @NotNull String FONT_GENERATOR_PROP_IMAGE_FORMAT = RESOURCE_BUNDLE.getString("FontGeneratorPropImageFormat");
 }
@@ -0,0 +1,230 @@
+package com.ss.editor.font.generator.cli;
+
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.FontOutputCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The headless command line entry point to generate fonts described by manifests without starting the editor:
+ * <pre>
+ * FontGeneratorCli [--jobs N] [--threads N] [--cache DIR] [--cache-size MB] [--strip-height ROWS]
+ *                  manifest.properties...
+ * </pre>
+ * <ul>
+ * <li>--jobs - the count of fonts which are generated concurrently, the count of processors by default.</li>
+ * <li>--threads - the count of threads to draw glyphs of one font, 1 by default.</li>
+ * <li>--cache - the folder of the cache of generated fonts, unchanged fonts are copied from it.</li>
+ * <li>--cache-size - the max size of the cache in megabytes, 512 by default.</li>
+ * <li>--strip-height - the height of strips of rows to draw and encode atlas pages with bounded memory,
+ * whole pages are drawn by default.</li>
+ * </ul>
+ * Font families of manifests are generated without the cache.
+ *
+ * @author JavaSaBr
+ */
+public class FontGeneratorCli {
+
+    private static final String ARG_JOBS = "--jobs";
+    private static final String ARG_THREADS = "--threads";
+    private static final String ARG_CACHE = "--cache";
+    private static final String ARG_CACHE_SIZE = "--cache-size";
+    private static final String ARG_STRIP_HEIGHT = "--strip-height";
+
+    private static final int DEFAULT_CACHE_SIZE = 512;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.exit(run(args));
+    }
+
+    /**
+     * Run generation of fonts.
+     *
+     * @param args the command line arguments.
+     * @return the exit code.
+     * @throws Exception if a manifest can't be read.
+     */
+    public static int run(@NotNull String[] args) throws Exception {
+
+        var jobs = Runtime.getRuntime().availableProcessors();
+        var threads = 1;
+        var cacheSize = DEFAULT_CACHE_SIZE;
+        var stripHeight = 0;
+        var manifests = new ArrayList<String>();
+
+        String cacheFolder = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case ARG_JOBS:
+                    jobs = parseCount(args, ++i);
+                    break;
+                case ARG_THREADS:
+                    threads = parseCount(args, ++i);
+                    break;
+                case ARG_CACHE:
+                    cacheFolder = parseValue(args, ++i);
+                    break;
+                case ARG_CACHE_SIZE:
+                    cacheSize = parseCount(args, ++i);
+                    break;
+                case ARG_STRIP_HEIGHT:
+                    stripHeight = parseCount(args, ++i);
+                    break;
+                default:
+                    manifests.add(args[i]);
+            }
+        }
+
+        if (manifests.isEmpty()) {
+            System.err.println("Usage: FontGeneratorCli [--jobs N] [--threads N] [--cache DIR] [--cache-size MB] " +
+                    "[--strip-height ROWS] manifest.properties...");
+            return 2;
+        }
+
+        var fontJobs = new ArrayList<FontManifest.Job>();
+
+        for (var manifest : manifests) {
+            fontJobs.addAll(FontManifest.read(Paths.get(manifest)));
+        }
+
+        var cache = cacheFolder == null ? null :
+                new FontOutputCache(Paths.get(cacheFolder), cacheSize * 1024L * 1024L);
+
+        return generate(fontJobs, jobs, new BitmapFontGenerator(threads, null, stripHeight), cache);
+    }
+
+    /**
+     * Generate fonts of the jobs on a bounded executor.
+     *
+     * @param fontJobs  the font jobs.
+     * @param jobs      the count of fonts which are generated concurrently.
+     * @param generator the generator of fonts.
+     * @param cache     the cache of generated fonts or null.
+     * @return the exit code.
+     * @throws InterruptedException if the current thread was interrupted.
+     */
+    private static int generate(
+            @NotNull List<FontManifest.Job> fontJobs,
+            int jobs,
+            @NotNull BitmapFontGenerator generator,
+            @Nullable FontOutputCache cache
+    ) throws InterruptedException {
+
+        var executor = Executors.newFixedThreadPool(Math.min(jobs, Math.max(fontJobs.size(), 1)));
+        var futures = new ArrayList<Future<String>>(fontJobs.size());
+
+        for (var fontJob : fontJobs) {
+            futures.add(executor.submit(() -> {
+
+                var output = fontJob.getOutput();
+                var parent = output.getParent();
+
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+
+                var startTime = System.currentTimeMillis();
+                var settings = fontJob.getSettings();
+                var family = fontJob.getFamily();
+
+                // families aren't cached, because their files depend on all variants
+                if (family != null) {
+
+                    var familyOutput = generator.generateFamily(settings, family, output, fontJob.isSharedAtlas());
+                    var fontFiles = familyOutput.getFontFiles();
+                    var result = new StringBuilder();
+
+                    for (int i = 0; i < fontFiles.size(); i++) {
+                        result.append(fontJob.getName()).append(": ").append(fontFiles.get(i)).append(" (")
+                                .append(familyOutput.getMetrics().get(i).toSummary()).append(")\n");
+                    }
+
+                    return result.append(fontJob.getName()).append(": ").append(fontFiles.size())
+                            .append(" fonts in ").append(System.currentTimeMillis() - startTime).append(" ms")
+                            .toString();
+                }
+
+                var key = cache == null ? null : FontOutputCache.computeKey(settings, output);
+
+                if (key != null && cache.restore(key, output) != null) {
+                    return fontJob.getName() + ": " + output + " (cached) in " +
+                            (System.currentTimeMillis() - startTime) + " ms";
+                }
+
+                var metrics = generator.generate(settings, output);
+
+                if (key != null) {
+                    cache.store(key, BitmapFontGenerator.getOutputFiles(output, metrics.getPageCount(),
+                            settings.getImageFormat()));
+                }
+
+                return fontJob.getName() + ": " + output + " (" + metrics.toSummary() + ") in " +
+                        (System.currentTimeMillis() - startTime) + " ms";
+            }));
+        }
+
+        executor.shutdown();
+
+        var failed = 0;
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                System.out.println(futures.get(i).get());
+            } catch (ExecutionException e) {
+                failed++;
+                System.err.println(fontJobs.get(i).getName() + ": failed: " + e.getCause());
+            }
+        }
+
+        if (failed > 0) {
+            System.err.println(failed + " of " + fontJobs.size() + " fonts failed.");
+            return 1;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Parse a value argument.
+     *
+     * @param args  the command line arguments.
+     * @param index the index of the value.
+     * @return the value.
+     */
+    private static @NotNull String parseValue(@NotNull String[] args, int index) {
+
+        if (index >= args.length) {
+            throw new IllegalArgumentException("The argument " + args[index - 1] + " requires a value.");
+        }
+
+        return args[index];
+    }
+
+    /**
+     * Parse a positive count argument.
+     *
+     * @param args  the command line arguments.
+     * @param index the index of the count.
+     * @return the count.
+     */
+    private static int parseCount(@NotNull String[] args, int index) {
+
+        var count = Integer.parseInt(parseValue(args, index));
+
+        if (count < 1) {
+            throw new IllegalArgumentException("The argument " + args[index - 1] + " should be positive.");
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,547 @@
+package com.ss.editor.font.generator.cli;
+
+import com.ss.editor.font.generator.core.AtlasFormat;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.CharacterSet;
+import com.ss.editor.font.generator.core.FontFamily;
+import com.ss.editor.font.generator.core.ImageFormat;
+import com.ss.editor.font.generator.core.PngEncoder;
+import com.ss.editor.font.generator.core.PngFilter;
+import com.ss.editor.font.generator.core.pack.PackingStrategy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The manifest of font jobs. It's a properties file where every property key is prefixed by a job name:
+ * <pre>
+ * ui.output=Interface/Fonts/ui.fnt
+ * ui.font=DejaVu Sans
+ * ui.fontFile=Fonts/DejaVuSans.ttf
+ * ui.size=16
+ * ui.style=Bold
+ * ui.firstChar=32
+ * ui.lastChar=1279
+ * ui.imageSize=512
+ * ui.paddingX=1
+ * ui.paddingY=1
+ * ui.letterSpacing=0
+ * ui.packer=MaxRects
+ * ui.autoImageSize=true
+ * ui.nonSquareImage=true
+ * ui.maxPages=1
+ * ui.deduplicateGlyphs=false
+ * ui.format=RGBA
+ * ui.binary=false
+ * ui.chars=32-126, Cyrillic, U+1F600-U+1F64F
+ * ui.charsFile=Texts/dialogs.txt
+ * ui.distanceField=false
+ * ui.distanceFieldSpread=4
+ * ui.distanceFieldScale=8
+ * ui.kerning=true
+ * ui.kerningFile=Texts/dialogs.txt
+ * ui.sizes=12-24/2, 32, 48
+ * ui.styles=Plain, Bold
+ * ui.sharedAtlas=false
+ * ui.imageFormat=PNG
+ * ui.compression=default
+ * ui.pngFilter=Adaptive
+ * </pre>
+ * Only {@code output} and {@code font} or {@code fontFile} are required, relative outputs, font files and sample
+ * text files are resolved against the folder of the manifest. If {@code fontFile} is set, the font is loaded from
+ * the TTF, OTF or TTC file and {@code font} selects a font of a collection. If {@code chars} or
+ * {@code charsFile} is set, {@code firstChar} and {@code lastChar} are ignored and the font has the union of the
+ * given characters. If {@code kerningFile} is set, only kerning pairs of adjacent characters of its text are
+ * checked. If {@code sizes} or {@code styles} is set, the job generates a font family of every style and size to
+ * the files with the style and size suffixes, like {@code ui_bold_16.fnt}, the missing one of them is taken from
+ * {@code size} or {@code style}. If {@code sharedAtlas} is set, all fonts of the family share the atlas pages of
+ * the output file. The {@code imageFormat} is {@code PNG} or {@code DDS}, DDS pages are block-compressed to BC4 for
+ * the {@code Alpha} format and to DXT5 for the {@code RGBA} format, the {@code Packed} format can't be written to
+ * DDS pages. The {@code compression} is {@code fast}, {@code default}, {@code max} or a deflate level from 0 to 9,
+ * the fast compression filters rows by {@code Up} if {@code pngFilter} isn't set. If {@code deduplicateGlyphs} is
+ * set, characters which are drawn the same share one atlas cell.
+ *
+ * @author JavaSaBr
+ */
+public class FontManifest {
+
+    public static final String PROP_OUTPUT = "output";
+    public static final String PROP_FONT = "font";
+    public static final String PROP_FONT_FILE = "fontFile";
+    public static final String PROP_SIZE = "size";
+    public static final String PROP_STYLE = "style";
+    public static final String PROP_IMAGE_SIZE = "imageSize";
+    public static final String PROP_PADDING_X = "paddingX";
+    public static final String PROP_PADDING_Y = "paddingY";
+    public static final String PROP_LETTER_SPACING = "letterSpacing";
+    public static final String PROP_FIRST_CHAR = "firstChar";
+    public static final String PROP_LAST_CHAR = "lastChar";
+    public static final String PROP_PACKER = "packer";
+    public static final String PROP_AUTO_IMAGE_SIZE = "autoImageSize";
+    public static final String PROP_NON_SQUARE_IMAGE = "nonSquareImage";
+    public static final String PROP_MAX_PAGES = "maxPages";
+    public static final String PROP_DEDUPLICATE_GLYPHS = "deduplicateGlyphs";
+    public static final String PROP_FORMAT = "format";
+    public static final String PROP_IMAGE_FORMAT = "imageFormat";
+    public static final String PROP_BINARY = "binary";
+    public static final String PROP_CHARS = "chars";
+    public static final String PROP_CHARS_FILE = "charsFile";
+    public static final String PROP_KERNING = "kerning";
+    public static final String PROP_KERNING_FILE = "kerningFile";
+    public static final String PROP_DISTANCE_FIELD = "distanceField";
+    public static final String PROP_DISTANCE_FIELD_SPREAD = "distanceFieldSpread";
+    public static final String PROP_DISTANCE_FIELD_SCALE = "distanceFieldScale";
+    public static final String PROP_SIZES = "sizes";
+    public static final String PROP_STYLES = "styles";
+    public static final String PROP_SHARED_ATLAS = "sharedAtlas";
+    public static final String PROP_COMPRESSION = "compression";
+    public static final String PROP_PNG_FILTER = "pngFilter";
+
+    public static final String COMPRESSION_FAST = "fast";
+    public static final String COMPRESSION_DEFAULT = "default";
+    public static final String COMPRESSION_MAX = "max";
+
+    /**
+     * The job of the manifest.
+     */
+    public static class Job {
+
+        /**
+         * The name of this job.
+         */
+        @NotNull
+        private final String name;
+
+        /**
+         * The output font file.
+         */
+        @NotNull
+        private final Path output;
+
+        /**
+         * The settings of the font.
+         */
+        @NotNull
+        private final BitmapFontSettings settings;
+
+        /**
+         * The sizes and styles of the font family or null if the job generates one font.
+         */
+        @Nullable
+        private final FontFamily family;
+
+        /**
+         * True if fonts of the family share one atlas.
+         */
+        private final boolean sharedAtlas;
+
+        public Job(@NotNull String name, @NotNull Path output, @NotNull BitmapFontSettings settings) {
+            this(name, output, settings, null, false);
+        }
+
+        public Job(
+                @NotNull String name,
+                @NotNull Path output,
+                @NotNull BitmapFontSettings settings,
+                @Nullable FontFamily family,
+                boolean sharedAtlas
+        ) {
+            this.name = name;
+            this.output = output;
+            this.settings = settings;
+            this.family = family;
+            this.sharedAtlas = sharedAtlas;
+        }
+
+        /**
+         * Get the name of this job.
+         *
+         * @return the name of this job.
+         */
+        public @NotNull String getName() {
+            return name;
+        }
+
+        /**
+         * Get the output font file.
+         *
+         * @return the output font file.
+         */
+        public @NotNull Path getOutput() {
+            return output;
+        }
+
+        /**
+         * Get the settings of the font.
+         *
+         * @return the settings of the font.
+         */
+        public @NotNull BitmapFontSettings getSettings() {
+            return settings;
+        }
+
+        /**
+         * Get the sizes and styles of the font family.
+         *
+         * @return the font family or null if the job generates one font.
+         */
+        public @Nullable FontFamily getFamily() {
+            return family;
+        }
+
+        /**
+         * Return true if fonts of the family share one atlas.
+         *
+         * @return true if fonts of the family share one atlas.
+         */
+        public boolean isSharedAtlas() {
+            return sharedAtlas;
+        }
+    }
+
+    /**
+     * Read jobs from the manifest file.
+     *
+     * @param file the manifest file.
+     * @return the list of jobs in the order of their names.
+     * @throws IOException              if the file can't be read.
+     * @throws IllegalArgumentException if the manifest is invalid.
+     */
+    public static @NotNull List<Job> read(@NotNull Path file) throws IOException {
+
+        var properties = new Properties();
+
+        try (var in = Files.newBufferedReader(file)) {
+            properties.load(in);
+        }
+
+        var jobNames = new TreeSet<String>();
+
+        for (var key : properties.stringPropertyNames()) {
+
+            var separator = key.indexOf('.');
+            if (separator < 1) {
+                throw new IllegalArgumentException("The property \"" + key + "\" has no job name prefix.");
+            }
+
+            jobNames.add(key.substring(0, separator));
+        }
+
+        var folder = file.toAbsolutePath().getParent();
+        var jobs = new ArrayList<Job>(jobNames.size());
+
+        for (var jobName : jobNames) {
+            jobs.add(readJob(properties, jobName, folder));
+        }
+
+        return jobs;
+    }
+
+    /**
+     * Read a job from the properties.
+     *
+     * @param properties the properties.
+     * @param jobName    the job name.
+     * @param folder     the folder to resolve relative paths.
+     * @return the read job.
+     * @throws IOException if a sample text file can't be read.
+     */
+    private static @NotNull Job readJob(@NotNull Properties properties, @NotNull String jobName, @NotNull Path folder)
+            throws IOException {
+
+        var output = folder.resolve(getRequired(properties, jobName, PROP_OUTPUT));
+        var fontFile = properties.getProperty(jobName + "." + PROP_FONT_FILE);
+        var settings = fontFile == null || fontFile.trim().isEmpty() ?
+                new BitmapFontSettings(getRequired(properties, jobName, PROP_FONT)) :
+                new BitmapFontSettings(properties.getProperty(jobName + "." + PROP_FONT, "").trim());
+
+        if (fontFile != null && !fontFile.trim().isEmpty()) {
+            settings.setFontFile(folder.resolve(fontFile.trim()));
+        }
+
+        var styleName = properties.getProperty(jobName + "." + PROP_STYLE, BitmapFontSettings.STYLE_PLAIN);
+        var fontStyle = BitmapFontSettings.toFontStyle(styleName);
+
+        if (fontStyle == -1) {
+            throw new IllegalArgumentException("The job \"" + jobName + "\" has unknown style \"" + styleName + "\".");
+        }
+
+        settings.setFontStyle(fontStyle);
+        settings.setFontSize(getInteger(properties, jobName, PROP_SIZE, settings.getFontSize()));
+        settings.setImageSize(getInteger(properties, jobName, PROP_IMAGE_SIZE, settings.getImageSize()));
+        settings.setMaxPages(getInteger(properties, jobName, PROP_MAX_PAGES, settings.getMaxPages()));
+        settings.setPaddingX(getInteger(properties, jobName, PROP_PADDING_X, settings.getPaddingX()));
+        settings.setPaddingY(getInteger(properties, jobName, PROP_PADDING_Y, settings.getPaddingY()));
+        settings.setLetterSpacing(getInteger(properties, jobName, PROP_LETTER_SPACING, settings.getLetterSpacing()));
+        settings.setFirstChar(getInteger(properties, jobName, PROP_FIRST_CHAR, settings.getFirstChar()));
+        settings.setLastChar(getInteger(properties, jobName, PROP_LAST_CHAR, settings.getLastChar()));
+        settings.setAutoImageSize(getBoolean(properties, jobName, PROP_AUTO_IMAGE_SIZE, settings.isAutoImageSize()));
+        settings.setNonSquareImage(getBoolean(properties, jobName, PROP_NON_SQUARE_IMAGE,
+                settings.isNonSquareImage()));
+        settings.setDeduplicateGlyphs(getBoolean(properties, jobName, PROP_DEDUPLICATE_GLYPHS,
+                settings.isDeduplicateGlyphs()));
+
+        settings.setBinaryDescription(getBoolean(properties, jobName, PROP_BINARY, settings.isBinaryDescription()));
+        settings.setDistanceField(getBoolean(properties, jobName, PROP_DISTANCE_FIELD, settings.isDistanceField()));
+        settings.setDistanceFieldSpread(getInteger(properties, jobName, PROP_DISTANCE_FIELD_SPREAD,
+                settings.getDistanceFieldSpread()));
+        settings.setDistanceFieldScale(getInteger(properties, jobName, PROP_DISTANCE_FIELD_SCALE,
+                settings.getDistanceFieldScale()));
+
+        settings.setKerning(getBoolean(properties, jobName, PROP_KERNING, settings.isKerning()));
+
+        var kerningFile = properties.getProperty(jobName + "." + PROP_KERNING_FILE);
+
+        if (kerningFile != null && !kerningFile.trim().isEmpty()) {
+            settings.setKerningSample(new String(Files.readAllBytes(folder.resolve(kerningFile.trim())),
+                    StandardCharsets.UTF_8));
+        }
+
+        var chars = properties.getProperty(jobName + "." + PROP_CHARS);
+        var charsFile = properties.getProperty(jobName + "." + PROP_CHARS_FILE);
+
+        if (chars != null && !chars.trim().isEmpty() || charsFile != null && !charsFile.trim().isEmpty()) {
+
+            var characterSet = new CharacterSet();
+
+            if (chars != null && !chars.trim().isEmpty()) {
+                try {
+                    characterSet.addAll(CharacterSet.parse(chars));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("The job \"" + jobName + "\" has invalid chars: " +
+                            e.getMessage());
+                }
+            }
+
+            if (charsFile != null && !charsFile.trim().isEmpty()) {
+                characterSet.addAll(CharacterSet.of(folder.resolve(charsFile.trim())));
+            }
+
+            settings.setCharacterSet(characterSet);
+        }
+
+        var packerName = properties.getProperty(jobName + "." + PROP_PACKER);
+
+        if (packerName != null && !packerName.trim().isEmpty()) {
+
+            var packingStrategy = PackingStrategy.find(packerName.trim());
+
+            if (packingStrategy == null) {
+                throw new IllegalArgumentException("The job \"" + jobName + "\" has unknown packer \"" +
+                        packerName.trim() + "\".");
+            }
+
+            settings.setPackingStrategy(packingStrategy);
+        }
+
+        var formatName = properties.getProperty(jobName + "." + PROP_FORMAT);
+
+        if (formatName != null && !formatName.trim().isEmpty()) {
+
+            var atlasFormat = AtlasFormat.find(formatName.trim());
+
+            if (atlasFormat == null) {
+                throw new IllegalArgumentException("The job \"" + jobName + "\" has unknown format \"" +
+                        formatName.trim() + "\".");
+            }
+
+            settings.setAtlasFormat(atlasFormat);
+        }
+
+        var imageFormatName = properties.getProperty(jobName + "." + PROP_IMAGE_FORMAT);
+
+        if (imageFormatName != null && !imageFormatName.trim().isEmpty()) {
+
+            var imageFormat = ImageFormat.find(imageFormatName.trim());
+
+            if (imageFormat == null) {
+                throw new IllegalArgumentException("The job \"" + jobName + "\" has unknown image format \"" +
+                        imageFormatName.trim() + "\".");
+            } else if (imageFormat == ImageFormat.DDS && settings.getAtlasFormat().isPacked()) {
+                throw new IllegalArgumentException("The job \"" + jobName + "\" can't write the " +
+                        settings.getAtlasFormat().getTitle() + " format to " + imageFormat.getTitle() + " pages.");
+            }
+
+            settings.setImageFormat(imageFormat);
+        }
+
+        var compression = properties.getProperty(jobName + "." + PROP_COMPRESSION);
+
+        if (compression != null && !compression.trim().isEmpty()) {
+
+            var level = getCompressionLevel(compression.trim());
+
+            if (level < PngEncoder.MIN_COMPRESSION_LEVEL || level > PngEncoder.MAX_COMPRESSION_LEVEL) {
+                throw new IllegalArgumentException("The job \"" + jobName + "\" has invalid compression \"" +
+                        compression.trim() + "\".");
+            }
+
+            settings.setCompressionLevel(level);
+
+            if (COMPRESSION_FAST.equalsIgnoreCase(compression.trim())) {
+                settings.setPngFilter(PngFilter.UP);
+            }
+        }
+
+        var filterName = properties.getProperty(jobName + "." + PROP_PNG_FILTER);
+
+        if (filterName != null && !filterName.trim().isEmpty()) {
+
+            var pngFilter = PngFilter.find(filterName.trim());
+
+            if (pngFilter == null) {
+                throw new IllegalArgumentException("The job \"" + jobName + "\" has unknown PNG filter \"" +
+                        filterName.trim() + "\".");
+            }
+
+            settings.setPngFilter(pngFilter);
+        }
+
+        var sizes = properties.getProperty(jobName + "." + PROP_SIZES);
+        var styles = properties.getProperty(jobName + "." + PROP_STYLES);
+
+        if (sizes == null || sizes.trim().isEmpty()) {
+            sizes = String.valueOf(settings.getFontSize());
+        } else if (styles == null || styles.trim().isEmpty()) {
+            styles = styleName;
+        }
+
+        if (styles == null || styles.trim().isEmpty()) {
+            return new Job(jobName, output, settings);
+        }
+
+        FontFamily family;
+        try {
+            family = FontFamily.parse(sizes, styles);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The job \"" + jobName + "\" has invalid family: " + e.getMessage());
+        }
+
+        var sharedAtlas = getBoolean(properties, jobName, PROP_SHARED_ATLAS, false);
+
+        return new Job(jobName, output, settings, family, sharedAtlas);
+    }
+
+    /**
+     * Get the deflate level of the compression.
+     *
+     * @param compression the compression name or the deflate level.
+     * @return the deflate level or -1 if the compression is unknown.
+     */
+    private static int getCompressionLevel(@NotNull String compression) {
+
+        if (COMPRESSION_FAST.equalsIgnoreCase(compression)) {
+            return PngEncoder.FAST_COMPRESSION_LEVEL;
+        } else if (COMPRESSION_DEFAULT.equalsIgnoreCase(compression)) {
+            return PngEncoder.DEFAULT_COMPRESSION_LEVEL;
+        } else if (COMPRESSION_MAX.equalsIgnoreCase(compression)) {
+            return PngEncoder.MAX_COMPRESSION_LEVEL;
+        }
+
+        try {
+            return Integer.parseInt(compression);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Get a required property of the job.
+     *
+     * @param properties the properties.
+     * @param jobName    the job name.
+     * @param name       the property name.
+     * @return the property value.
+     */
+    private static @NotNull String getRequired(
+            @NotNull Properties properties,
+            @NotNull String jobName,
+            @NotNull String name
+    ) {
+
+        var value = properties.getProperty(jobName + "." + name);
+
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("The job \"" + jobName + "\" has no property \"" + name + "\".");
+        }
+
+        return value.trim();
+    }
+
+    /**
+     * Get an integer property of the job, hex values are supported with prefixes "0x" and "U+".
+     *
+     * @param properties the properties.
+     * @param jobName    the job name.
+     * @param name       the property name.
+     * @param def        the default value.
+     * @return the property value.
+     */
+    private static int getInteger(
+            @NotNull Properties properties,
+            @NotNull String jobName,
+            @NotNull String name,
+            int def
+    ) {
+
+        var value = properties.getProperty(jobName + "." + name);
+
+        if (value == null || value.trim().isEmpty()) {
+            return def;
+        }
+
+        value = value.trim();
+
+        try {
+
+            if (value.startsWith("0x") || value.startsWith("U+")) {
+                return Integer.parseInt(value.substring(2), 16);
+            }
+
+            return Integer.parseInt(value);
+
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The job \"" + jobName + "\" has invalid value \"" + value +
+                    "\" of the property \"" + name + "\".");
+        }
+    }
+
+    /**
+     * Get a boolean property of the job.
+     *
+     * @param properties the properties.
+     * @param jobName    the job name.
+     * @param name       the property name.
+     * @param def        the default value.
+     * @return the property value.
+     */
+    private static boolean getBoolean(
+            @NotNull Properties properties,
+            @NotNull String jobName,
+            @NotNull String name,
+            boolean def
+    ) {
+
+        var value = properties.getProperty(jobName + "." + name);
+
+        if (value == null || value.trim().isEmpty()) {
+            return def;
+        }
+
+        value = value.trim();
+
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+
+        throw new IllegalArgumentException("The job \"" + jobName + "\" has invalid value \"" + value +
+                "\" of the property \"" + name + "\".");
+    }
+}
@@ -0,0 +1,104 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The list of available pixel formats of atlas pages.
+ *
+ * @author JavaSaBr
+ */
+public enum AtlasFormat {
+
+    /**
+     * White glyphs in the alpha channel of a 32-bit image.
+     */
+    RGBA("RGBA", 1),
+
+    /**
+     * Glyphs in an 8-bit grayscale image.
+     */
+    ALPHA("Alpha", 1),
+
+    /**
+     * Four sets of glyphs in the red, green, blue and alpha channels of a 32-bit image (BMFont channel packing).
+     */
+    PACKED("Packed", 4);
+
+    /**
+     * The BMFont channel values of glyphs in packed atlas pages in the order of filling.
+     */
+    private static final int[] PACKED_CHANNELS = {4, 2, 1, 8};
+
+    private static final AtlasFormat[] VALUES = values();
+
+    /**
+     * Find a format by its name or its title.
+     *
+     * @param name the name or the title of a format.
+     * @return the found format or null.
+     */
+    public static @Nullable AtlasFormat find(@NotNull String name) {
+
+        for (var format : VALUES) {
+            if (format.name().equalsIgnoreCase(name) || format.title.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The title of this format.
+     */
+    @NotNull
+    private final String title;
+
+    /**
+     * The count of glyph sets in an atlas page.
+     */
+    private final int glyphSets;
+
+    AtlasFormat(@NotNull String title, int glyphSets) {
+        this.title = title;
+        this.glyphSets = glyphSets;
+    }
+
+    /**
+     * Get the title of this format.
+     *
+     * @return the title of this format.
+     */
+    public @NotNull String getTitle() {
+        return title;
+    }
+
+    /**
+     * Get the count of glyph sets which share an atlas page, every set is in its own channel.
+     *
+     * @return the count of glyph sets in an atlas page.
+     */
+    public int getGlyphSets() {
+        return glyphSets;
+    }
+
+    /**
+     * Get the BMFont channel value of the glyph set, 1 is blue, 2 is green, 4 is red, 8 is alpha.
+     *
+     * @param glyphSet the glyph set in an atlas page.
+     * @return the channel value or 0 if glyphs aren't packed to channels.
+     */
+    public int getChannel(int glyphSet) {
+        return this == PACKED ? PACKED_CHANNELS[glyphSet] : 0;
+    }
+
+    /**
+     * Return true if glyphs are packed to channels.
+     *
+     * @return true if glyphs are packed to channels.
+     */
+    public boolean isPacked() {
+        return glyphSets > 1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ss.editor.font.generator.core;
+
+/**
+ * The exception when some glyphs don't fit an atlas.
+ *
+ * @author JavaSaBr
+ */
+public class AtlasOverflowException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The count of glyphs which don't fit the atlas.
+     */
+    private final int skipped;
+
+    public AtlasOverflowException(int skipped, int imageWidth, int imageHeight, int pageCount) {
+        super(skipped + " glyphs don't fit " + pageCount + " atlas page(s) " + imageWidth + "x" + imageHeight);
+        this.skipped = skipped;
+    }
+
+    /**
+     * Get the count of glyphs which don't fit the atlas.
+     *
+     * @return the count of glyphs which don't fit the atlas.
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,804 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The generator of jME bitmap fonts which doesn't depend on the editor and JavaFX, so it can be used from
+ * the editor and from headless build pipelines.
+ *
+ * @author JavaSaBr
+ */
+public class BitmapFontGenerator {
+
+    public static final String FONT_EXTENSION = "fnt";
+    public static final String IMAGE_EXTENSION = "png";
+
+    /**
+     * The version of the generator, it's increased when the same settings start producing different files,
+     * so cached files of the previous versions aren't used.
+     */
+    public static final int VERSION = 3;
+
+    /**
+     * Get the atlas image file of the font file.
+     *
+     * @param fontFile the font file.
+     * @return the atlas image file.
+     */
+    public static @NotNull Path getImageFile(@NotNull Path fontFile) {
+        return getImageFile(fontFile, 0, 1);
+    }
+
+    /**
+     * Get the file of the atlas page of the font file, pages of a multi-page atlas have the page suffix which
+     * is padded by zeros, so names of all pages have the same length.
+     *
+     * @param fontFile  the font file.
+     * @param page      the page.
+     * @param pageCount the count of pages.
+     * @return the file of the atlas page.
+     */
+    public static @NotNull Path getImageFile(@NotNull Path fontFile, int page, int pageCount) {
+        return getImageFile(fontFile, page, pageCount, ImageFormat.PNG);
+    }
+
+    /**
+     * Get the file of the atlas page of the font file in the file format.
+     *
+     * @param fontFile    the font file.
+     * @param page        the page.
+     * @param pageCount   the count of pages.
+     * @param imageFormat the file format of atlas pages.
+     * @return the file of the atlas page.
+     * @see #getImageFile(Path, int, int)
+     */
+    public static @NotNull Path getImageFile(
+            @NotNull Path fontFile,
+            int page,
+            int pageCount,
+            @NotNull ImageFormat imageFormat
+    ) {
+
+        var fileName = fontFile.getFileName().toString();
+        var extensionIndex = fileName.lastIndexOf('.');
+
+        if (extensionIndex > 0) {
+            fileName = fileName.substring(0, extensionIndex);
+        }
+
+        if (pageCount > 1) {
+
+            var suffix = new StringBuilder(String.valueOf(page));
+            var digits = String.valueOf(pageCount - 1).length();
+
+            while (suffix.length() < digits) {
+                suffix.insert(0, '0');
+            }
+
+            fileName = fileName + "_" + suffix;
+        }
+
+        return fontFile.resolveSibling(fileName + "." + imageFormat.getExtension());
+    }
+
+    /**
+     * Get all files of the font file: the font file and the files of its atlas pages.
+     *
+     * @param fontFile  the font file.
+     * @param pageCount the count of pages.
+     * @return the list of files, the font file is the first.
+     */
+    public static @NotNull List<Path> getOutputFiles(@NotNull Path fontFile, int pageCount) {
+        return getOutputFiles(fontFile, pageCount, ImageFormat.PNG);
+    }
+
+    /**
+     * Get all files of the font file with atlas pages in the file format.
+     *
+     * @param fontFile    the font file.
+     * @param pageCount   the count of pages.
+     * @param imageFormat the file format of atlas pages.
+     * @return the list of files, the font file is the first.
+     */
+    public static @NotNull List<Path> getOutputFiles(
+            @NotNull Path fontFile,
+            int pageCount,
+            @NotNull ImageFormat imageFormat
+    ) {
+
+        var result = new ArrayList<Path>(pageCount + 1);
+        result.add(fontFile);
+
+        for (int page = 0; page < pageCount; page++) {
+            result.add(getImageFile(fontFile, page, pageCount, imageFormat));
+        }
+
+        return result;
+    }
+
+    /**
+     * The glyph layout factory.
+     */
+    @NotNull
+    private final GlyphLayoutFactory layoutFactory;
+
+    /**
+     * The glyph rasterizer.
+     */
+    @NotNull
+    private final GlyphRasterizer rasterizer;
+
+    /**
+     * The font description builder.
+     */
+    @NotNull
+    private final FontDescriptionBuilder descriptionBuilder;
+
+    /**
+     * The registry of fonts.
+     */
+    @NotNull
+    private final FontRegistry fontRegistry;
+
+    /**
+     * The max height of a strip to draw and encode atlas pages or 0 to draw whole pages.
+     */
+    private final int stripHeight;
+
+    /**
+     * Create a generator which draws glyphs in one thread.
+     */
+    public BitmapFontGenerator() {
+        this(1);
+    }
+
+    /**
+     * Create a generator.
+     *
+     * @param parallelism the count of threads to draw glyphs of one font.
+     */
+    public BitmapFontGenerator(int parallelism) {
+        this(parallelism, null);
+    }
+
+    /**
+     * Create a generator.
+     *
+     * @param parallelism the count of threads to draw glyphs of one font.
+     * @param cache       the cache of glyph metrics and rasterized glyphs or null.
+     * @see GlyphRasterizer#GlyphRasterizer(int, GlyphCache)
+     */
+    public BitmapFontGenerator(int parallelism, @Nullable GlyphCache cache) {
+        this(parallelism, cache, 0);
+    }
+
+    /**
+     * Create a generator which draws and encodes atlas pages by strips of rows, so the memory of images
+     * is bounded by the size of a strip instead of the size of a page. Strips of a page are drawn in one thread,
+     * so the parallel mode draws only different pages concurrently.
+     *
+     * @param parallelism the count of threads to draw glyphs of one font.
+     * @param cache       the cache of glyph metrics and rasterized glyphs or null.
+     * @param stripHeight the max height of a strip or 0 to draw whole pages.
+     */
+    public BitmapFontGenerator(int parallelism, @Nullable GlyphCache cache, int stripHeight) {
+        this(parallelism, cache, stripHeight, FontRegistry.getDefault());
+    }
+
+    /**
+     * Create a generator which resolves fonts by the registry.
+     *
+     * @param parallelism  the count of threads to draw glyphs of one font.
+     * @param cache        the cache of glyph metrics and rasterized glyphs or null.
+     * @param stripHeight  the max height of a strip or 0 to draw whole pages.
+     * @param fontRegistry the registry of fonts.
+     * @see #BitmapFontGenerator(int, GlyphCache, int)
+     */
+    public BitmapFontGenerator(
+            int parallelism,
+            @Nullable GlyphCache cache,
+            int stripHeight,
+            @NotNull FontRegistry fontRegistry
+    ) {
+
+        if (stripHeight < 0) {
+            throw new IllegalArgumentException("The strip height " + stripHeight + " is negative.");
+        }
+
+        this.rasterizer = new GlyphRasterizer(parallelism, cache);
+        this.layoutFactory = new GlyphLayoutFactory(cache, rasterizer.getPool());
+        this.descriptionBuilder = new FontDescriptionBuilder();
+        this.fontRegistry = fontRegistry;
+        this.stripHeight = stripHeight;
+    }
+
+    /**
+     * Lay out glyphs of a font using the settings.
+     *
+     * @param settings the settings.
+     * @return the glyph layout.
+     */
+    public @NotNull GlyphLayout layout(@NotNull BitmapFontSettings settings) {
+        return layout(settings, null);
+    }
+
+    /**
+     * Lay out glyphs of a font using the settings and record durations of phases.
+     *
+     * @param settings the settings.
+     * @param recorder the recorder of metrics or null.
+     * @return the glyph layout.
+     */
+    private @NotNull GlyphLayout layout(@NotNull BitmapFontSettings settings, @Nullable MetricsRecorder recorder) {
+
+        var font = fontRegistry.getFont(settings);
+        return layoutFactory.layout(font, settings, recorder);
+    }
+
+    /**
+     * Draw the first page of the glyph layout to a new atlas image.
+     *
+     * @param layout the glyph layout.
+     * @param debug  true if need to draw bounds of glyph cells.
+     * @return the atlas image.
+     */
+    public @NotNull BufferedImage render(@NotNull GlyphLayout layout, boolean debug) {
+        return rasterizer.render(layout, debug);
+    }
+
+    /**
+     * Draw the page of the glyph layout to a new atlas image.
+     *
+     * @param layout the glyph layout.
+     * @param page   the page.
+     * @param debug  true if need to draw bounds of glyph cells.
+     * @return the atlas image.
+     */
+    public @NotNull BufferedImage render(@NotNull GlyphLayout layout, int page, boolean debug) {
+        return rasterizer.render(layout, page, debug);
+    }
+
+    /**
+     * Draw the region of the page of the glyph layout scaled by the scale to a new preview image.
+     *
+     * @param layout the glyph layout.
+     * @param page   the page.
+     * @param region the region of the page.
+     * @param scale  the scale of the region.
+     * @param debug  true if need to draw bounds of glyph cells.
+     * @return the preview image.
+     */
+    public @NotNull BufferedImage render(
+            @NotNull GlyphLayout layout,
+            int page,
+            @NotNull Rectangle region,
+            double scale,
+            boolean debug
+    ) {
+        return rasterizer.render(layout, page, region, scale, debug);
+    }
+
+    /**
+     * Generate a font using the settings and write its description to the font file and its atlas pages
+     * to the sibling files {@link #getImageFile(Path, int, int)}. Pages are drawn and written concurrently
+     * in the parallel mode, every page is encoded by strips while it's drawn when the strip height is set.
+     *
+     * @param settings the settings.
+     * @param fontFile the font file.
+     * @return the metrics of generation.
+     * @throws IOException              if the files can't be written.
+     * @throws AtlasOverflowException   if some glyphs don't fit the atlas.
+     * @throws IllegalArgumentException if the file format of pages doesn't support the pixel format.
+     */
+    public @NotNull GenerationMetrics generate(@NotNull BitmapFontSettings settings, @NotNull Path fontFile)
+            throws IOException {
+
+        checkImageFormat(settings);
+
+        var recorder = new MetricsRecorder();
+        var layout = layout(settings, recorder);
+
+        checkOverflow(layout);
+        writeDescription(layout, settings, fontFile, getPageFiles(fontFile, layout.getPageCount(), settings),
+                recorder);
+        writePages(layout, settings, fontFile, recorder);
+
+        return recorder.toMetrics(layout);
+    }
+
+    /**
+     * Generate all variants of the font family using the settings of the family. Characters which a style can
+     * display are found once for all sizes of the style, variants are laid out, drawn and written concurrently
+     * in the parallel mode. Every variant is written to its font file {@link FontFamily#getVariantFile(Path,
+     * BitmapFontSettings)} with its own atlas pages or with pages of one atlas which is shared by all variants,
+     * pages of the shared atlas are written to the sibling files of the family font file.
+     *
+     * @param settings    the settings of the family.
+     * @param family      the sizes and styles of the family.
+     * @param fontFile    the font file of the family.
+     * @param sharedAtlas true if variants share one atlas.
+     * @return the output of generation.
+     * @throws IOException              if the files can't be written.
+     * @throws AtlasOverflowException   if some glyphs don't fit the atlas.
+     * @throws IllegalArgumentException if the file format of pages doesn't support the pixel format.
+     */
+    public @NotNull FontFamilyOutput generateFamily(
+            @NotNull BitmapFontSettings settings,
+            @NotNull FontFamily family,
+            @NotNull Path fontFile,
+            boolean sharedAtlas
+    ) throws IOException {
+
+        checkImageFormat(settings);
+
+        var variants = family.getVariants(settings);
+        var count = variants.size();
+        var sizes = family.getSizes();
+        var styles = family.getStyles();
+
+        var fontFiles = new ArrayList<Path>(count);
+        var recorders = new MetricsRecorder[count];
+        var layouts = new GlyphLayout[count];
+        var displayable = new CharacterSet[styles.length];
+
+        for (int i = 0; i < count; i++) {
+            fontFiles.add(FontFamily.getVariantFile(fontFile, variants.get(i)));
+            recorders[i] = new MetricsRecorder();
+        }
+
+        // styles of a font can have different glyphs, but sizes of a style have the same glyphs
+        for (int i = 0; i < styles.length; i++) {
+
+            var startTime = System.nanoTime();
+            var font = fontRegistry.getFont(settings.getFontFile(), settings.getFontName(), styles[i], sizes[0]);
+            displayable[i] = layoutFactory.scan(font, settings);
+
+            var scanRecorder = new MetricsRecorder();
+            scanRecorder.addDuration(GenerationPhase.SCAN, System.nanoTime() - startTime);
+
+            for (int j = 0; j < sizes.length; j++) {
+                recorders[i * sizes.length + j].addShare(scanRecorder, j, sizes.length);
+            }
+        }
+
+        runVariants(count, index -> {
+
+            var variant = variants.get(index);
+            var variantFile = fontFiles.get(index);
+            var recorder = recorders[index];
+            var font = fontRegistry.getFont(variant);
+            var layout = layoutFactory.layout(font, variant, displayable[index / sizes.length], recorder);
+
+            checkOverflow(layout);
+
+            if (!sharedAtlas) {
+                writeDescription(layout, variant, variantFile,
+                        getPageFiles(variantFile, layout.getPageCount(), variant), recorder);
+                writePages(layout, variant, variantFile, recorder);
+            }
+
+            layouts[index] = layout;
+        });
+
+        var metrics = new ArrayList<GenerationMetrics>(count);
+        var outputFiles = new ArrayList<Path>();
+
+        if (!sharedAtlas) {
+
+            for (int i = 0; i < count; i++) {
+                metrics.add(recorders[i].toMetrics(layouts[i]));
+                outputFiles.addAll(getOutputFiles(fontFiles.get(i), layouts[i].getPageCount(),
+                        settings.getImageFormat()));
+            }
+
+            return new FontFamilyOutput(fontFiles, metrics, outputFiles);
+        }
+
+        var atlas = SharedAtlas.pack(layouts, settings);
+        var pageFiles = getPageFiles(fontFile, atlas.getPageCount(), settings);
+
+        for (int i = 0; i < count; i++) {
+
+            var variantPageFiles = new ArrayList<String>();
+
+            for (var page : atlas.getLayoutPages(i)) {
+                variantPageFiles.add(pageFiles.get(page));
+            }
+
+            writeDescription(atlas.getLayout(i), variants.get(i), fontFiles.get(i), variantPageFiles,
+                    recorders[i]);
+            outputFiles.add(fontFiles.get(i));
+        }
+
+        writeSharedPages(atlas, settings, fontFile, recorders);
+
+        for (int i = 0; i < count; i++) {
+            metrics.add(recorders[i].toMetrics(atlas.getLayout(i)));
+        }
+
+        for (int page = 0; page < atlas.getPageCount(); page++) {
+            outputFiles.add(getImageFile(fontFile, page, atlas.getPageCount(), settings.getImageFormat()));
+        }
+
+        return new FontFamilyOutput(fontFiles, metrics, outputFiles);
+    }
+
+    /**
+     * Run the task for every variant of a family, variants run concurrently in the parallel mode.
+     *
+     * @param count the count of variants.
+     * @param task  the task.
+     * @throws IOException if a task failed to write files.
+     */
+    private void runVariants(int count, @NotNull VariantTask task) throws IOException {
+
+        var pool = rasterizer.getPool();
+
+        if (pool == null || count < 2) {
+
+            for (int i = 0; i < count; i++) {
+                task.run(i);
+            }
+
+            return;
+        }
+
+        var actions = new ArrayList<RecursiveAction>(count);
+
+        for (int i = 0; i < count; i++) {
+
+            var index = i;
+
+            actions.add(new RecursiveAction() {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    try {
+                        task.run(index);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        }
+
+        try {
+            pool.invoke(new RecursiveAction() {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    invokeAll(actions);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Check that all glyphs of the layout fit the atlas.
+     *
+     * @param layout the glyph layout.
+     * @throws AtlasOverflowException if some glyphs don't fit the atlas.
+     */
+    private static void checkOverflow(@NotNull GlyphLayout layout) {
+        if (layout.getSkipped() > 0) {
+            throw new AtlasOverflowException(layout.getSkipped(), layout.getImageWidth(), layout.getImageHeight(),
+                    layout.getPageCount());
+        }
+    }
+
+    /**
+     * Check that atlas pages of the pixel format can be written in the file format of the settings.
+     *
+     * @param settings the settings.
+     * @throws IllegalArgumentException if the file format doesn't support the pixel format.
+     */
+    private static void checkImageFormat(@NotNull BitmapFontSettings settings) {
+        // colors of a DXT5 block share endpoints, so glyphs of different channels would bleed into each other
+        if (settings.getImageFormat() == ImageFormat.DDS && settings.getAtlasFormat().isPacked()) {
+            throw new IllegalArgumentException("The " + settings.getAtlasFormat().getTitle() +
+                    " pixel format can't be written to " + settings.getImageFormat().getTitle() + " files.");
+        }
+    }
+
+    /**
+     * Get the file names of atlas pages of the font file.
+     *
+     * @param fontFile  the font file.
+     * @param pageCount the count of pages.
+     * @param settings  the settings.
+     * @return the list of file names of atlas pages.
+     */
+    private static @NotNull List<String> getPageFiles(
+            @NotNull Path fontFile,
+            int pageCount,
+            @NotNull BitmapFontSettings settings
+    ) {
+
+        var result = new ArrayList<String>(pageCount);
+
+        for (int page = 0; page < pageCount; page++) {
+            result.add(getImageFile(fontFile, page, pageCount, settings.getImageFormat()).getFileName()
+                    .toString());
+        }
+
+        return result;
+    }
+
+    /**
+     * Write the description of the glyph layout to the font file.
+     *
+     * @param layout    the glyph layout.
+     * @param settings  the settings.
+     * @param fontFile  the font file.
+     * @param pageFiles the file names of atlas pages.
+     * @param recorder  the recorder of metrics.
+     * @throws IOException if the font file can't be written.
+     */
+    private void writeDescription(
+            @NotNull GlyphLayout layout,
+            @NotNull BitmapFontSettings settings,
+            @NotNull Path fontFile,
+            @NotNull List<String> pageFiles,
+            @NotNull MetricsRecorder recorder
+    ) throws IOException {
+
+        var face = getImageFile(fontFile, 0, 1, settings.getImageFormat()).getFileName().toString();
+        var startTime = System.nanoTime();
+
+        if (settings.isBinaryDescription()) {
+            try (var out = new BufferedOutputStream(Files.newOutputStream(fontFile))) {
+                descriptionBuilder.writeBinary(layout, face, pageFiles, settings.getFontSize(), out);
+            }
+        } else {
+            try (var out = Files.newBufferedWriter(fontFile)) {
+                descriptionBuilder.write(layout, face, pageFiles, settings.getFontSize(), out);
+            }
+        }
+
+        recorder.addDuration(GenerationPhase.DESCRIPTION, System.nanoTime() - startTime);
+        recorder.addBytesWritten(Files.size(fontFile));
+    }
+
+    /**
+     * Draw atlas pages of the glyph layout and write them to the sibling files of the font file
+     * {@link #getImageFile(Path, int, int)}. Pages are drawn and written concurrently in the parallel mode,
+     * every page is encoded by strips while it's drawn when the strip height is set.
+     *
+     * @param layout   the glyph layout.
+     * @param settings the settings.
+     * @param fontFile the font file.
+     * @param recorder the recorder of metrics.
+     * @throws IOException if the files can't be written.
+     */
+    private void writePages(
+            @NotNull GlyphLayout layout,
+            @NotNull BitmapFontSettings settings,
+            @NotNull Path fontFile,
+            @NotNull MetricsRecorder recorder
+    ) throws IOException {
+
+        var pageCount = layout.getPageCount();
+        var imageWidth = layout.getImageWidth();
+        var imageHeight = layout.getImageHeight();
+        var grayscale = layout.getFormat() == AtlasFormat.ALPHA;
+
+        // an encoder of a page is used only by the thread which draws the page
+        var encoders = new PageEncoder[pageCount];
+
+        try {
+
+            rasterizer.renderPages(layout, false, stripHeight > 0 ? stripHeight : imageHeight, (page, y, image) -> {
+
+                var imageFile = getImageFile(fontFile, page, pageCount, settings.getImageFormat());
+                var encodeStartTime = System.nanoTime();
+
+                if (y == 0) {
+                    encoders[page] = newEncoder(imageFile, imageWidth, imageHeight, grayscale, settings);
+                }
+
+                var encoder = encoders[page];
+                encoder.writeRows(image);
+
+                var last = y + image.getHeight() == imageHeight;
+
+                if (last) {
+                    encoders[page] = null;
+                    encoder.close();
+                }
+
+                recorder.addDuration(GenerationPhase.ENCODE, System.nanoTime() - encodeStartTime);
+
+                if (last) {
+                    recorder.addBytesWritten(Files.size(imageFile));
+                }
+
+            }, recorder);
+
+        } finally {
+            closeEncoders(encoders);
+        }
+    }
+
+    /**
+     * Draw pages of the shared atlas by strips and write them to the sibling files of the font file. A strip is
+     * composed of the strips of the fonts which have glyphs on the page, glyph cells don't overlap, so the strips
+     * are merged by the max value of every byte. Drawing of a font is counted by its metrics, memory, encoding and
+     * bytes of pages are split evenly between the metrics of fonts.
+     *
+     * @param atlas     the shared atlas.
+     * @param settings  the settings of the family.
+     * @param fontFile  the font file of the family.
+     * @param recorders the recorders of metrics of fonts.
+     * @throws IOException if the files can't be written.
+     */
+    private void writeSharedPages(
+            @NotNull SharedAtlas atlas,
+            @NotNull BitmapFontSettings settings,
+            @NotNull Path fontFile,
+            @NotNull MetricsRecorder[] recorders
+    ) throws IOException {
+
+        var grayscale = atlas.getLayout(0).getFormat() == AtlasFormat.ALPHA;
+        var imageWidth = atlas.getImageWidth();
+        var imageHeight = atlas.getImageHeight();
+        var pageCount = atlas.getPageCount();
+        var layoutCount = atlas.getLayoutCount();
+        var maxStripHeight = stripHeight > 0 ? Math.min(stripHeight, imageHeight) : imageHeight;
+
+        // pages are shared by variants, so their memory, encoding and bytes are recorded once and split evenly
+        var recorder = new MetricsRecorder();
+
+        for (int page = 0; page < pageCount; page++) {
+
+            var imageFile = getImageFile(fontFile, page, pageCount, settings.getImageFormat());
+
+            try (var encoder = newEncoder(imageFile, imageWidth, imageHeight, grayscale, settings)) {
+
+                for (int y = 0; y < imageHeight; y += maxStripHeight) {
+
+                    var region = new Rectangle(0, y, imageWidth, Math.min(maxStripHeight, imageHeight - y));
+
+                    BufferedImage strip = null;
+                    byte[] pixels = null;
+
+                    for (int i = 0; i < layoutCount; i++) {
+
+                        var layoutPage = atlas.getLayoutPage(i, page);
+
+                        if (layoutPage < 0) {
+                            continue;
+                        }
+
+                        var startTime = System.nanoTime();
+                        var image = rasterizer.render(atlas.getLayout(i), layoutPage, region, 1, false);
+
+                        recorders[i].addDuration(GenerationPhase.RASTERIZE, System.nanoTime() - startTime);
+
+                        var imagePixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+                        recorder.allocateImageMemory(imagePixels.length);
+
+                        if (strip == null) {
+                            strip = image;
+                            pixels = imagePixels;
+                            continue;
+                        }
+
+                        for (int j = 0; j < pixels.length; j++) {
+                            if ((imagePixels[j] & 0xFF) > (pixels[j] & 0xFF)) {
+                                pixels[j] = imagePixels[j];
+                            }
+                        }
+
+                        recorder.releaseImageMemory(imagePixels.length);
+                    }
+
+                    var encodeStartTime = System.nanoTime();
+
+                    try {
+                        encoder.writeRows(strip);
+                    } finally {
+                        recorder.releaseImageMemory(pixels.length);
+                    }
+
+                    recorder.addDuration(GenerationPhase.ENCODE, System.nanoTime() - encodeStartTime);
+                }
+            }
+
+            recorder.addBytesWritten(Files.size(imageFile));
+        }
+
+        for (int i = 0; i < layoutCount; i++) {
+            recorders[i].addShare(recorder, i, layoutCount);
+        }
+    }
+
+    /**
+     * Create an encoder of the atlas page file in the file format and with the compression of the settings, blocks
+     * of image data are compressed in parallel in the parallel mode.
+     *
+     * @param imageFile   the file of the atlas page.
+     * @param imageWidth  the width of the page.
+     * @param imageHeight the height of the page.
+     * @param grayscale   true if the page is grayscale.
+     * @param settings    the settings.
+     * @return the encoder.
+     * @throws IOException if the file can't be written.
+     */
+    private @NotNull PageEncoder newEncoder(
+            @NotNull Path imageFile,
+            int imageWidth,
+            int imageHeight,
+            boolean grayscale,
+            @NotNull BitmapFontSettings settings
+    ) throws IOException {
+
+        var out = Files.newOutputStream(imageFile);
+
+        try {
+
+            if (settings.getImageFormat() == ImageFormat.DDS) {
+                return new DdsEncoder(out, imageWidth, imageHeight, grayscale, rasterizer.getPool());
+            }
+
+            return new PngEncoder(out, imageWidth, imageHeight, grayscale, settings.getCompressionLevel(),
+                    settings.getPngFilter(), rasterizer.getPool());
+
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Close encoders of pages which weren't finished because of a failure, errors of closing are suppressed
+     * because the failure is more useful.
+     *
+     * @param encoders the encoders.
+     */
+    private static void closeEncoders(@NotNull PageEncoder[] encoders) {
+        for (var encoder : encoders) {
+            if (encoder != null) {
+                try {
+                    encoder.close();
+                } catch (IOException e) {
+                    // the failure of generation is thrown instead
+                }
+            }
+        }
+    }
+
+    /**
+     * The task for a variant of a font family.
+     */
+    @FunctionalInterface
+    private interface VariantTask {
+
+        /**
+         * Run the task for the variant.
+         *
+         * @param index the index of the variant.
+         * @throws IOException if the task failed to write files.
+         */
+        void run(int index) throws IOException;
+    }
+}
@@ -0,0 +1,768 @@
+package com.ss.editor.font.generator.core;
+
+import com.ss.editor.font.generator.core.pack.PackingStrategy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.nio.file.Path;
+
+/**
+ * The settings of bitmap font generation.
+ *
+ * @author JavaSaBr
+ */
+public class BitmapFontSettings {
+
+    public static final String STYLE_PLAIN = "Plain";
+    public static final String STYLE_ITALIC = "Italic";
+    public static final String STYLE_BOLD = "Bold";
+
+    /**
+     * Get the font style code by its name.
+     *
+     * @param styleName the style name.
+     * @return the font style code or -1 if the name is unknown.
+     */
+    public static int toFontStyle(@NotNull String styleName) {
+        switch (styleName) {
+            case STYLE_PLAIN:
+                return Font.PLAIN;
+            case STYLE_ITALIC:
+                return Font.ITALIC;
+            case STYLE_BOLD:
+                return Font.BOLD;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Get the style name by the font style code.
+     *
+     * @param fontStyle the font style code.
+     * @return the style name or null if the code has no name.
+     */
+    public static @Nullable String toStyleName(int fontStyle) {
+        switch (fontStyle) {
+            case Font.PLAIN:
+                return STYLE_PLAIN;
+            case Font.ITALIC:
+                return STYLE_ITALIC;
+            case Font.BOLD:
+                return STYLE_BOLD;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The name of a font.
+     */
+    @NotNull
+    private String fontName;
+
+    /**
+     * The file of a font or null to use an installed font.
+     */
+    @Nullable
+    private Path fontFile;
+
+    /**
+     * The style of a font.
+     */
+    private int fontStyle;
+
+    /**
+     * The strategy to pack glyphs.
+     */
+    @NotNull
+    private PackingStrategy packingStrategy;
+
+    /**
+     * The pixel format of atlas pages.
+     */
+    @NotNull
+    private AtlasFormat atlasFormat;
+
+    /**
+     * The file format of atlas pages.
+     */
+    @NotNull
+    private ImageFormat imageFormat;
+
+    /**
+     * The filter of rows of PNG atlas pages.
+     */
+    @NotNull
+    private PngFilter pngFilter;
+
+    /**
+     * The size of a font.
+     */
+    private int fontSize;
+
+    /**
+     * The size of an atlas image.
+     */
+    private int imageSize;
+
+    /**
+     * The max count of atlas pages.
+     */
+    private int maxPages;
+
+    /**
+     * The padding X.
+     */
+    private int paddingX;
+
+    /**
+     * The padding Y.
+     */
+    private int paddingY;
+
+    /**
+     * The letter spacing.
+     */
+    private int letterSpacing;
+
+    /**
+     * The first char.
+     */
+    private int firstChar;
+
+    /**
+     * The last char.
+     */
+    private int lastChar;
+
+    /**
+     * The set of characters or null to use the range from the first char to the last char.
+     */
+    @Nullable
+    private CharacterSet characterSet;
+
+    /**
+     * The spread of a distance field in pixels.
+     */
+    private int distanceFieldSpread;
+
+    /**
+     * The scale of the resolution to draw glyphs before computing a distance field.
+     */
+    private int distanceFieldScale;
+
+    /**
+     * The compression level of PNG atlas pages.
+     */
+    private int compressionLevel;
+
+    /**
+     * True if need to find the smallest power of two atlas size which fits all glyphs.
+     */
+    private boolean autoImageSize;
+
+    /**
+     * True if the automatic atlas size can be non-square.
+     */
+    private boolean nonSquareImage;
+
+    /**
+     * True if identical glyphs share one atlas cell.
+     */
+    private boolean deduplicateGlyphs;
+
+    /**
+     * True if need to draw glyphs as a signed distance field.
+     */
+    private boolean distanceField;
+
+    /**
+     * True if need to write a binary description.
+     */
+    private boolean binaryDescription;
+
+    /**
+     * True if need to extract kerning pairs.
+     */
+    private boolean kerning;
+
+    /**
+     * The sample text to take candidate kerning pairs from or null.
+     */
+    @Nullable
+    private String kerningSample;
+
+    public BitmapFontSettings(@NotNull String fontName) {
+        this.fontName = fontName;
+        this.fontStyle = Font.PLAIN;
+        this.fontSize = 16;
+        this.imageSize = 256;
+        this.maxPages = 1;
+        this.distanceFieldSpread = 4;
+        this.distanceFieldScale = 8;
+        this.lastChar = 256;
+        this.packingStrategy = PackingStrategy.MAX_RECTS;
+        this.atlasFormat = AtlasFormat.RGBA;
+        this.imageFormat = ImageFormat.PNG;
+        this.pngFilter = PngFilter.ADAPTIVE;
+        this.compressionLevel = PngEncoder.DEFAULT_COMPRESSION_LEVEL;
+    }
+
+    /**
+     * Create a copy of the settings.
+     *
+     * @param settings the settings to copy.
+     */
+    public BitmapFontSettings(@NotNull BitmapFontSettings settings) {
+        this.fontName = settings.fontName;
+        this.fontFile = settings.fontFile;
+        this.fontStyle = settings.fontStyle;
+        this.packingStrategy = settings.packingStrategy;
+        this.atlasFormat = settings.atlasFormat;
+        this.imageFormat = settings.imageFormat;
+        this.pngFilter = settings.pngFilter;
+        this.fontSize = settings.fontSize;
+        this.imageSize = settings.imageSize;
+        this.maxPages = settings.maxPages;
+        this.paddingX = settings.paddingX;
+        this.paddingY = settings.paddingY;
+        this.letterSpacing = settings.letterSpacing;
+        this.firstChar = settings.firstChar;
+        this.lastChar = settings.lastChar;
+        this.characterSet = settings.characterSet;
+        this.distanceFieldSpread = settings.distanceFieldSpread;
+        this.distanceFieldScale = settings.distanceFieldScale;
+        this.compressionLevel = settings.compressionLevel;
+        this.autoImageSize = settings.autoImageSize;
+        this.nonSquareImage = settings.nonSquareImage;
+        this.deduplicateGlyphs = settings.deduplicateGlyphs;
+        this.distanceField = settings.distanceField;
+        this.binaryDescription = settings.binaryDescription;
+        this.kerning = settings.kerning;
+        this.kerningSample = settings.kerningSample;
+    }
+
+    /**
+     * Get the set of requested characters: the set of characters or the range from the first char to the last
+     * char.
+     *
+     * @return the set of requested characters.
+     */
+    public @NotNull CharacterSet getRequestedCharacters() {
+        return characterSet == null ? CharacterSet.range(firstChar, lastChar) : characterSet;
+    }
+
+    /**
+     * Get the name of a font.
+     *
+     * @return the name of a font.
+     */
+    public @NotNull String getFontName() {
+        return fontName;
+    }
+
+    /**
+     * Set the name of a font.
+     *
+     * @param fontName the name of a font.
+     */
+    public void setFontName(@NotNull String fontName) {
+        this.fontName = fontName;
+    }
+
+    /**
+     * Get the TTF, OTF or TTC file of a font.
+     *
+     * @return the file of a font or null to use an installed font.
+     */
+    public @Nullable Path getFontFile() {
+        return fontFile;
+    }
+
+    /**
+     * Set the TTF, OTF or TTC file of a font. The font is loaded from the file instead of resolving an installed
+     * font, the name of a font selects a font of a collection.
+     *
+     * @param fontFile the file of a font or null to use an installed font.
+     * @see FontRegistry#getFont(Path, String, int, int)
+     */
+    public void setFontFile(@Nullable Path fontFile) {
+        this.fontFile = fontFile;
+    }
+
+    /**
+     * Get the style of a font.
+     *
+     * @return the style of a font.
+     * @see Font#getStyle()
+     */
+    public int getFontStyle() {
+        return fontStyle;
+    }
+
+    /**
+     * Set the style of a font.
+     *
+     * @param fontStyle the style of a font.
+     * @see Font#getStyle()
+     */
+    public void setFontStyle(int fontStyle) {
+        this.fontStyle = fontStyle;
+    }
+
+    /**
+     * Get the size of a font.
+     *
+     * @return the size of a font.
+     */
+    public int getFontSize() {
+        return fontSize;
+    }
+
+    /**
+     * Set the size of a font.
+     *
+     * @param fontSize the size of a font.
+     */
+    public void setFontSize(int fontSize) {
+        this.fontSize = fontSize;
+    }
+
+    /**
+     * Get the size of an atlas image, it's the max size if the automatic atlas size is enabled.
+     *
+     * @return the size of an atlas image.
+     */
+    public int getImageSize() {
+        return imageSize;
+    }
+
+    /**
+     * Set the size of an atlas image.
+     *
+     * @param imageSize the size of an atlas image.
+     */
+    public void setImageSize(int imageSize) {
+        this.imageSize = imageSize;
+    }
+
+    /**
+     * Get the max count of atlas pages, every page has the size of an atlas image. Glyphs which don't fit
+     * a page are spilled to the next page.
+     *
+     * @return the max count of atlas pages.
+     */
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    /**
+     * Set the max count of atlas pages.
+     *
+     * @param maxPages the max count of atlas pages.
+     */
+    public void setMaxPages(int maxPages) {
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Get the padding X.
+     *
+     * @return the padding X.
+     */
+    public int getPaddingX() {
+        return paddingX;
+    }
+
+    /**
+     * Set the padding X.
+     *
+     * @param paddingX the padding X.
+     */
+    public void setPaddingX(int paddingX) {
+        this.paddingX = paddingX;
+    }
+
+    /**
+     * Get the padding Y.
+     *
+     * @return the padding Y.
+     */
+    public int getPaddingY() {
+        return paddingY;
+    }
+
+    /**
+     * Set the padding Y.
+     *
+     * @param paddingY the padding Y.
+     */
+    public void setPaddingY(int paddingY) {
+        this.paddingY = paddingY;
+    }
+
+    /**
+     * Get the letter spacing.
+     *
+     * @return the letter spacing.
+     */
+    public int getLetterSpacing() {
+        return letterSpacing;
+    }
+
+    /**
+     * Set the letter spacing.
+     *
+     * @param letterSpacing the letter spacing.
+     */
+    public void setLetterSpacing(int letterSpacing) {
+        this.letterSpacing = letterSpacing;
+    }
+
+    /**
+     * Get the first char.
+     *
+     * @return the first char.
+     */
+    public int getFirstChar() {
+        return firstChar;
+    }
+
+    /**
+     * Set the first char.
+     *
+     * @param firstChar the first char.
+     */
+    public void setFirstChar(int firstChar) {
+        this.firstChar = firstChar;
+    }
+
+    /**
+     * Get the last char.
+     *
+     * @return the last char.
+     */
+    public int getLastChar() {
+        return lastChar;
+    }
+
+    /**
+     * Set the last char.
+     *
+     * @param lastChar the last char.
+     */
+    public void setLastChar(int lastChar) {
+        this.lastChar = lastChar;
+    }
+
+    /**
+     * Get the set of characters, if it's set the first char and the last char are ignored.
+     *
+     * @return the set of characters or null to use the range from the first char to the last char.
+     */
+    public @Nullable CharacterSet getCharacterSet() {
+        return characterSet;
+    }
+
+    /**
+     * Set the set of characters.
+     *
+     * @param characterSet the set of characters or null to use the range from the first char to the last char.
+     */
+    public void setCharacterSet(@Nullable CharacterSet characterSet) {
+        this.characterSet = characterSet;
+    }
+
+    /**
+     * Get the strategy to pack glyphs.
+     *
+     * @return the strategy to pack glyphs.
+     */
+    public @NotNull PackingStrategy getPackingStrategy() {
+        return packingStrategy;
+    }
+
+    /**
+     * Set the strategy to pack glyphs.
+     *
+     * @param packingStrategy the strategy to pack glyphs.
+     */
+    public void setPackingStrategy(@NotNull PackingStrategy packingStrategy) {
+        this.packingStrategy = packingStrategy;
+    }
+
+    /**
+     * Get the pixel format of atlas pages.
+     *
+     * @return the pixel format of atlas pages.
+     */
+    public @NotNull AtlasFormat getAtlasFormat() {
+        return atlasFormat;
+    }
+
+    /**
+     * Set the pixel format of atlas pages.
+     *
+     * @param atlasFormat the pixel format of atlas pages.
+     */
+    public void setAtlasFormat(@NotNull AtlasFormat atlasFormat) {
+        this.atlasFormat = atlasFormat;
+    }
+
+    /**
+     * Get the file format of atlas pages.
+     *
+     * @return the file format of atlas pages.
+     */
+    public @NotNull ImageFormat getImageFormat() {
+        return imageFormat;
+    }
+
+    /**
+     * Set the file format of atlas pages, {@link ImageFormat#DDS} doesn't support the packed pixel format.
+     *
+     * @param imageFormat the file format of atlas pages.
+     */
+    public void setImageFormat(@NotNull ImageFormat imageFormat) {
+        this.imageFormat = imageFormat;
+    }
+
+    /**
+     * Get the filter of rows of PNG atlas pages.
+     *
+     * @return the filter of rows.
+     */
+    public @NotNull PngFilter getPngFilter() {
+        return pngFilter;
+    }
+
+    /**
+     * Set the filter of rows of PNG atlas pages.
+     *
+     * @param pngFilter the filter of rows.
+     */
+    public void setPngFilter(@NotNull PngFilter pngFilter) {
+        this.pngFilter = pngFilter;
+    }
+
+    /**
+     * Get the compression level of PNG atlas pages.
+     *
+     * @return the compression level from 0 to 9.
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Set the compression level of PNG atlas pages, {@link PngEncoder#FAST_COMPRESSION_LEVEL} is for iterations
+     * and {@link PngEncoder#MAX_COMPRESSION_LEVEL} is for releases.
+     *
+     * @param compressionLevel the compression level from 0 to 9.
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Return true if need to find the smallest power of two atlas size which fits all glyphs.
+     *
+     * @return true if the automatic atlas size is enabled.
+     */
+    public boolean isAutoImageSize() {
+        return autoImageSize;
+    }
+
+    /**
+     * Set true if need to find the smallest power of two atlas size which fits all glyphs.
+     *
+     * @param autoImageSize true if the automatic atlas size is enabled.
+     */
+    public void setAutoImageSize(boolean autoImageSize) {
+        this.autoImageSize = autoImageSize;
+    }
+
+    /**
+     * Return true if the automatic atlas size can be non-square.
+     *
+     * @return true if the automatic atlas size can be non-square.
+     */
+    public boolean isNonSquareImage() {
+        return nonSquareImage;
+    }
+
+    /**
+     * Set true if the automatic atlas size can be non-square.
+     *
+     * @param nonSquareImage true if the automatic atlas size can be non-square.
+     */
+    public void setNonSquareImage(boolean nonSquareImage) {
+        this.nonSquareImage = nonSquareImage;
+    }
+
+    /**
+     * Return true if identical glyphs share one atlas cell.
+     *
+     * @return true if identical glyphs share one atlas cell.
+     */
+    public boolean isDeduplicateGlyphs() {
+        return deduplicateGlyphs;
+    }
+
+    /**
+     * Set true if identical glyphs should share one atlas cell. Characters which are drawn by the same glyph code
+     * or to the same pixels, like compatibility characters, and empty glyphs of the same cell size are packed
+     * once and their descriptions point to the same region.
+     *
+     * @param deduplicateGlyphs true if identical glyphs share one atlas cell.
+     */
+    public void setDeduplicateGlyphs(boolean deduplicateGlyphs) {
+        this.deduplicateGlyphs = deduplicateGlyphs;
+    }
+
+    /**
+     * Return true if need to draw glyphs as a signed distance field instead of coverage. A distance field atlas
+     * is a single-channel image which can be rendered sharp at many sizes.
+     *
+     * @return true if need to draw glyphs as a signed distance field.
+     */
+    public boolean isDistanceField() {
+        return distanceField;
+    }
+
+    /**
+     * Set true if need to draw glyphs as a signed distance field instead of coverage.
+     *
+     * @param distanceField true if need to draw glyphs as a signed distance field.
+     */
+    public void setDistanceField(boolean distanceField) {
+        this.distanceField = distanceField;
+    }
+
+    /**
+     * Get the spread of a distance field in pixels.
+     *
+     * @return the spread of a distance field in pixels.
+     * @see GlyphLayout#getDistanceFieldSpread()
+     */
+    public int getDistanceFieldSpread() {
+        return distanceFieldSpread;
+    }
+
+    /**
+     * Set the spread of a distance field in pixels.
+     *
+     * @param distanceFieldSpread the spread of a distance field in pixels.
+     */
+    public void setDistanceFieldSpread(int distanceFieldSpread) {
+        this.distanceFieldSpread = distanceFieldSpread;
+    }
+
+    /**
+     * Get the scale of the resolution to draw glyphs before computing a distance field.
+     *
+     * @return the scale of the resolution.
+     */
+    public int getDistanceFieldScale() {
+        return distanceFieldScale;
+    }
+
+    /**
+     * Set the scale of the resolution to draw glyphs before computing a distance field.
+     *
+     * @param distanceFieldScale the scale of the resolution.
+     */
+    public void setDistanceFieldScale(int distanceFieldScale) {
+        this.distanceFieldScale = distanceFieldScale;
+    }
+
+    /**
+     * Return true if need to write a binary (BMFont version 3) description instead of the text one.
+     *
+     * @return true if need to write a binary description.
+     */
+    public boolean isBinaryDescription() {
+        return binaryDescription;
+    }
+
+    /**
+     * Set true if need to write a binary (BMFont version 3) description instead of the text one.
+     *
+     * @param binaryDescription true if need to write a binary description.
+     */
+    public void setBinaryDescription(boolean binaryDescription) {
+        this.binaryDescription = binaryDescription;
+    }
+
+    /**
+     * Return true if need to extract kerning pairs of glyphs.
+     *
+     * @return true if need to extract kerning pairs.
+     */
+    public boolean isKerning() {
+        return kerning;
+    }
+
+    /**
+     * Set true if need to extract kerning pairs of glyphs.
+     *
+     * @param kerning true if need to extract kerning pairs.
+     */
+    public void setKerning(boolean kerning) {
+        this.kerning = kerning;
+    }
+
+    /**
+     * Get the sample text to take candidate kerning pairs from, only pairs of adjacent characters of the text
+     * are checked.
+     *
+     * @return the sample text or null to check pairs of the same scripts.
+     */
+    public @Nullable String getKerningSample() {
+        return kerningSample;
+    }
+
+    /**
+     * Set the sample text to take candidate kerning pairs from, only pairs of adjacent characters of the text
+     * are checked.
+     *
+     * @param kerningSample the sample text or null to check pairs of the same scripts.
+     */
+    public void setKerningSample(@Nullable String kerningSample) {
+        this.kerningSample = kerningSample;
+    }
+
+    @Override
+    public String toString() {
+        return "BitmapFontSettings{" +
+                "fontName='" + fontName + '\'' +
+                ", fontFile=" + fontFile +
+                ", fontStyle=" + fontStyle +
+                ", fontSize=" + fontSize +
+                ", imageSize=" + imageSize +
+                ", maxPages=" + maxPages +
+                ", paddingX=" + paddingX +
+                ", paddingY=" + paddingY +
+                ", letterSpacing=" + letterSpacing +
+                ", firstChar=" + firstChar +
+                ", lastChar=" + lastChar +
+                ", characterSet=" + characterSet +
+                ", packingStrategy=" + packingStrategy +
+                ", atlasFormat=" + atlasFormat +
+                ", imageFormat=" + imageFormat +
+                ", pngFilter=" + pngFilter +
+                ", compressionLevel=" + compressionLevel +
+                ", autoImageSize=" + autoImageSize +
+                ", nonSquareImage=" + nonSquareImage +
+                ", deduplicateGlyphs=" + deduplicateGlyphs +
+                ", distanceField=" + distanceField +
+                ", distanceFieldSpread=" + distanceFieldSpread +
+                ", distanceFieldScale=" + distanceFieldScale +
+                ", binaryDescription=" + binaryDescription +
+                ", kerning=" + kerning +
+                ", kerningSample=" + (kerningSample == null ? null : kerningSample.length() + " chars") +
+                '}';
+    }
+}
@@ -0,0 +1,300 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+/**
+ * The set of Unicode code points to generate glyphs for, including code points of supplementary planes.
+ * It's stored as a bit set, so sparse sets of big ranges are iterated without visiting unused code points.
+ * <p>
+ * The text form of a set is the list of comma separated items, every item is a code point, a range of code
+ * points or a name of a Unicode block, code points can be decimal or hex with prefixes "0x" and "U+":
+ * <pre>
+ * 32-126, 0x400-0x4FF, U+20AC, U+1F600-U+1F64F, Greek and Coptic
+ * </pre>
+ *
+ * @author JavaSaBr
+ */
+public class CharacterSet {
+
+    /**
+     * Create a set of the range of code points.
+     *
+     * @param first the first code point.
+     * @param last  the last code point (inclusive).
+     * @return the new set.
+     */
+    public static @NotNull CharacterSet range(int first, int last) {
+        var result = new CharacterSet();
+        result.add(first, last);
+        return result;
+    }
+
+    /**
+     * Create a set of all code points of the text.
+     *
+     * @param text the text.
+     * @return the new set.
+     */
+    public static @NotNull CharacterSet of(@NotNull CharSequence text) {
+        var result = new CharacterSet();
+        result.addText(text);
+        return result;
+    }
+
+    /**
+     * Create a set of all code points of the UTF-8 text file.
+     *
+     * @param file the text file.
+     * @return the new set.
+     * @throws IOException if the file can't be read.
+     */
+    public static @NotNull CharacterSet of(@NotNull Path file) throws IOException {
+        return of(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse the text form of a set.
+     *
+     * @param value the text form.
+     * @return the new set.
+     * @throws IllegalArgumentException if the text form is invalid.
+     */
+    public static @NotNull CharacterSet parse(@NotNull String value) {
+
+        var result = new CharacterSet();
+
+        for (var item : value.split(",")) {
+
+            item = item.trim();
+
+            if (item.isEmpty()) {
+                continue;
+            }
+
+            var separator = item.indexOf('-', 1);
+
+            if (separator > 0) {
+
+                var first = parseCodePoint(item.substring(0, separator).trim());
+                var last = parseCodePoint(item.substring(separator + 1).trim());
+
+                if (first != -1 && last != -1) {
+
+                    if (first > last) {
+                        throw new IllegalArgumentException("The range \"" + item + "\" is reversed.");
+                    }
+
+                    result.add(first, last);
+                    continue;
+                }
+            }
+
+            var codePoint = parseCodePoint(item);
+
+            if (codePoint != -1) {
+                result.add(codePoint);
+                continue;
+            }
+
+            Character.UnicodeBlock block;
+            try {
+                block = Character.UnicodeBlock.forName(item);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("The item \"" + item + "\" is neither a code point, " +
+                        "a range nor a Unicode block.");
+            }
+
+            result.addBlock(block);
+        }
+
+        return result;
+    }
+
+    /**
+     * Parse a code point.
+     *
+     * @param value the code point in the decimal or hex form.
+     * @return the code point or -1 if the value isn't a valid code point.
+     */
+    private static int parseCodePoint(@NotNull String value) {
+
+        int codePoint;
+        try {
+
+            if (value.startsWith("0x") || value.startsWith("U+")) {
+                codePoint = Integer.parseInt(value.substring(2), 16);
+            } else {
+                codePoint = Integer.parseInt(value);
+            }
+
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+
+        return Character.isValidCodePoint(codePoint) ? codePoint : -1;
+    }
+
+    /**
+     * The code points.
+     */
+    @NotNull
+    private final BitSet codePoints;
+
+    public CharacterSet() {
+        this.codePoints = new BitSet();
+    }
+
+    /**
+     * Add the code point.
+     *
+     * @param codePoint the code point.
+     */
+    public void add(int codePoint) {
+        if (Character.isValidCodePoint(codePoint)) {
+            codePoints.set(codePoint);
+        }
+    }
+
+    /**
+     * Add the range of code points, the range is clamped by valid code points.
+     *
+     * @param first the first code point.
+     * @param last  the last code point (inclusive).
+     */
+    public void add(int first, int last) {
+
+        first = Math.max(first, Character.MIN_CODE_POINT);
+        last = Math.min(last, Character.MAX_CODE_POINT);
+
+        if (first <= last) {
+            codePoints.set(first, last + 1);
+        }
+    }
+
+    /**
+     * Add all code points of the text.
+     *
+     * @param text the text.
+     */
+    public void addText(@NotNull CharSequence text) {
+        text.codePoints().forEach(codePoints::set);
+    }
+
+    /**
+     * Add all code points of the Unicode block.
+     *
+     * @param block the Unicode block.
+     */
+    public void addBlock(@NotNull Character.UnicodeBlock block) {
+
+        // blocks are continuous, but their bounds are available only by checking code points
+        for (int codePoint = 0; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+            if (Character.UnicodeBlock.of(codePoint) == block) {
+                var last = codePoint;
+                while (last < Character.MAX_CODE_POINT && Character.UnicodeBlock.of(last + 1) == block) {
+                    last++;
+                }
+                codePoints.set(codePoint, last + 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Add all code points of the other set.
+     *
+     * @param other the other set.
+     */
+    public void addAll(@NotNull CharacterSet other) {
+        codePoints.or(other.codePoints);
+    }
+
+    /**
+     * Check the code point is in this set.
+     *
+     * @param codePoint the code point.
+     * @return true if the code point is in this set.
+     */
+    public boolean contains(int codePoint) {
+        return codePoint >= 0 && codePoints.get(codePoint);
+    }
+
+    /**
+     * Get the next code point of this set.
+     *
+     * @param from the code point to start from (inclusive).
+     * @return the next code point or -1 if there are no more code points.
+     */
+    public int next(int from) {
+        return codePoints.nextSetBit(from);
+    }
+
+    /**
+     * Get the count of code points.
+     *
+     * @return the count of code points.
+     */
+    public int size() {
+        return codePoints.cardinality();
+    }
+
+    /**
+     * Return true if this set has no code points.
+     *
+     * @return true if this set has no code points.
+     */
+    public boolean isEmpty() {
+        return codePoints.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return codePoints.equals(((CharacterSet) obj).codePoints);
+    }
+
+    @Override
+    public int hashCode() {
+        return codePoints.hashCode();
+    }
+
+    /**
+     * Get the compact text form of this set, it can be parsed by {@link #parse(String)}.
+     *
+     * @return the text form of this set.
+     */
+    @Override
+    public String toString() {
+
+        var result = new StringBuilder();
+
+        for (int first = codePoints.nextSetBit(0); first >= 0; ) {
+
+            var end = codePoints.nextClearBit(first);
+
+            if (result.length() > 0) {
+                result.append(',');
+            }
+
+            result.append("U+").append(Integer.toHexString(first).toUpperCase());
+
+            if (end - 1 > first) {
+                result.append("-U+").append(Integer.toHexString(end - 1).toUpperCase());
+            }
+
+            first = codePoints.nextSetBit(end);
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,673 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The streaming encoder of block-compressed DDS textures. Grayscale images are compressed to BC4 (ATI1), RGBA
+ * images are compressed to DXT5, every block of 4x4 pixels is compressed independently. Rows are written by strips
+ * from the top and buffered to batches of block rows, blocks of a batch are compressed in parallel with a pool, so
+ * only the current strip and one batch have to be in memory. Blocks out of the image are padded by transparent
+ * pixels.
+ *
+ * @author JavaSaBr
+ */
+public class DdsEncoder implements PageEncoder {
+
+    private static final int DDS_MAGIC = 0x20534444;
+
+    private static final int FOURCC_ATI1 = 0x31495441;
+    private static final int FOURCC_DXT5 = 0x35545844;
+
+    private static final int HEADER_SIZE = 124;
+    private static final int PIXEL_FORMAT_SIZE = 32;
+
+    private static final int DDSD_CAPS = 0x1;
+    private static final int DDSD_HEIGHT = 0x2;
+    private static final int DDSD_WIDTH = 0x4;
+    private static final int DDSD_PIXELFORMAT = 0x1000;
+    private static final int DDSD_LINEARSIZE = 0x80000;
+
+    private static final int DDPF_FOURCC = 0x4;
+
+    private static final int DDSCAPS_TEXTURE = 0x1000;
+
+    /**
+     * The count of rows of a batch which is compressed at once.
+     */
+    private static final int BATCH_ROWS = 64;
+
+    /**
+     * The max count of blocks which are compressed by one task.
+     */
+    private static final int TASK_BLOCKS = 128;
+
+    /**
+     * The output stream.
+     */
+    @NotNull
+    private final OutputStream out;
+
+    /**
+     * The pool to compress blocks in parallel or null.
+     */
+    @Nullable
+    private final ForkJoinPool pool;
+
+    /**
+     * The buffered pixels of the current batch.
+     */
+    @NotNull
+    private final byte[] batch;
+
+    /**
+     * The width of the image.
+     */
+    private final int width;
+
+    /**
+     * The height of the image.
+     */
+    private final int height;
+
+    /**
+     * The count of bytes of a pixel.
+     */
+    private final int bytesPerPixel;
+
+    /**
+     * The count of bytes of a compressed block.
+     */
+    private final int blockSize;
+
+    /**
+     * The count of blocks in a block row.
+     */
+    private final int blocksWide;
+
+    /**
+     * The count of buffered rows of the current batch.
+     */
+    private int batchRows;
+
+    /**
+     * The count of written rows.
+     */
+    private int rows;
+
+    /**
+     * True if the encoder is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Create an encoder and write the header of the texture to the stream. The stream is closed by the encoder.
+     *
+     * @param out       the output stream.
+     * @param width     the width of the image.
+     * @param height    the height of the image.
+     * @param grayscale true if the image is 8-bit grayscale which is compressed to BC4, otherwise it's 8-bit RGBA
+     *                  which is compressed to DXT5.
+     * @param pool      the pool to compress blocks in parallel or null.
+     * @throws IOException if the header can't be written.
+     */
+    public DdsEncoder(
+            @NotNull OutputStream out,
+            int width,
+            int height,
+            boolean grayscale,
+            @Nullable ForkJoinPool pool
+    ) throws IOException {
+
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("The image size " + width + "x" + height + " is empty.");
+        }
+
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.pool = pool == null || pool.getParallelism() < 2 ? null : pool;
+        this.width = width;
+        this.height = height;
+        this.bytesPerPixel = grayscale ? 1 : 4;
+        this.blockSize = grayscale ? 8 : 16;
+        this.blocksWide = (width + 3) / 4;
+        this.batch = new byte[Math.min(BATCH_ROWS, (height + 3) & ~3) * width * bytesPerPixel];
+
+        var blocksHigh = (height + 3) / 4;
+        var header = new byte[4 + HEADER_SIZE];
+
+        writeInt(header, 0, DDS_MAGIC);
+        writeInt(header, 4, HEADER_SIZE);
+        writeInt(header, 8, DDSD_CAPS | DDSD_HEIGHT | DDSD_WIDTH | DDSD_PIXELFORMAT | DDSD_LINEARSIZE);
+        writeInt(header, 12, height);
+        writeInt(header, 16, width);
+        writeInt(header, 20, blocksWide * blocksHigh * blockSize);
+
+        // the pixel format follows the depth, the count of mipmaps and 11 reserved ints
+        writeInt(header, 76, PIXEL_FORMAT_SIZE);
+        writeInt(header, 80, DDPF_FOURCC);
+        writeInt(header, 84, grayscale ? FOURCC_ATI1 : FOURCC_DXT5);
+        writeInt(header, 108, DDSCAPS_TEXTURE);
+
+        this.out.write(header);
+    }
+
+    @Override
+    public void writeRows(@NotNull BufferedImage strip) throws IOException {
+
+        var expectedType = bytesPerPixel == 1 ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_4BYTE_ABGR;
+        var stripHeight = strip.getHeight();
+
+        if (closed) {
+            throw new IllegalStateException("The encoder is closed.");
+        } else if (strip.getType() != expectedType || strip.getWidth() != width) {
+            throw new IllegalArgumentException("The strip " + strip.getWidth() + "x" + stripHeight +
+                    " doesn't match the image " + width + "x" + height + ".");
+        } else if (rows + stripHeight > height) {
+            throw new IllegalArgumentException("The strip of " + stripHeight + " rows exceeds the image, only " +
+                    (height - rows) + " rows are left.");
+        }
+
+        var pixels = ((DataBufferByte) strip.getRaster().getDataBuffer()).getData();
+        var rowLength = width * bytesPerPixel;
+        var batchCapacity = batch.length / rowLength;
+        var y = 0;
+
+        while (y < stripHeight) {
+
+            var count = Math.min(stripHeight - y, batchCapacity - batchRows);
+
+            System.arraycopy(pixels, y * rowLength, batch, batchRows * rowLength, count * rowLength);
+
+            batchRows += count;
+            y += count;
+
+            if (batchRows == batchCapacity) {
+                writeBatch();
+            }
+        }
+
+        rows += stripHeight;
+    }
+
+    /**
+     * Compress the block rows of the current batch and write them, the last block row is padded by transparent
+     * pixels.
+     *
+     * @throws IOException if the blocks can't be written.
+     */
+    private void writeBatch() throws IOException {
+
+        var rowLength = width * bytesPerPixel;
+        var paddedRows = (batchRows + 3) & ~3;
+
+        Arrays.fill(batch, batchRows * rowLength, paddedRows * rowLength, (byte) 0);
+
+        var blocks = paddedRows / 4 * blocksWide;
+        var result = new byte[blocks * blockSize];
+        var task = new EncodeTask(batch, width, bytesPerPixel, blockSize, 0, blocks, result);
+
+        if (pool == null || blocks <= TASK_BLOCKS) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+
+        out.write(result);
+        batchRows = 0;
+    }
+
+    /**
+     * Compress the blocks of the batch.
+     *
+     * @param batch         the pixels of the batch.
+     * @param width         the width of the image.
+     * @param bytesPerPixel the count of bytes of a pixel.
+     * @param blockSize     the count of bytes of a compressed block.
+     * @param from          the first block.
+     * @param to            the end block (exclusive).
+     * @param result        the compressed blocks of the batch.
+     */
+    private static void encodeBlocks(
+            @NotNull byte[] batch,
+            int width,
+            int bytesPerPixel,
+            int blockSize,
+            int from,
+            int to,
+            @NotNull byte[] result
+    ) {
+
+        var blocksWide = (width + 3) / 4;
+        var alpha = new int[16];
+        var red = new int[16];
+        var green = new int[16];
+        var blue = new int[16];
+
+        for (int block = from; block < to; block++) {
+
+            var blockX = (block % blocksWide) * 4;
+            var blockY = (block / blocksWide) * 4;
+
+            for (int i = 0; i < 16; i++) {
+
+                var x = blockX + (i & 3);
+
+                if (x >= width) {
+                    alpha[i] = red[i] = green[i] = blue[i] = 0;
+                    continue;
+                }
+
+                var offset = ((blockY + (i >> 2)) * width + x) * bytesPerPixel;
+
+                alpha[i] = batch[offset] & 0xFF;
+
+                if (bytesPerPixel > 1) {
+                    blue[i] = batch[offset + 1] & 0xFF;
+                    green[i] = batch[offset + 2] & 0xFF;
+                    red[i] = batch[offset + 3] & 0xFF;
+                }
+            }
+
+            var offset = block * blockSize;
+
+            encodeAlphaBlock(alpha, result, offset);
+
+            if (bytesPerPixel > 1) {
+                encodeColorBlock(alpha, red, green, blue, result, offset + 8);
+            }
+        }
+    }
+
+    /**
+     * Compress the values of a block to a BC4 block, the mode of 8 interpolated values and the mode of 6
+     * interpolated values with exact 0 and 255 are tried, the mode with the least error is taken. The second mode
+     * fits glyph edges well which are between empty and full pixels.
+     *
+     * @param values the 16 values of the block.
+     * @param result the buffer of compressed blocks.
+     * @param offset the offset of the block in the buffer.
+     */
+    private static void encodeAlphaBlock(@NotNull int[] values, @NotNull byte[] result, int offset) {
+
+        var min = 255;
+        var max = 0;
+        var innerMin = 255;
+        var innerMax = 0;
+
+        for (var value : values) {
+
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+
+            if (value > 0 && value < 255) {
+                innerMin = Math.min(innerMin, value);
+                innerMax = Math.max(innerMax, value);
+            }
+        }
+
+        if (min == max) {
+            // equal endpoints are the 6 values mode, so every index 0 is the exact value
+            result[offset] = (byte) min;
+            result[offset + 1] = (byte) min;
+            Arrays.fill(result, offset + 2, offset + 8, (byte) 0);
+            return;
+        }
+
+        if (innerMin > innerMax) {
+            innerMin = innerMax = 0;
+        }
+
+        var palette = new int[8];
+        var indices = new int[16];
+
+        palette[0] = max;
+        palette[1] = min;
+
+        for (int i = 2; i < 8; i++) {
+            palette[i] = ((8 - i) * max + (i - 1) * min + 3) / 7;
+        }
+
+        var error = fitPalette(values, palette, indices);
+        var endpoint0 = max;
+        var endpoint1 = min;
+
+        var palette6 = new int[8];
+        var indices6 = new int[16];
+
+        palette6[0] = innerMin;
+        palette6[1] = innerMax;
+        palette6[6] = 0;
+        palette6[7] = 255;
+
+        for (int i = 2; i < 6; i++) {
+            palette6[i] = ((6 - i) * innerMin + (i - 1) * innerMax + 2) / 5;
+        }
+
+        if (fitPalette(values, palette6, indices6) < error) {
+            indices = indices6;
+            endpoint0 = innerMin;
+            endpoint1 = innerMax;
+        }
+
+        var bits = 0L;
+
+        for (int i = 0; i < 16; i++) {
+            bits |= (long) indices[i] << (3 * i);
+        }
+
+        result[offset] = (byte) endpoint0;
+        result[offset + 1] = (byte) endpoint1;
+
+        for (int i = 0; i < 6; i++) {
+            result[offset + 2 + i] = (byte) (bits >>> (8 * i));
+        }
+    }
+
+    /**
+     * Find the nearest palette value of every value.
+     *
+     * @param values  the 16 values of the block.
+     * @param palette the 8 values of the palette.
+     * @param indices the found indices of palette values.
+     * @return the sum of squared errors.
+     */
+    private static long fitPalette(@NotNull int[] values, @NotNull int[] palette, @NotNull int[] indices) {
+
+        var error = 0L;
+
+        for (int i = 0; i < 16; i++) {
+
+            var value = values[i];
+            var best = 0;
+            var bestError = Integer.MAX_VALUE;
+
+            for (int j = 0; j < 8; j++) {
+
+                var difference = value - palette[j];
+                var valueError = difference * difference;
+
+                if (valueError < bestError) {
+                    best = j;
+                    bestError = valueError;
+                }
+            }
+
+            indices[i] = best;
+            error += bestError;
+        }
+
+        return error;
+    }
+
+    /**
+     * Compress the colors of a block to a DXT1 color block of 4 colors. The endpoints are the corners of the box
+     * of visible colors along the diagonal of their correlation, colors of transparent pixels are ignored.
+     *
+     * @param alpha  the 16 alpha values of the block.
+     * @param red    the 16 red values of the block.
+     * @param green  the 16 green values of the block.
+     * @param blue   the 16 blue values of the block.
+     * @param result the buffer of compressed blocks.
+     * @param offset the offset of the color block in the buffer.
+     */
+    private static void encodeColorBlock(
+            @NotNull int[] alpha,
+            @NotNull int[] red,
+            @NotNull int[] green,
+            @NotNull int[] blue,
+            @NotNull byte[] result,
+            int offset
+    ) {
+
+        var visible = 0;
+
+        for (var value : alpha) {
+            if (value > 0) {
+                visible++;
+            }
+        }
+
+        var min = new int[] {255, 255, 255};
+        var max = new int[3];
+        var sum = new int[3];
+
+        for (int i = 0; i < 16; i++) {
+
+            if (visible > 0 && alpha[i] == 0) {
+                continue;
+            }
+
+            var color = new int[] {red[i], green[i], blue[i]};
+
+            for (int c = 0; c < 3; c++) {
+                min[c] = Math.min(min[c], color[c]);
+                max[c] = Math.max(max[c], color[c]);
+                sum[c] += color[c];
+            }
+        }
+
+        var count = visible > 0 ? visible : 16;
+        var covarianceRed = 0L;
+        var covarianceBlue = 0L;
+
+        for (int i = 0; i < 16; i++) {
+            if (visible == 0 || alpha[i] > 0) {
+                var greenDelta = green[i] * count - sum[1];
+                covarianceRed += (long) (red[i] * count - sum[0]) * greenDelta;
+                covarianceBlue += (long) (blue[i] * count - sum[2]) * greenDelta;
+            }
+        }
+
+        // red and blue go down while green goes up along the anti-correlated diagonals
+        var red0 = covarianceRed < 0 ? min[0] : max[0];
+        var red1 = covarianceRed < 0 ? max[0] : min[0];
+        var blue0 = covarianceBlue < 0 ? min[2] : max[2];
+        var blue1 = covarianceBlue < 0 ? max[2] : min[2];
+
+        var color0 = toRgb565(red0, max[1], blue0);
+        var color1 = toRgb565(red1, min[1], blue1);
+
+        // the first endpoint has to be greater for the mode of 4 colors
+        if (color0 < color1) {
+            var swap = color0;
+            color0 = color1;
+            color1 = swap;
+        }
+
+        var bits = 0;
+
+        if (color0 != color1) {
+
+            var palette = new int[4][];
+            palette[0] = fromRgb565(color0);
+            palette[1] = fromRgb565(color1);
+            palette[2] = new int[3];
+            palette[3] = new int[3];
+
+            for (int c = 0; c < 3; c++) {
+                palette[2][c] = (2 * palette[0][c] + palette[1][c] + 1) / 3;
+                palette[3][c] = (palette[0][c] + 2 * palette[1][c] + 1) / 3;
+            }
+
+            for (int i = 0; i < 16; i++) {
+
+                var best = 0;
+                var bestError = Integer.MAX_VALUE;
+
+                for (int j = 0; j < 4; j++) {
+
+                    var deltaRed = red[i] - palette[j][0];
+                    var deltaGreen = green[i] - palette[j][1];
+                    var deltaBlue = blue[i] - palette[j][2];
+                    var error = deltaRed * deltaRed + deltaGreen * deltaGreen + deltaBlue * deltaBlue;
+
+                    if (error < bestError) {
+                        best = j;
+                        bestError = error;
+                    }
+                }
+
+                bits |= best << (2 * i);
+            }
+        }
+
+        result[offset] = (byte) color0;
+        result[offset + 1] = (byte) (color0 >>> 8);
+        result[offset + 2] = (byte) color1;
+        result[offset + 3] = (byte) (color1 >>> 8);
+        writeInt(result, offset + 4, bits);
+    }
+
+    /**
+     * Convert the 8-bit color to the 16-bit RGB565 color.
+     *
+     * @param red   the red value.
+     * @param green the green value.
+     * @param blue  the blue value.
+     * @return the RGB565 color.
+     */
+    private static int toRgb565(int red, int green, int blue) {
+        return ((red * 31 + 127) / 255) << 11 | ((green * 63 + 127) / 255) << 5 | (blue * 31 + 127) / 255;
+    }
+
+    /**
+     * Convert the 16-bit RGB565 color to the 8-bit color as it's expanded by the GPU.
+     *
+     * @param color the RGB565 color.
+     * @return the red, green and blue values.
+     */
+    private static @NotNull int[] fromRgb565(int color) {
+
+        var red = color >>> 11;
+        var green = (color >>> 5) & 0x3F;
+        var blue = color & 0x1F;
+
+        return new int[] {red << 3 | red >>> 2, green << 2 | green >>> 4, blue << 3 | blue >>> 2};
+    }
+
+    /**
+     * Write the little-endian int to the buffer.
+     *
+     * @param buffer the buffer.
+     * @param offset the offset in the buffer.
+     * @param value  the value.
+     */
+    private static void writeInt(@NotNull byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * Compress the rest rows and close the output stream. If not all rows were written, the stream is closed
+     * without finishing the texture.
+     *
+     * @throws IOException if the texture can't be finished.
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+
+            if (rows == height && batchRows > 0) {
+                writeBatch();
+            }
+
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * The task to compress a range of blocks of a batch, a big range is split in halves.
+     */
+    private static class EncodeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The pixels of the batch.
+         */
+        @NotNull
+        private final byte[] batch;
+
+        /**
+         * The width of the image.
+         */
+        private final int width;
+
+        /**
+         * The count of bytes of a pixel.
+         */
+        private final int bytesPerPixel;
+
+        /**
+         * The count of bytes of a compressed block.
+         */
+        private final int blockSize;
+
+        /**
+         * The first block.
+         */
+        private final int from;
+
+        /**
+         * The end block (exclusive).
+         */
+        private final int to;
+
+        /**
+         * The compressed blocks of the batch.
+         */
+        @NotNull
+        private final byte[] result;
+
+        private EncodeTask(
+                @NotNull byte[] batch,
+                int width,
+                int bytesPerPixel,
+                int blockSize,
+                int from,
+                int to,
+                @NotNull byte[] result
+        ) {
+            this.batch = batch;
+            this.width = width;
+            this.bytesPerPixel = bytesPerPixel;
+            this.blockSize = blockSize;
+            this.from = from;
+            this.to = to;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from <= TASK_BLOCKS) {
+                encodeBlocks(batch, width, bytesPerPixel, blockSize, from, to, result);
+                return;
+            }
+
+            var middle = (from + to) >>> 1;
+
+            invokeAll(new EncodeTask(batch, width, bytesPerPixel, blockSize, from, middle, result),
+                    new EncodeTask(batch, width, bytesPerPixel, blockSize, middle, to, result));
+        }
+    }
+}
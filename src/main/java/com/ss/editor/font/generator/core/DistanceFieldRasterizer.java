@@ -0,0 +1,271 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The rasterizer of glyphs to a single-channel signed distance field. Every glyph is drawn to a mask in the scaled
+ * resolution, the mask is transformed by {@link DistanceTransform} and the distance is sampled in the centers
+ * of atlas pixels. The value 128 is the edge of a glyph, values above it are inside the glyph.
+ * <p>
+ * Glyph cells don't overlap, so glyphs are transformed in parallel without synchronization.
+ *
+ * @author JavaSaBr
+ */
+class DistanceFieldRasterizer {
+
+    /**
+     * The max count of glyphs which are transformed by one task in the parallel mode.
+     */
+    private static final int GLYPHS_PER_TASK = 16;
+
+    /**
+     * Create a task to draw the glyphs of the page to the distance field atlas.
+     *
+     * @param fontImage the single-channel font image.
+     * @param layout    the glyph layout.
+     * @param page      the page.
+     * @param channel   the channel.
+     * @return the task.
+     */
+    static @NotNull RecursiveAction newTask(
+            @NotNull BufferedImage fontImage,
+            @NotNull GlyphLayout layout,
+            int page,
+            int channel
+    ) {
+        return new GlyphTask(fontImage, layout, page, channel, 0, layout.getCount());
+    }
+
+    /**
+     * Draw the glyphs of the page to the distance field atlas. It's cancelled by interrupting the current thread.
+     *
+     * @param fontImage the single-channel font image.
+     * @param layout    the glyph layout.
+     * @param page      the page.
+     * @param channel   the channel.
+     * @param first     the first glyph index.
+     * @param last      the last glyph index (exclusive).
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    static void render(
+            @NotNull BufferedImage fontImage,
+            @NotNull GlyphLayout layout,
+            int page,
+            int channel,
+            int first,
+            int last
+    ) {
+
+        var atlas = ((DataBufferByte) fontImage.getRaster().getDataBuffer()).getData();
+        var transform = new DistanceTransform();
+
+        for (int i = first; i < last; i++) {
+
+            if (layout.getPage(i) != page || layout.getChannel(i) != channel || layout.isSharedCell(i)) {
+                continue;
+            } else if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+
+            renderGlyph(atlas, fontImage.getWidth(), fontImage.getHeight(), 0, 0, layout, i, transform);
+        }
+    }
+
+    /**
+     * Draw the glyphs to the distance field image of a region of the atlas, parts of the glyphs out of the region
+     * are skipped. It's cancelled by interrupting the current thread.
+     *
+     * @param regionImage the single-channel image of the region.
+     * @param regionX     the X of the region in the atlas.
+     * @param regionY     the Y of the region in the atlas.
+     * @param layout      the glyph layout.
+     * @param indices     the glyph indices.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    static void render(
+            @NotNull BufferedImage regionImage,
+            int regionX,
+            int regionY,
+            @NotNull GlyphLayout layout,
+            @NotNull int[] indices
+    ) {
+
+        var atlas = ((DataBufferByte) regionImage.getRaster().getDataBuffer()).getData();
+        var transform = new DistanceTransform();
+
+        for (var index : indices) {
+
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+
+            renderGlyph(atlas, regionImage.getWidth(), regionImage.getHeight(), regionX, regionY, layout, index,
+                    transform);
+        }
+    }
+
+    /**
+     * Draw the glyph to the distance field atlas or to a region of the atlas.
+     *
+     * @param atlas       the pixels of the single-channel atlas or region.
+     * @param atlasWidth  the width of the atlas or region.
+     * @param atlasHeight the height of the atlas or region.
+     * @param offsetX     the X of the region in the atlas.
+     * @param offsetY     the Y of the region in the atlas.
+     * @param layout      the glyph layout.
+     * @param index       the glyph index.
+     * @param transform   the distance transform.
+     */
+    private static void renderGlyph(
+            @NotNull byte[] atlas,
+            int atlasWidth,
+            int atlasHeight,
+            int offsetX,
+            int offsetY,
+            @NotNull GlyphLayout layout,
+            int index,
+            @NotNull DistanceTransform transform
+    ) {
+
+        var cellX = layout.getX(index) - offsetX;
+        var cellY = layout.getY(index) - offsetY;
+        var cellWidth = layout.getWidth(index);
+        var cellHeight = layout.getHeight(index);
+
+        // the visible part of the cell
+        var minX = Math.max(0, -cellX);
+        var minY = Math.max(0, -cellY);
+        var maxX = Math.min(cellWidth, atlasWidth - cellX);
+        var maxY = Math.min(cellHeight, atlasHeight - cellY);
+
+        if (minX >= maxX || minY >= maxY) {
+            return;
+        }
+
+        var scale = layout.getDistanceFieldScale();
+        var spread = layout.getDistanceFieldSpread();
+        var maskWidth = cellWidth * scale;
+        var maskHeight = cellHeight * scale;
+
+        var mask = new BufferedImage(maskWidth, maskHeight, BufferedImage.TYPE_BYTE_GRAY);
+        var graphics = mask.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.setFont(layout.getFont());
+        graphics.scale(scale, scale);
+        graphics.drawGlyphVector(layout.getFont().createGlyphVector(graphics.getFontRenderContext(),
+                new int[] {layout.getGlyphCode(index)}), layout.getOriginX(index) - layout.getX(index),
+                layout.getOriginY(index) - layout.getY(index));
+        graphics.dispose();
+
+        var pixels = ((DataBufferByte) mask.getRaster().getDataBuffer()).getData();
+        var length = maskWidth * maskHeight;
+        var outside = new double[length];
+        var inside = new double[length];
+
+        for (int i = 0; i < length; i++) {
+            var in = (pixels[i] & 0xFF) > 127;
+            outside[i] = in ? 0 : DistanceTransform.INF;
+            inside[i] = in ? DistanceTransform.INF : 0;
+        }
+
+        var halfScale = scale / 2;
+
+        // only the rows of atlas pixel centers are sampled
+        transform.transform(outside, maskWidth, maskHeight, halfScale, scale);
+        transform.transform(inside, maskWidth, maskHeight, halfScale, scale);
+
+        var factor = 127.5 / (spread * scale);
+
+        for (int y = minY; y < maxY; y++) {
+
+            var maskOffset = (y * scale + halfScale) * maskWidth + halfScale;
+            var atlasOffset = (cellY + y) * atlasWidth + cellX;
+
+            for (int x = minX; x < maxX; x++) {
+
+                var maskIndex = maskOffset + x * scale;
+
+                // the distance is positive inside the glyph
+                var distance = Math.sqrt(inside[maskIndex]) - Math.sqrt(outside[maskIndex]);
+                var value = (int) Math.round(127.5 + distance * factor);
+
+                atlas[atlasOffset + x] = (byte) Math.max(0, Math.min(255, value));
+            }
+        }
+    }
+
+    /**
+     * The task to draw a range of glyphs.
+     */
+    private static class GlyphTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The single-channel font image.
+         */
+        @NotNull
+        private final BufferedImage fontImage;
+
+        /**
+         * The glyph layout.
+         */
+        @NotNull
+        private final GlyphLayout layout;
+
+        /**
+         * The page.
+         */
+        private final int page;
+
+        /**
+         * The channel.
+         */
+        private final int channel;
+
+        /**
+         * The first glyph index.
+         */
+        private final int first;
+
+        /**
+         * The last glyph index (exclusive).
+         */
+        private final int last;
+
+        private GlyphTask(
+                @NotNull BufferedImage fontImage,
+                @NotNull GlyphLayout layout,
+                int page,
+                int channel,
+                int first,
+                int last
+        ) {
+            this.fontImage = fontImage;
+            this.layout = layout;
+            this.page = page;
+            this.channel = channel;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (last - first > GLYPHS_PER_TASK) {
+                var middle = (first + last) >>> 1;
+                invokeAll(new GlyphTask(fontImage, layout, page, channel, first, middle),
+                        new GlyphTask(fontImage, layout, page, channel, middle, last));
+                return;
+            }
+
+            render(fontImage, layout, page, channel, first, last);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The exact squared Euclidean distance transform of a binary grid by Felzenszwalb and Huttenlocher, it takes linear
+ * time of the count of pixels. An instance keeps its buffers between calls, so it isn't thread-safe.
+ *
+ * @author JavaSaBr
+ */
+public class DistanceTransform {
+
+    /**
+     * The value of pixels which have no distance yet, it's finite to keep the arithmetic well-defined.
+     */
+    public static final double INF = 1e20;
+
+    /**
+     * The values of a column or a row.
+     */
+    @NotNull
+    private double[] values;
+
+    /**
+     * The transformed values of a column or a row.
+     */
+    @NotNull
+    private double[] result;
+
+    /**
+     * The boundaries between parabolas of the lower envelope.
+     */
+    @NotNull
+    private double[] boundaries;
+
+    /**
+     * The vertices of parabolas of the lower envelope.
+     */
+    @NotNull
+    private int[] vertices;
+
+    public DistanceTransform() {
+        this.values = new double[0];
+        this.result = new double[0];
+        this.boundaries = new double[1];
+        this.vertices = new int[0];
+    }
+
+    /**
+     * Transform the grid in place. Pixels of the source set should be 0 and other pixels should be {@link #INF},
+     * after the transform every pixel has the squared distance to the nearest pixel of the source set.
+     *
+     * @param grid   the grid of pixels in row-major order.
+     * @param width  the width of the grid.
+     * @param height the height of the grid.
+     */
+    public void transform(@NotNull double[] grid, int width, int height) {
+        transform(grid, width, height, 0, 1);
+    }
+
+    /**
+     * Transform the grid in place, but only every {@code rowStep} row starting from {@code firstRow} gets
+     * the final distances, it's faster when the grid is sampled by rows.
+     *
+     * @param grid     the grid of pixels in row-major order.
+     * @param width    the width of the grid.
+     * @param height   the height of the grid.
+     * @param firstRow the first row to transform.
+     * @param rowStep  the step between rows to transform.
+     * @see #transform(double[], int, int)
+     */
+    public void transform(@NotNull double[] grid, int width, int height, int firstRow, int rowStep) {
+
+        ensureCapacity(Math.max(width, height));
+
+        // the source is binary, so distances along columns are found by two scans, they go row by row
+        // to read the grid sequentially
+        var nearest = this.vertices;
+        var none = Integer.MIN_VALUE / 2;
+
+        Arrays.fill(nearest, 0, width, none);
+
+        for (int y = 0, index = 0; y < height; y++) {
+            for (int x = 0; x < width; x++, index++) {
+
+                if (grid[index] == 0) {
+                    nearest[x] = y;
+                }
+
+                var distance = y - nearest[x];
+                grid[index] = nearest[x] == none ? INF : (double) distance * distance;
+            }
+        }
+
+        Arrays.fill(nearest, 0, width, none);
+
+        for (int y = height - 1, index = width * height - 1; y >= 0; y--) {
+            for (int x = width - 1; x >= 0; x--, index--) {
+
+                if (grid[index] == 0) {
+                    nearest[x] = y;
+                } else if (nearest[x] != none) {
+                    var distance = nearest[x] - y;
+                    grid[index] = Math.min(grid[index], (double) distance * distance);
+                }
+            }
+        }
+
+        for (int y = firstRow; y < height; y += rowStep) {
+
+            var offset = y * width;
+
+            System.arraycopy(grid, offset, values, 0, width);
+            transform(width);
+            System.arraycopy(result, 0, grid, offset, width);
+        }
+    }
+
+    /**
+     * Transform the values of one column or row.
+     *
+     * @param length the count of values.
+     */
+    private void transform(int length) {
+
+        if (length < 1) {
+            return;
+        }
+
+        var values = this.values;
+        var boundaries = this.boundaries;
+        var vertices = this.vertices;
+        var k = 0;
+
+        vertices[0] = 0;
+        boundaries[0] = -INF;
+        boundaries[1] = INF;
+
+        for (int q = 1; q < length; q++) {
+
+            var base = values[q] + (double) q * q;
+            var s = intersect(base, q, k);
+
+            while (s <= boundaries[k]) {
+                k--;
+                s = intersect(base, q, k);
+            }
+
+            k++;
+            vertices[k] = q;
+            boundaries[k] = s;
+            boundaries[k + 1] = INF;
+        }
+
+        k = 0;
+
+        for (int q = 0; q < length; q++) {
+
+            while (boundaries[k + 1] < q) {
+                k++;
+            }
+
+            var vertex = vertices[k];
+            var distance = q - vertex;
+
+            result[q] = (double) distance * distance + values[vertex];
+        }
+    }
+
+    /**
+     * Find the intersection of the parabola of the position with the k-th parabola of the lower envelope.
+     *
+     * @param base     the value of the parabola plus the squared position.
+     * @param position the position of the parabola.
+     * @param k        the index of the parabola of the lower envelope.
+     * @return the position of the intersection.
+     */
+    private double intersect(double base, int position, int k) {
+        var vertex = vertices[k];
+        return (base - (values[vertex] + (double) vertex * vertex)) / (2.0 * (position - vertex));
+    }
+
+    /**
+     * Ensure the buffers can keep the count of values.
+     *
+     * @param length the count of values.
+     */
+    private void ensureCapacity(int length) {
+
+        if (values.length >= length) {
+            return;
+        }
+
+        values = new double[length];
+        result = new double[length];
+        boundaries = new double[length + 1];
+        vertices = new int[length];
+    }
+}
@@ -0,0 +1,347 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The builder of jME (AngelCode BMFont) text and binary descriptions of laid out glyphs.
+ *
+ * @author JavaSaBr, normenhansen
+ */
+public class FontDescriptionBuilder {
+
+    /**
+     * The version of the binary format.
+     */
+    private static final int BINARY_VERSION = 3;
+
+    private static final int BLOCK_INFO = 1;
+    private static final int BLOCK_COMMON = 2;
+    private static final int BLOCK_PAGES = 3;
+    private static final int BLOCK_CHARS = 4;
+    private static final int BLOCK_KERNING_PAIRS = 5;
+
+    /**
+     * The size of a char in the binary format.
+     */
+    private static final int BINARY_CHAR_SIZE = 20;
+
+    /**
+     * The count of chars which are buffered before writing in the binary format.
+     */
+    private static final int BINARY_CHARS_PER_CHUNK = 512;
+
+    /**
+     * The size of a kerning pair in the binary format.
+     */
+    private static final int BINARY_KERNING_PAIR_SIZE = 10;
+
+    /**
+     * The spacing of glyphs.
+     */
+    private static final int SPACING = 1;
+
+    /**
+     * The stretch of the height of glyphs in percents.
+     */
+    private static final int STRETCH_H = 100;
+
+    /**
+     * Build a text description of the glyph layout.
+     *
+     * @param layout    the glyph layout.
+     * @param face      the face name.
+     * @param pageFiles the file names of atlas pages.
+     * @param fontSize  the font size.
+     * @return the description.
+     * @see #write(GlyphLayout, String, List, int, Writer)
+     */
+    public @NotNull String build(
+            @NotNull GlyphLayout layout,
+            @NotNull String face,
+            @NotNull List<String> pageFiles,
+            int fontSize
+    ) {
+
+        var result = new StringWriter(256 + layout.getCount() * 128);
+
+        try {
+            write(layout, face, pageFiles, fontSize, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Write a text description of the glyph layout line by line, so the whole description is never kept
+     * in memory. The padding of a distance field font is its spread, glyph cells include it and offsets of glyphs
+     * compensate it. The kernings block is written only if the layout has kerning pairs.
+     *
+     * @param layout    the glyph layout.
+     * @param face      the face name.
+     * @param pageFiles the file names of atlas pages.
+     * @param fontSize  the font size.
+     * @param out       the writer, it should be buffered.
+     * @throws IOException if the description can't be written.
+     */
+    public void write(
+            @NotNull GlyphLayout layout,
+            @NotNull String face,
+            @NotNull List<String> pageFiles,
+            int fontSize,
+            @NotNull Writer out
+    ) throws IOException {
+
+        checkPageFiles(layout, pageFiles);
+
+        var count = layout.getCount();
+        var spread = layout.getDistanceFieldSpread();
+        var packed = layout.getFormat().isPacked();
+        var line = new StringBuilder(128);
+
+        line.append("info face=").append(face).append(' ')
+                .append("size=").append(fontSize).append(' ')
+                .append("bold=0 ")
+                .append("italic=0 ")
+                .append("charset=\"\" ")
+                .append("unicode=1 ")
+                .append("stretchH=").append(STRETCH_H).append(' ')
+                .append("smooth=1 ")
+                .append("aa=1 ")
+                .append("padding=").append(spread).append(',').append(spread).append(',')
+                .append(spread).append(',').append(spread).append(' ')
+                .append("spacing=").append(SPACING).append(',').append(SPACING).append(' ')
+                .append("outline=0 ")
+                .append('\n')
+                .append("common lineHeight=").append(layout.getLineHeight()).append(' ')
+                .append("base=").append(layout.getBase()).append(' ')
+                .append("scaleW=").append(layout.getImageWidth()).append(' ')
+                .append("scaleH=").append(layout.getImageHeight()).append(' ')
+                .append("pages=").append(pageFiles.size()).append(' ')
+                .append("packed=").append(packed ? 1 : 0).append(' ');
+
+        // every channel of packed pages keeps glyphs
+        if (packed) {
+            line.append("alphaChnl=0 redChnl=0 greenChnl=0 blueChnl=0 ");
+        }
+
+        line.append('\n');
+        out.append(line);
+
+        for (int i = 0, length = pageFiles.size(); i < length; i++) {
+            line.setLength(0);
+            line.append("page id=").append(i).append(" file=\"").append(pageFiles.get(i)).append("\"\n");
+            out.append(line);
+        }
+
+        line.setLength(0);
+        line.append("chars count=").append(count).append('\n');
+        out.append(line);
+
+        for (int i = 0; i < count; i++) {
+            line.setLength(0);
+            line.append("char id=").append(layout.getId(i))
+                    .append("    x=").append(layout.getX(i))
+                    .append("    y=").append(layout.getY(i))
+                    .append("    width=").append(layout.getWidth(i))
+                    .append("    height=").append(layout.getHeight(i))
+                    .append("    xoffset=").append(layout.getXOffset(i))
+                    .append("    yoffset=").append(layout.getYOffset(i))
+                    .append("    xadvance=").append(layout.getXAdvance(i)).append(' ')
+                    .append("    page=").append(layout.getPage(i))
+                    .append("    chnl=").append(layout.getChannel(i)).append('\n');
+            out.append(line);
+        }
+
+        var kernings = layout.getKernings();
+        var kerningCount = kernings.getCount();
+
+        if (kerningCount < 1) {
+            return;
+        }
+
+        line.setLength(0);
+        line.append("kernings count=").append(kerningCount).append('\n');
+        out.append(line);
+
+        for (int i = 0; i < kerningCount; i++) {
+            line.setLength(0);
+            line.append("kerning first=").append(kernings.getFirst(i))
+                    .append("  second=").append(kernings.getSecond(i))
+                    .append("  amount=").append(kernings.getAmount(i)).append('\n');
+            out.append(line);
+        }
+    }
+
+    /**
+     * Write a binary (BMFont version 3) description of the glyph layout. All values are little-endian, so
+     * the description can be loaded by direct buffer reads.
+     *
+     * @param layout    the glyph layout.
+     * @param face      the face name.
+     * @param pageFiles the file names of atlas pages, they should have the same length.
+     * @param fontSize  the font size.
+     * @param out       the output stream, it should be buffered.
+     * @throws IOException if the description can't be written.
+     */
+    public void writeBinary(
+            @NotNull GlyphLayout layout,
+            @NotNull String face,
+            @NotNull List<String> pageFiles,
+            int fontSize,
+            @NotNull OutputStream out
+    ) throws IOException {
+
+        checkPageFiles(layout, pageFiles);
+
+        var faceBytes = face.getBytes(StandardCharsets.UTF_8);
+        var pageNameLength = pageFiles.isEmpty() ? 0 : pageFiles.get(0).getBytes(StandardCharsets.UTF_8).length;
+        var spread = layout.getDistanceFieldSpread();
+        var format = layout.getFormat();
+        var count = layout.getCount();
+
+        for (var pageFile : pageFiles) {
+            if (pageFile.getBytes(StandardCharsets.UTF_8).length != pageNameLength) {
+                throw new IllegalArgumentException("The page files should have the same length, but were " +
+                        pageFiles);
+            }
+        }
+
+        var buffer = newBuffer(4 + 5 + 14 + faceBytes.length + 1);
+        buffer.put((byte) 'B').put((byte) 'M').put((byte) 'F').put((byte) BINARY_VERSION);
+
+        // the bit field has the smooth and unicode flags
+        buffer.put((byte) BLOCK_INFO).putInt(14 + faceBytes.length + 1)
+                .putShort((short) fontSize)
+                .put((byte) 0b11)
+                .put((byte) 0)
+                .putShort((short) STRETCH_H)
+                .put((byte) 1)
+                .put((byte) spread).put((byte) spread).put((byte) spread).put((byte) spread)
+                .put((byte) SPACING).put((byte) SPACING)
+                .put((byte) 0)
+                .put(faceBytes).put((byte) 0);
+
+        writeBuffer(buffer, out);
+
+        // 0 means glyphs are in the channel, 4 means the channel is one
+        var colorChannel = format == AtlasFormat.RGBA ? 4 : 0;
+
+        buffer = newBuffer(5 + 15);
+        buffer.put((byte) BLOCK_COMMON).putInt(15)
+                .putShort((short) layout.getLineHeight())
+                .putShort((short) layout.getBase())
+                .putShort((short) layout.getImageWidth())
+                .putShort((short) layout.getImageHeight())
+                .putShort((short) pageFiles.size())
+                .put((byte) (format.isPacked() ? 0x80 : 0))
+                .put((byte) 0)
+                .put((byte) colorChannel).put((byte) colorChannel).put((byte) colorChannel);
+
+        writeBuffer(buffer, out);
+
+        buffer = newBuffer(5 + (pageNameLength + 1) * pageFiles.size());
+        buffer.put((byte) BLOCK_PAGES).putInt((pageNameLength + 1) * pageFiles.size());
+
+        for (var pageFile : pageFiles) {
+            buffer.put(pageFile.getBytes(StandardCharsets.UTF_8)).put((byte) 0);
+        }
+
+        writeBuffer(buffer, out);
+
+        buffer = newBuffer(BINARY_CHARS_PER_CHUNK * BINARY_CHAR_SIZE);
+        buffer.put((byte) BLOCK_CHARS).putInt(count * BINARY_CHAR_SIZE);
+
+        writeBuffer(buffer, out);
+
+        for (int i = 0; i < count; i++) {
+
+            buffer.putInt(layout.getId(i))
+                    .putShort((short) layout.getX(i))
+                    .putShort((short) layout.getY(i))
+                    .putShort((short) layout.getWidth(i))
+                    .putShort((short) layout.getHeight(i))
+                    .putShort((short) layout.getXOffset(i))
+                    .putShort((short) layout.getYOffset(i))
+                    .putShort((short) layout.getXAdvance(i))
+                    .put((byte) layout.getPage(i))
+                    .put((byte) layout.getChannel(i));
+
+            if (!buffer.hasRemaining()) {
+                writeBuffer(buffer, out);
+            }
+        }
+
+        writeBuffer(buffer, out);
+
+        var kernings = layout.getKernings();
+        var kerningCount = kernings.getCount();
+
+        if (kerningCount < 1) {
+            return;
+        }
+
+        buffer.put((byte) BLOCK_KERNING_PAIRS).putInt(kerningCount * BINARY_KERNING_PAIR_SIZE);
+
+        writeBuffer(buffer, out);
+
+        for (int i = 0; i < kerningCount; i++) {
+
+            buffer.putInt(kernings.getFirst(i))
+                    .putInt(kernings.getSecond(i))
+                    .putShort((short) kernings.getAmount(i));
+
+            if (buffer.remaining() < BINARY_KERNING_PAIR_SIZE) {
+                writeBuffer(buffer, out);
+            }
+        }
+
+        writeBuffer(buffer, out);
+    }
+
+    /**
+     * Check that the count of page files is the count of pages of the glyph layout.
+     *
+     * @param layout    the glyph layout.
+     * @param pageFiles the file names of atlas pages.
+     */
+    private static void checkPageFiles(@NotNull GlyphLayout layout, @NotNull List<String> pageFiles) {
+        if (pageFiles.size() != layout.getPageCount()) {
+            throw new IllegalArgumentException("Expected " + layout.getPageCount() + " page files, but was " +
+                    pageFiles.size());
+        }
+    }
+
+    /**
+     * Create a new little-endian buffer.
+     *
+     * @param size the size of the buffer.
+     * @return the new buffer.
+     */
+    private static @NotNull ByteBuffer newBuffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Write the content of the buffer to the output stream and clear the buffer.
+     *
+     * @param buffer the buffer.
+     * @param out    the output stream.
+     * @throws IOException if the buffer can't be written.
+     */
+    private static void writeBuffer(@NotNull ByteBuffer buffer, @NotNull OutputStream out) throws IOException {
+        out.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+}
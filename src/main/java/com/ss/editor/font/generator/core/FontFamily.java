@@ -0,0 +1,205 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * The sizes and styles of a font family. Every pair of a style and a size is a variant of the family which is
+ * generated with the same other settings to its own font file.
+ *
+ * @author JavaSaBr
+ */
+public class FontFamily {
+
+    /**
+     * Parse the text forms of sizes and styles. Sizes are a list of sizes and ranges with an optional step,
+     * like "12, 14, 16-24, 32-72/8", styles are a list of style names, like "Plain, Bold".
+     *
+     * @param sizes  the text form of sizes.
+     * @param styles the text form of styles.
+     * @return the font family.
+     * @throws IllegalArgumentException if the text forms are invalid or empty.
+     */
+    public static @NotNull FontFamily parse(@NotNull String sizes, @NotNull String styles) {
+        return new FontFamily(parseSizes(sizes), parseStyles(styles));
+    }
+
+    /**
+     * Parse the text form of sizes.
+     *
+     * @param value the text form.
+     * @return the sorted sizes.
+     * @throws IllegalArgumentException if the text form is invalid.
+     */
+    private static @NotNull int[] parseSizes(@NotNull String value) {
+
+        var result = new TreeSet<Integer>();
+
+        for (var item : value.split(",")) {
+
+            item = item.trim();
+
+            if (item.isEmpty()) {
+                continue;
+            }
+
+            try {
+
+                var stepSeparator = item.indexOf('/');
+                var step = 1;
+
+                if (stepSeparator > 0) {
+                    step = Integer.parseInt(item.substring(stepSeparator + 1).trim());
+                    item = item.substring(0, stepSeparator).trim();
+                }
+
+                var separator = item.indexOf('-', 1);
+                var first = Integer.parseInt((separator > 0 ? item.substring(0, separator) : item).trim());
+                var last = separator > 0 ? Integer.parseInt(item.substring(separator + 1).trim()) : first;
+
+                if (first < 1 || first > last || step < 1) {
+                    throw new IllegalArgumentException("The sizes \"" + item + "\" are invalid.");
+                }
+
+                for (int size = first; size <= last; size += step) {
+                    result.add(size);
+                }
+
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The sizes \"" + item + "\" are invalid.");
+            }
+        }
+
+        return result.stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Parse the text form of styles.
+     *
+     * @param value the text form.
+     * @return the styles in the order of the text form.
+     * @throws IllegalArgumentException if the text form has an unknown style.
+     */
+    private static @NotNull int[] parseStyles(@NotNull String value) {
+
+        var result = new LinkedHashSet<Integer>();
+
+        for (var item : value.split(",")) {
+
+            item = item.trim();
+
+            if (item.isEmpty()) {
+                continue;
+            }
+
+            var fontStyle = BitmapFontSettings.toFontStyle(item);
+
+            if (fontStyle == -1) {
+                throw new IllegalArgumentException("The style \"" + item + "\" is unknown.");
+            }
+
+            result.add(fontStyle);
+        }
+
+        return result.stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Get the font file of the variant of the family font file, the variant file has the suffixes of its style
+     * and size, like "ui_bold_16.fnt".
+     *
+     * @param fontFile the font file of the family.
+     * @param variant  the settings of the variant.
+     * @return the font file of the variant.
+     */
+    public static @NotNull Path getVariantFile(@NotNull Path fontFile, @NotNull BitmapFontSettings variant) {
+
+        var fileName = fontFile.getFileName().toString();
+        var extension = "";
+        var extensionIndex = fileName.lastIndexOf('.');
+
+        if (extensionIndex > 0) {
+            extension = fileName.substring(extensionIndex);
+            fileName = fileName.substring(0, extensionIndex);
+        }
+
+        var styleName = String.valueOf(BitmapFontSettings.toStyleName(variant.getFontStyle()));
+
+        return fontFile.resolveSibling(fileName + "_" + styleName.toLowerCase(Locale.ROOT) + "_" +
+                variant.getFontSize() + extension);
+    }
+
+    /**
+     * The sorted sizes of the family.
+     */
+    @NotNull
+    private final int[] sizes;
+
+    /**
+     * The styles of the family.
+     */
+    @NotNull
+    private final int[] styles;
+
+    public FontFamily(@NotNull int[] sizes, @NotNull int[] styles) {
+
+        if (sizes.length < 1 || styles.length < 1) {
+            throw new IllegalArgumentException("The family has no sizes or no styles.");
+        }
+
+        this.sizes = sizes.clone();
+        this.styles = styles.clone();
+    }
+
+    /**
+     * Get the sorted sizes of the family.
+     *
+     * @return the sorted sizes.
+     */
+    public @NotNull int[] getSizes() {
+        return sizes.clone();
+    }
+
+    /**
+     * Get the styles of the family.
+     *
+     * @return the styles.
+     * @see java.awt.Font#getStyle()
+     */
+    public @NotNull int[] getStyles() {
+        return styles.clone();
+    }
+
+    /**
+     * Get the settings of all variants of the family: the settings with every style and every size, the variants
+     * of the same style follow each other.
+     *
+     * @param settings the settings of the family.
+     * @return the list of settings of variants.
+     */
+    public @NotNull List<BitmapFontSettings> getVariants(@NotNull BitmapFontSettings settings) {
+
+        var result = new ArrayList<BitmapFontSettings>(styles.length * sizes.length);
+
+        for (var style : styles) {
+            for (var size : sizes) {
+                var variant = new BitmapFontSettings(settings);
+                variant.setFontStyle(style);
+                variant.setFontSize(size);
+                result.add(variant);
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The output of generation of a font family.
+ *
+ * @author JavaSaBr
+ */
+public class FontFamilyOutput {
+
+    /**
+     * The font files of variants.
+     */
+    @NotNull
+    private final List<Path> fontFiles;
+
+    /**
+     * The metrics of generation of variants.
+     */
+    @NotNull
+    private final List<GenerationMetrics> metrics;
+
+    /**
+     * All written files.
+     */
+    @NotNull
+    private final List<Path> outputFiles;
+
+    public FontFamilyOutput(
+            @NotNull List<Path> fontFiles,
+            @NotNull List<GenerationMetrics> metrics,
+            @NotNull List<Path> outputFiles
+    ) {
+        this.fontFiles = List.copyOf(fontFiles);
+        this.metrics = List.copyOf(metrics);
+        this.outputFiles = List.copyOf(outputFiles);
+    }
+
+    /**
+     * Get the font files of variants in the order of {@link FontFamily#getVariants(BitmapFontSettings)}.
+     *
+     * @return the font files of variants.
+     */
+    public @NotNull List<Path> getFontFiles() {
+        return fontFiles;
+    }
+
+    /**
+     * Get the metrics of generation of variants in the order of font files. Scanning of a style is split evenly
+     * between its sizes, memory, encoding and bytes of pages of a shared atlas are split evenly between variants.
+     *
+     * @return the metrics of generation of variants.
+     */
+    public @NotNull List<GenerationMetrics> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get all written files: font files of variants and files of atlas pages.
+     *
+     * @return all written files.
+     */
+    public @NotNull List<Path> getOutputFiles() {
+        return outputFiles;
+    }
+}
@@ -0,0 +1,530 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The content-addressed on-disk cache of generated fonts. An entry is a folder which is named by the SHA-256 key of
+ * the generator version, the Java version, the output file name, all settings and the content of the font file or,
+ * for an installed font, its names, count of glyphs and metrics, so an entry is never stale and a changed font gets
+ * a new key. On a hit the stored files are copied instead of generating the font again. The least recently used
+ * entries are evicted when the size of the cache exceeds its limit.
+ * <p>
+ * Entries are stored through temporary folders which are atomically renamed, so concurrent generators which share
+ * the cache folder don't see partial entries.
+ *
+ * @author JavaSaBr
+ */
+public class FontOutputCache {
+
+    /**
+     * The prefix of temporary folders of entries which are being stored.
+     */
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    /**
+     * The age of abandoned temporary folders to delete them in milliseconds.
+     */
+    private static final long TEMP_MAX_AGE = 24 * 60 * 60 * 1000L;
+
+    /**
+     * The max count of remembered digests of fonts.
+     */
+    private static final int MAX_FONT_DIGESTS = 64;
+
+    /**
+     * The remembered digests of font files in the access order, so a key of an unchanged font file is computed
+     * without reading the file again.
+     */
+    private static final Map<String, byte[]> FONT_DIGESTS = new LinkedHashMap<>(16, 0.75F, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(@NotNull Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_FONT_DIGESTS;
+        }
+    };
+
+    /**
+     * Get the default folder of the cache in the user home.
+     *
+     * @return the default folder.
+     */
+    public static @NotNull Path getDefaultFolder() {
+        return Paths.get(System.getProperty("user.home"), ".jmb-font-generator", "cache");
+    }
+
+    /**
+     * Compute the key of the font which is generated using the settings to the font file.
+     *
+     * @param settings the settings.
+     * @param fontFile the font file.
+     * @return the hex key.
+     */
+    public static @NotNull String computeKey(@NotNull BitmapFontSettings settings, @NotNull Path fontFile) {
+
+        var digest = newDigest();
+        var bytes = new ByteArrayOutputStream(256);
+        var characterSet = settings.getRequestedCharacters();
+
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(BitmapFontGenerator.VERSION);
+            writeString(out, System.getProperty("java.version"));
+            writeString(out, fontFile.getFileName().toString());
+            writeString(out, settings.getFontName());
+            writeString(out, settings.getFontFile() == null ? "" : settings.getFontFile().getFileName().toString());
+            out.writeInt(settings.getFontStyle());
+            out.writeInt(settings.getFontSize());
+            out.writeInt(settings.getImageSize());
+            out.writeInt(settings.getMaxPages());
+            out.writeInt(settings.getPaddingX());
+            out.writeInt(settings.getPaddingY());
+            out.writeInt(settings.getLetterSpacing());
+            writeString(out, characterSet.toString());
+            writeString(out, settings.getPackingStrategy().name());
+            writeString(out, settings.getAtlasFormat().name());
+            writeString(out, settings.getImageFormat().name());
+            writeString(out, settings.getPngFilter().name());
+            out.writeInt(settings.getCompressionLevel());
+            out.writeBoolean(settings.isAutoImageSize());
+            out.writeBoolean(settings.isNonSquareImage());
+            out.writeBoolean(settings.isDeduplicateGlyphs());
+            out.writeBoolean(settings.isDistanceField());
+            out.writeInt(settings.getDistanceFieldSpread());
+            out.writeInt(settings.getDistanceFieldScale());
+            out.writeBoolean(settings.isBinaryDescription());
+            out.writeBoolean(settings.isKerning());
+            writeString(out, String.valueOf(settings.getKerningSample()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        digest.update(bytes.toByteArray());
+
+        var sourceFile = settings.getFontFile();
+
+        if (sourceFile != null) {
+            digest.update(digestFontFile(sourceFile));
+        } else {
+            digest.update(digestInstalledFont(settings));
+        }
+
+        var hash = digest.digest();
+        var result = new StringBuilder(hash.length * 2);
+
+        for (var value : hash) {
+            result.append(Character.forDigit((value >> 4) & 0xF, 16))
+                    .append(Character.forDigit(value & 0xF, 16));
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Write the string by its length and its UTF-8 bytes, so strings of any length such as big character sets can be
+     * written.
+     *
+     * @param out   the output stream.
+     * @param value the string.
+     * @throws IOException if the string can't be written.
+     */
+    private static void writeString(@NotNull DataOutputStream out, @NotNull String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Get the digest of the content of the font file, the digest is remembered until the size or the modification
+     * time of the file is changed.
+     *
+     * @param fontFile the TTF, OTF or TTC file.
+     * @return the digest of the file.
+     * @throws UncheckedIOException if the file can't be read.
+     */
+    private static @NotNull byte[] digestFontFile(@NotNull Path fontFile) {
+
+        var file = fontFile.toAbsolutePath().normalize();
+
+        try {
+
+            var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            var key = "file\n" + file + '\n' + attributes.size() + '\n' + attributes.lastModifiedTime().toMillis();
+            var result = getFontDigest(key);
+
+            if (result != null) {
+                return result;
+            }
+
+            var digest = newDigest();
+            var buffer = new byte[64 * 1024];
+
+            try (var in = Files.newInputStream(file)) {
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+
+            result = digest.digest();
+            putFontDigest(key, result);
+
+            return result;
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get the digest of the identity of the installed font of the settings. Its file isn't available, so the digest
+     * covers the names of the font, the count of its glyphs, its vertical metrics and the Java installation which
+     * resolves it. It's cheap to compute, glyphs and kerning pairs of the font aren't read to build a key.
+     *
+     * @param settings the settings.
+     * @return the digest of the font.
+     */
+    private static @NotNull byte[] digestInstalledFont(@NotNull BitmapFontSettings settings) {
+
+        var font = FontRegistry.getDefault().getFont(settings);
+        var graphics = GlyphRasterizer.prepareGraphics(new BufferedImage(1, 1, BufferedImage.TYPE_4BYTE_ABGR), font);
+        var fontMetrics = graphics.getFontMetrics();
+
+        graphics.dispose();
+
+        var identity = font.getFontName() + '\n' + font.getFamily() + '\n' + font.getPSName() + '\n' +
+                font.getNumGlyphs() + '\n' + font.getItalicAngle() + '\n' + fontMetrics.getAscent() + '\n' +
+                fontMetrics.getDescent() + '\n' + fontMetrics.getLeading() + '\n' + System.getProperty("java.home");
+
+        return newDigest().digest(identity.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the remembered digest of a font.
+     *
+     * @param key the key of the font.
+     * @return the digest or null.
+     */
+    private static @Nullable byte[] getFontDigest(@NotNull String key) {
+        synchronized (FONT_DIGESTS) {
+            return FONT_DIGESTS.get(key);
+        }
+    }
+
+    /**
+     * Remember the digest of a font.
+     *
+     * @param key    the key of the font.
+     * @param digest the digest.
+     */
+    private static void putFontDigest(@NotNull String key, @NotNull byte[] digest) {
+        synchronized (FONT_DIGESTS) {
+            FONT_DIGESTS.put(key, digest);
+        }
+    }
+
+    /**
+     * Create a new SHA-256 digest.
+     *
+     * @return the new digest.
+     */
+    private static @NotNull MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The folder of the cache.
+     */
+    @NotNull
+    private final Path folder;
+
+    /**
+     * The max size of the cache in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * Create a cache.
+     *
+     * @param folder  the folder of the cache.
+     * @param maxSize the max size of the cache in bytes.
+     */
+    public FontOutputCache(@NotNull Path folder, long maxSize) {
+
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The max size should be positive, but was " + maxSize);
+        }
+
+        this.folder = folder;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the folder of the cache.
+     *
+     * @return the folder of the cache.
+     */
+    public @NotNull Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Get the max size of the cache in bytes.
+     *
+     * @return the max size of the cache.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Copy the stored files of the key to the folder of the font file.
+     *
+     * @param key      the key.
+     * @param fontFile the font file.
+     * @return the restored files, the font file is the first, or null if the cache has no such entry.
+     * @throws IOException if the files can't be copied.
+     */
+    public @Nullable List<Path> restore(@NotNull String key, @NotNull Path fontFile) throws IOException {
+
+        var entry = folder.resolve(key);
+
+        if (!Files.isDirectory(entry)) {
+            return null;
+        }
+
+        List<Path> files;
+        try (var stream = Files.list(entry)) {
+            files = stream.sorted().collect(Collectors.toList());
+        } catch (NoSuchFileException e) {
+            // the entry was evicted concurrently
+            return null;
+        }
+
+        var fontFileName = fontFile.getFileName().toString();
+        var result = new ArrayList<Path>(files.size());
+
+        try {
+
+            for (var file : files) {
+
+                var target = fontFile.resolveSibling(file.getFileName().toString());
+                Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+
+                if (file.getFileName().toString().equals(fontFileName)) {
+                    result.add(0, target);
+                } else {
+                    result.add(target);
+                }
+            }
+
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Store the generated files of the key and evict the least recently used entries if the cache is too big.
+     * Storing is best-effort, failures don't break generation.
+     *
+     * @param key   the key.
+     * @param files the generated files.
+     * @return true if the files were stored.
+     */
+    public boolean store(@NotNull String key, @NotNull List<Path> files) {
+
+        var entry = folder.resolve(key);
+
+        if (Files.isDirectory(entry)) {
+            return true;
+        }
+
+        Path tempFolder = null;
+        try {
+
+            Files.createDirectories(folder);
+            tempFolder = Files.createTempDirectory(folder, TEMP_PREFIX);
+
+            for (var file : files) {
+                Files.copy(file, tempFolder.resolve(file.getFileName().toString()));
+            }
+
+            try {
+                Files.move(tempFolder, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                // the same entry was stored concurrently
+                delete(tempFolder);
+            }
+
+            tempFolder = null;
+            evict(key);
+
+            return true;
+
+        } catch (IOException e) {
+
+            if (tempFolder != null) {
+                delete(tempFolder);
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Delete the least recently used entries while the cache is bigger than its max size and abandoned temporary
+     * folders.
+     *
+     * @param keptKey the key of the entry which should be kept.
+     * @throws IOException if the cache folder can't be read.
+     */
+    private synchronized void evict(@NotNull String keptKey) throws IOException {
+
+        var entries = new ArrayList<Entry>();
+        var totalSize = 0L;
+        var now = System.currentTimeMillis();
+
+        try (var stream = Files.newDirectoryStream(folder)) {
+            for (var path : stream) {
+
+                var name = path.getFileName().toString();
+                var lastModified = lastModified(path);
+
+                if (name.startsWith(TEMP_PREFIX)) {
+
+                    if (now - lastModified > TEMP_MAX_AGE) {
+                        delete(path);
+                    }
+
+                    continue;
+                }
+
+                var size = size(path);
+                totalSize += size;
+
+                if (!name.equals(keptKey)) {
+                    entries.add(new Entry(path, size, lastModified));
+                }
+            }
+        }
+
+        entries.sort(Comparator.comparingLong(entry -> entry.lastModified));
+
+        for (int i = 0; totalSize > maxSize && i < entries.size(); i++) {
+            var entry = entries.get(i);
+            delete(entry.path);
+            totalSize -= entry.size;
+        }
+    }
+
+    /**
+     * Get the last modified time of the path.
+     *
+     * @param path the path.
+     * @return the last modified time in milliseconds or 0 if it's unknown.
+     */
+    private static long lastModified(@NotNull Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Get the size of files of the folder.
+     *
+     * @param folder the folder.
+     * @return the size in bytes.
+     */
+    private static long size(@NotNull Path folder) {
+
+        var result = 0L;
+
+        try (var stream = Files.newDirectoryStream(folder)) {
+            for (var file : stream) {
+                result += Files.size(file);
+            }
+        } catch (IOException e) {
+            // the entry was evicted concurrently
+        }
+
+        return result;
+    }
+
+    /**
+     * Delete the folder with its files, failures are ignored.
+     *
+     * @param folder the folder.
+     */
+    private static void delete(@NotNull Path folder) {
+
+        try (var stream = Files.newDirectoryStream(folder)) {
+            for (var file : stream) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            // the folder was deleted concurrently
+        }
+
+        try {
+            Files.deleteIfExists(folder);
+        } catch (IOException e) {
+            // the folder is still used
+        }
+    }
+
+    /**
+     * The entry of the cache.
+     */
+    private static final class Entry {
+
+        /**
+         * The folder of the entry.
+         */
+        @NotNull
+        private final Path path;
+
+        /**
+         * The size of the entry in bytes.
+         */
+        private final long size;
+
+        /**
+         * The last time of using the entry.
+         */
+        private final long lastModified;
+
+        private Entry(@NotNull Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The registry of resolved fonts. Installed fonts are resolved by their names, font files (TTF, OTF and TTC
+ * collections) are loaded directly, so fonts which are kept in a project don't need to be installed. Loaded files
+ * and fonts of sizes and styles are cached, so previews and batch jobs reuse them instead of resolving them again.
+ * A font file is loaded again if it's changed. The least recently used fonts are evicted when their count exceeds
+ * the limit.
+ *
+ * @author JavaSaBr
+ */
+public class FontRegistry {
+
+    /**
+     * The default max count of cached fonts.
+     */
+    public static final int DEFAULT_MAX_FONTS = 256;
+
+    /**
+     * The registry which is shared by generators.
+     */
+    private static final FontRegistry DEFAULT = new FontRegistry(DEFAULT_MAX_FONTS);
+
+    /**
+     * Get the registry which is shared by generators.
+     *
+     * @return the shared registry.
+     */
+    public static @NotNull FontRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * The key of a cached font.
+     */
+    private static final class FontKey {
+
+        /**
+         * The font file or null for an installed font.
+         */
+        @Nullable
+        private final Path file;
+
+        /**
+         * The font name.
+         */
+        @NotNull
+        private final String name;
+
+        /**
+         * The font style.
+         */
+        private final int style;
+
+        /**
+         * The font size.
+         */
+        private final int size;
+
+        private FontKey(@Nullable Path file, @NotNull String name, int style, int size) {
+            this.file = file;
+            this.name = name;
+            this.style = style;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+
+            if (this == obj) {
+                return true;
+            } else if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            var other = (FontKey) obj;
+
+            return style == other.style &&
+                    size == other.size &&
+                    name.equals(other.name) &&
+                    Objects.equals(file, other.file);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(file, name, style, size);
+        }
+    }
+
+    /**
+     * The loaded fonts of a font file.
+     */
+    private static final class FontFile {
+
+        /**
+         * The fonts of the file, a collection has several fonts.
+         */
+        @NotNull
+        private final Font[] fonts;
+
+        /**
+         * The modification time of the file.
+         */
+        @NotNull
+        private final FileTime modified;
+
+        /**
+         * The size of the file.
+         */
+        private final long size;
+
+        private FontFile(@NotNull Font[] fonts, @NotNull FileTime modified, long size) {
+            this.fonts = fonts;
+            this.modified = modified;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The loaded font files by their absolute paths.
+     */
+    @NotNull
+    private final Map<Path, FontFile> files;
+
+    /**
+     * The cached fonts in the access order.
+     */
+    @NotNull
+    private final LinkedHashMap<FontKey, Font> fonts;
+
+    /**
+     * The max count of cached fonts.
+     */
+    private final int maxFonts;
+
+    /**
+     * Create a registry.
+     *
+     * @param maxFonts the max count of cached fonts of sizes and styles.
+     */
+    public FontRegistry(int maxFonts) {
+        this.files = new HashMap<>();
+        this.fonts = new LinkedHashMap<>(16, 0.75F, true);
+        this.maxFonts = Math.max(maxFonts, 1);
+    }
+
+    /**
+     * Get the font of the settings.
+     *
+     * @param settings the settings.
+     * @return the font.
+     * @throws UncheckedIOException     if the font file can't be read.
+     * @throws IllegalArgumentException if the font file isn't a font or has no font of the name.
+     * @see #getFont(Path, String, int, int)
+     */
+    public @NotNull Font getFont(@NotNull BitmapFontSettings settings) {
+        return getFont(settings.getFontFile(), settings.getFontName(), settings.getFontStyle(),
+                settings.getFontSize());
+    }
+
+    /**
+     * Get the font of the style and the size. A font of a collection is found by its name, its PostScript name
+     * or its family, the first font of the file is taken if the name is empty.
+     *
+     * @param fontFile the TTF, OTF or TTC file of the font or null to resolve an installed font by its name.
+     * @param name     the name of the font.
+     * @param style    the style of the font.
+     * @param size     the size of the font.
+     * @return the font.
+     * @throws UncheckedIOException     if the font file can't be read.
+     * @throws IllegalArgumentException if the font file isn't a font or has no font of the name.
+     */
+    public synchronized @NotNull Font getFont(@Nullable Path fontFile, @NotNull String name, int style, int size) {
+
+        var file = fontFile == null ? null : fontFile.toAbsolutePath().normalize();
+        var base = file == null ? null : findFont(file, name);
+        var key = new FontKey(file, name, style, size);
+        var font = fonts.get(key);
+
+        if (font != null) {
+            return font;
+        }
+
+        font = base == null ? new Font(name, style, size) : base.deriveFont(style, size);
+        fonts.put(key, font);
+
+        var iterator = fonts.values().iterator();
+
+        while (fonts.size() > maxFonts) {
+            iterator.next();
+            iterator.remove();
+        }
+
+        return font;
+    }
+
+    /**
+     * Remove all loaded files and cached fonts.
+     */
+    public synchronized void clear() {
+        files.clear();
+        fonts.clear();
+    }
+
+    /**
+     * Find the font of the name in the font file, the file is loaded if it's not loaded or changed.
+     *
+     * @param file the absolute font file.
+     * @param name the name of the font.
+     * @return the font of the size 1.
+     * @throws UncheckedIOException     if the font file can't be read.
+     * @throws IllegalArgumentException if the font file isn't a font or has no font of the name.
+     */
+    private @NotNull Font findFont(@NotNull Path file, @NotNull String name) {
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var fontFile = files.get(file);
+
+        if (fontFile == null || !fontFile.modified.equals(attributes.lastModifiedTime()) ||
+                fontFile.size != attributes.size()) {
+
+            // the file is read in place, loading from a stream would copy it to a temporary file
+            Font[] loaded;
+            try {
+                loaded = Font.createFonts(file.toFile());
+            } catch (FontFormatException e) {
+                throw new IllegalArgumentException("The file " + file + " isn't a TrueType or OpenType font.", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            fontFile = new FontFile(loaded, attributes.lastModifiedTime(), attributes.size());
+            files.put(file, fontFile);
+
+            // fonts of the previous version of the file are outdated
+            fonts.keySet().removeIf(key -> file.equals(key.file));
+        }
+
+        var loaded = fontFile.fonts;
+
+        if (name.trim().isEmpty()) {
+            return loaded[0];
+        }
+
+        for (var font : loaded) {
+            if (font.getFontName().equalsIgnoreCase(name) || font.getPSName().equalsIgnoreCase(name)) {
+                return font;
+            }
+        }
+
+        for (var font : loaded) {
+            if (font.getFamily().equalsIgnoreCase(name)) {
+                return font;
+            }
+        }
+
+        var names = new StringBuilder();
+
+        for (var font : loaded) {
+            names.append(names.length() > 0 ? ", " : "").append(font.getFontName());
+        }
+
+        throw new IllegalArgumentException("The file " + file + " has no font \"" + name + "\", it has " + names +
+                ".");
+    }
+}
@@ -0,0 +1,246 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The immutable metrics of generation of one font.
+ *
+ * @author JavaSaBr
+ */
+public class GenerationMetrics {
+
+    private static final GenerationPhase[] PHASES = GenerationPhase.values();
+
+    /**
+     * The durations of phases in nanoseconds.
+     */
+    @NotNull
+    private final long[] durations;
+
+    /**
+     * The count of requested characters.
+     */
+    private final int requested;
+
+    /**
+     * The count of displayable glyphs.
+     */
+    private final int displayable;
+
+    /**
+     * The count of displayable glyphs which don't fit all atlas pages.
+     */
+    private final int skipped;
+
+    /**
+     * The count of glyphs which share the atlas cells of other glyphs.
+     */
+    private final int shared;
+
+    /**
+     * The count of glyphs in the font.
+     */
+    private final int glyphCount;
+
+    /**
+     * The count of atlas pages.
+     */
+    private final int pageCount;
+
+    /**
+     * The width of an atlas page.
+     */
+    private final int imageWidth;
+
+    /**
+     * The height of an atlas page.
+     */
+    private final int imageHeight;
+
+    /**
+     * The part of the area of all atlas pages which is used by glyph cells.
+     */
+    private final float occupancy;
+
+    /**
+     * The count of written bytes.
+     */
+    private final long bytesWritten;
+
+    /**
+     * The peak memory of atlas images in bytes.
+     */
+    private final long peakImageMemory;
+
+    public GenerationMetrics(
+            @NotNull long[] durations,
+            int requested,
+            int displayable,
+            int skipped,
+            int shared,
+            int glyphCount,
+            int pageCount,
+            int imageWidth,
+            int imageHeight,
+            float occupancy,
+            long bytesWritten,
+            long peakImageMemory
+    ) {
+        this.durations = durations;
+        this.requested = requested;
+        this.displayable = displayable;
+        this.skipped = skipped;
+        this.shared = shared;
+        this.glyphCount = glyphCount;
+        this.pageCount = pageCount;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.occupancy = occupancy;
+        this.bytesWritten = bytesWritten;
+        this.peakImageMemory = peakImageMemory;
+    }
+
+    /**
+     * Get the duration of the phase, phases which run on several threads have the summed thread time.
+     *
+     * @param phase the phase.
+     * @return the duration in nanoseconds.
+     */
+    public long getDuration(@NotNull GenerationPhase phase) {
+        return durations[phase.ordinal()];
+    }
+
+    /**
+     * Get the count of requested characters.
+     *
+     * @return the count of requested characters.
+     */
+    public int getRequested() {
+        return requested;
+    }
+
+    /**
+     * Get the count of glyphs which the font can display.
+     *
+     * @return the count of displayable glyphs.
+     */
+    public int getDisplayable() {
+        return displayable;
+    }
+
+    /**
+     * Get the count of displayable glyphs which don't fit all atlas pages.
+     *
+     * @return the count of skipped glyphs.
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Get the count of glyphs which share the atlas cells of other glyphs.
+     *
+     * @return the count of glyphs which share cells.
+     */
+    public int getShared() {
+        return shared;
+    }
+
+    /**
+     * Get the count of glyphs in the font.
+     *
+     * @return the count of glyphs.
+     */
+    public int getGlyphCount() {
+        return glyphCount;
+    }
+
+    /**
+     * Get the count of atlas pages.
+     *
+     * @return the count of atlas pages.
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Get the width of an atlas page.
+     *
+     * @return the width of an atlas page.
+     */
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    /**
+     * Get the height of an atlas page.
+     *
+     * @return the height of an atlas page.
+     */
+    public int getImageHeight() {
+        return imageHeight;
+    }
+
+    /**
+     * Get the part of the area of all atlas pages which is used by glyph cells.
+     *
+     * @return the part of the used area from 0 to 1.
+     */
+    public float getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Get the count of bytes of all written files.
+     *
+     * @return the count of written bytes.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Get the peak memory of atlas images which were alive at the same time, it's estimated by the sizes
+     * of images which are allocated to draw pages.
+     *
+     * @return the peak memory in bytes.
+     */
+    public long getPeakImageMemory() {
+        return peakImageMemory;
+    }
+
+    /**
+     * Build the one-line summary of these metrics.
+     *
+     * @return the summary.
+     */
+    public @NotNull String toSummary() {
+
+        var result = new StringBuilder(256);
+        result.append(glyphCount).append(" glyphs (").append(requested).append(" requested, ")
+                .append(displayable).append(" displayable, ").append(skipped).append(" skipped");
+
+        if (shared > 0) {
+            result.append(", ").append(shared).append(" shared");
+        }
+
+        result.append("), ").append(pageCount).append(" page(s) ")
+                .append(imageWidth).append('x').append(imageHeight).append(", ")
+                .append(Math.round(occupancy * 1000) / 10F).append("% occupied, ")
+                .append(bytesWritten / 1024).append(" KB written, ")
+                .append(peakImageMemory / 1024).append(" KB peak images;");
+
+        for (var phase : PHASES) {
+            result.append(' ').append(phase.getTitle()).append(' ')
+                    .append(durations[phase.ordinal()] / 1_000_000).append(" ms");
+        }
+
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationMetrics{" + toSummary() + '}';
+    }
+}
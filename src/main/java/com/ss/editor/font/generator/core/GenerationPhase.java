@@ -0,0 +1,65 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The list of phases of font generation which are measured by {@link MetricsRecorder}.
+ *
+ * @author JavaSaBr
+ */
+public enum GenerationPhase {
+
+    /**
+     * Checking which characters the font can display.
+     */
+    SCAN("scan"),
+
+    /**
+     * Measuring displayable glyphs by text layouts.
+     */
+    MEASURE("measure"),
+
+    /**
+     * Packing glyph cells to atlas pages.
+     */
+    PACK("pack"),
+
+    /**
+     * Extracting kerning pairs.
+     */
+    KERNING("kerning"),
+
+    /**
+     * Drawing atlas pages.
+     */
+    RASTERIZE("rasterize"),
+
+    /**
+     * Encoding and writing atlas pages.
+     */
+    ENCODE("encode"),
+
+    /**
+     * Building and writing the description.
+     */
+    DESCRIPTION("description");
+
+    /**
+     * The title of this phase.
+     */
+    @NotNull
+    private final String title;
+
+    GenerationPhase(@NotNull String title) {
+        this.title = title;
+    }
+
+    /**
+     * Get the title of this phase.
+     *
+     * @return the title of this phase.
+     */
+    public @NotNull String getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,222 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * The bounded cache of glyph metrics and rasterized glyphs keyed by (font name, style, size, code point).
+ * It lets re-rendering skip measuring and drawing glyphs again when only layout settings were changed.
+ * The least recently used glyphs are evicted when the estimated weight of the cache exceeds its limit.
+ *
+ * @author JavaSaBr
+ */
+public class GlyphCache {
+
+    /**
+     * The estimated weight of cached metrics in bytes.
+     */
+    private static final int METRICS_WEIGHT = 128;
+
+    /**
+     * The key of a cached glyph.
+     */
+    private static final class GlyphKey {
+
+        /**
+         * The font name.
+         */
+        @NotNull
+        private final String fontName;
+
+        /**
+         * The font style.
+         */
+        private final int style;
+
+        /**
+         * The font size.
+         */
+        private final int size;
+
+        /**
+         * The code point.
+         */
+        private final int codePoint;
+
+        private GlyphKey(@NotNull Font font, int codePoint) {
+            this.fontName = font.getName();
+            this.style = font.getStyle();
+            this.size = font.getSize();
+            this.codePoint = codePoint;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+
+            if (this == obj) {
+                return true;
+            } else if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            var other = (GlyphKey) obj;
+
+            return style == other.style &&
+                    size == other.size &&
+                    codePoint == other.codePoint &&
+                    fontName.equals(other.fontName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fontName, style, size, codePoint);
+        }
+    }
+
+    /**
+     * The cached glyphs in the access order.
+     */
+    @NotNull
+    private final LinkedHashMap<GlyphKey, GlyphMetrics> glyphs;
+
+    /**
+     * The max estimated weight of this cache in bytes.
+     */
+    private final long maxWeight;
+
+    /**
+     * True if rasterized glyphs are cached.
+     */
+    private final boolean cacheRasters;
+
+    /**
+     * The current estimated weight of this cache in bytes.
+     */
+    private long weight;
+
+    /**
+     * Create a cache.
+     *
+     * @param maxWeight    the max estimated weight of this cache in bytes.
+     * @param cacheRasters true if rasterized glyphs should be cached.
+     */
+    public GlyphCache(long maxWeight, boolean cacheRasters) {
+        this.maxWeight = maxWeight;
+        this.cacheRasters = cacheRasters;
+        this.glyphs = new LinkedHashMap<>(1024, 0.75F, true);
+    }
+
+    /**
+     * Return true if rasterized glyphs are cached.
+     *
+     * @return true if rasterized glyphs are cached.
+     */
+    public boolean isCacheRasters() {
+        return cacheRasters;
+    }
+
+    /**
+     * Get cached metrics of the glyph.
+     *
+     * @param font      the font.
+     * @param codePoint the code point of the glyph.
+     * @return the cached metrics or null.
+     */
+    public synchronized @Nullable GlyphMetrics get(@NotNull Font font, int codePoint) {
+        return glyphs.get(new GlyphKey(font, codePoint));
+    }
+
+    /**
+     * Put metrics of the glyph to this cache.
+     *
+     * @param font      the font.
+     * @param codePoint the code point of the glyph.
+     * @param metrics   the metrics of the glyph.
+     */
+    public synchronized void put(@NotNull Font font, int codePoint, @NotNull GlyphMetrics metrics) {
+
+        var prev = glyphs.put(new GlyphKey(font, codePoint), metrics);
+
+        if (prev != null) {
+            weight -= weightOf(prev);
+        }
+
+        weight += weightOf(metrics);
+        evict();
+    }
+
+    /**
+     * Attach the rasterized glyph to its cached metrics.
+     *
+     * @param font      the font.
+     * @param codePoint the code point of the glyph.
+     * @param metrics   the metrics of the glyph.
+     * @param raster    the rasterized glyph.
+     */
+    public synchronized void putRaster(
+            @NotNull Font font,
+            int codePoint,
+            @NotNull GlyphMetrics metrics,
+            @NotNull BufferedImage raster
+    ) {
+
+        if (!cacheRasters || metrics.getRaster() != null) {
+            return;
+        }
+
+        metrics.setRaster(raster);
+
+        // the metrics could be already evicted, so their weight isn't tracked anymore
+        if (glyphs.get(new GlyphKey(font, codePoint)) == metrics) {
+            weight += weightOf(raster);
+            evict();
+        }
+    }
+
+    /**
+     * Remove all cached glyphs.
+     */
+    public synchronized void clear() {
+        glyphs.clear();
+        weight = 0;
+    }
+
+    /**
+     * Evict the least recently used glyphs while the weight of this cache exceeds its limit.
+     */
+    private void evict() {
+
+        var iterator = glyphs.values().iterator();
+
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= weightOf(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Estimate the weight of the cached glyph.
+     *
+     * @param metrics the metrics of the glyph.
+     * @return the estimated weight in bytes.
+     */
+    private static long weightOf(@NotNull GlyphMetrics metrics) {
+        var raster = metrics.getRaster();
+        return raster == null ? METRICS_WEIGHT : METRICS_WEIGHT + weightOf(raster);
+    }
+
+    /**
+     * Estimate the weight of the rasterized glyph.
+     *
+     * @param raster the rasterized glyph.
+     * @return the estimated weight in bytes.
+     */
+    private static long weightOf(@NotNull BufferedImage raster) {
+        return (long) raster.getWidth() * raster.getHeight() * 4;
+    }
+}
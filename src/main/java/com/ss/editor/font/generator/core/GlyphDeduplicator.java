@@ -0,0 +1,204 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The finder of glyphs which can share one atlas cell. Characters of the same glyph code are drawn by the same
+ * glyph, other glyphs are compared by their rasterized pixels or, for a distance field, by their outlines, so
+ * characters which are drawn the same by different glyphs, like compatibility characters, are found too.
+ *
+ * @author JavaSaBr
+ */
+class GlyphDeduplicator {
+
+    /**
+     * The drawn content of a glyph cell.
+     */
+    private static final class Signature {
+
+        /**
+         * The pixels or the outline of a glyph, it's empty for an empty glyph.
+         */
+        @NotNull
+        private final byte[] data;
+
+        /**
+         * The width of the cell.
+         */
+        private final int width;
+
+        /**
+         * The height of the cell.
+         */
+        private final int height;
+
+        /**
+         * The hash code of the content.
+         */
+        private final int hash;
+
+        private Signature(@NotNull byte[] data, int width, int height) {
+            this.data = data;
+            this.width = width;
+            this.height = height;
+            this.hash = (Arrays.hashCode(data) * 31 + width) * 31 + height;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+
+            if (this == obj) {
+                return true;
+            } else if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            var other = (Signature) obj;
+
+            return width == other.width &&
+                    height == other.height &&
+                    Arrays.equals(data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Find the glyphs which can share the cell of a previous glyph: glyphs of the same glyph code, glyphs which
+     * are drawn the same and empty glyphs of the same cell size.
+     *
+     * @param font              the font.
+     * @param fontRenderContext the render context of the atlas.
+     * @param glyphs            the metrics of glyphs.
+     * @param width             the widths of glyph cells.
+     * @param height            the heights of glyph cells.
+     * @param count             the count of glyphs.
+     * @param distanceField     true if glyphs are drawn as a distance field.
+     * @param cells             the indices of glyphs whose cells are used by glyphs.
+     * @param unique            the indices of glyphs which have their own cells.
+     * @return the count of glyphs which have their own cells.
+     */
+    static int deduplicate(
+            @NotNull Font font,
+            @NotNull FontRenderContext fontRenderContext,
+            @NotNull GlyphMetrics[] glyphs,
+            @NotNull int[] width,
+            @NotNull int[] height,
+            int count,
+            boolean distanceField,
+            @NotNull int[] cells,
+            @NotNull int[] unique
+    ) {
+
+        var codeOwners = new HashMap<Integer, Integer>();
+        var signatureOwners = new HashMap<Signature, Integer>();
+        var uniqueCount = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            var metrics = glyphs[i];
+            var glyphCode = metrics.getGlyphCode();
+            var empty = metrics.getBoundsWidth() < 1 || metrics.getBoundsHeight() < 1;
+            var owner = empty ? null : codeOwners.get(glyphCode);
+
+            if (owner == null) {
+
+                // nothing is drawn in empty glyphs, so any empty cell of the same size fits
+                var data = empty ? new byte[0] : distanceField ? outline(font, fontRenderContext, glyphCode) :
+                        rasterize(font, metrics);
+
+                owner = signatureOwners.putIfAbsent(new Signature(data, width[i], height[i]), i);
+
+                if (!empty) {
+                    codeOwners.put(glyphCode, owner == null ? i : owner);
+                }
+            }
+
+            if (owner == null) {
+                cells[i] = i;
+                unique[uniqueCount++] = i;
+            } else {
+                cells[i] = owner;
+            }
+        }
+
+        return uniqueCount;
+    }
+
+    /**
+     * Draw the glyph as it's drawn to the atlas.
+     *
+     * @param font    the font.
+     * @param metrics the metrics of the glyph.
+     * @return the pixels of the glyph.
+     */
+    private static @NotNull byte[] rasterize(@NotNull Font font, @NotNull GlyphMetrics metrics) {
+
+        // one extra pixel around pixel bounds covers anti-aliasing
+        var raster = new BufferedImage(metrics.getBoundsWidth() + 2, metrics.getBoundsHeight() + 2,
+                BufferedImage.TYPE_BYTE_GRAY);
+
+        var graphics = GlyphRasterizer.prepareGraphics(raster, font);
+        var glyphVector = font.createGlyphVector(graphics.getFontRenderContext(),
+                new int[] {metrics.getGlyphCode()});
+
+        graphics.drawGlyphVector(glyphVector, 1 - metrics.getBoundsX(), 1 - metrics.getBoundsY());
+        graphics.dispose();
+
+        return ((DataBufferByte) raster.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Get the outline of the glyph, a distance field is drawn from the scaled outline.
+     *
+     * @param font              the font.
+     * @param fontRenderContext the render context of the atlas.
+     * @param glyphCode         the glyph code.
+     * @return the segments of the outline.
+     */
+    private static @NotNull byte[] outline(
+            @NotNull Font font,
+            @NotNull FontRenderContext fontRenderContext,
+            int glyphCode
+    ) {
+
+        var outline = font.createGlyphVector(fontRenderContext, new int[] {glyphCode}).getGlyphOutline(0);
+        var iterator = outline.getPathIterator(null);
+        var coords = new float[6];
+        var bytes = new ByteArrayOutputStream(256);
+
+        try (var out = new DataOutputStream(bytes)) {
+
+            while (!iterator.isDone()) {
+
+                out.writeInt(iterator.currentSegment(coords));
+
+                for (var coord : coords) {
+                    out.writeFloat(coord);
+                }
+
+                iterator.next();
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,600 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+
+/**
+ * The immutable layout of glyphs of a font on a bitmap atlas. It's computed once and is shared between
+ * the atlas rasterizer and the font description builder, so all per glyph data is stored in primitive arrays
+ * which are indexed by the glyph index in the layout.
+ *
+ * @author JavaSaBr
+ */
+public class GlyphLayout {
+
+    /**
+     * The laid out font.
+     */
+    @NotNull
+    private final Font font;
+
+    /**
+     * The ids (code points) of glyphs.
+     */
+    @NotNull
+    private final int[] ids;
+
+    /**
+     * The glyph codes of glyphs in the font.
+     */
+    @NotNull
+    private final int[] glyphCodes;
+
+    /**
+     * The X positions of glyph cells in the atlas.
+     */
+    @NotNull
+    private final int[] x;
+
+    /**
+     * The Y positions of glyph cells in the atlas.
+     */
+    @NotNull
+    private final int[] y;
+
+    /**
+     * The widths of glyph cells in the atlas.
+     */
+    @NotNull
+    private final int[] width;
+
+    /**
+     * The heights of glyph cells in the atlas.
+     */
+    @NotNull
+    private final int[] height;
+
+    /**
+     * The X offsets of glyphs.
+     */
+    @NotNull
+    private final int[] xOffset;
+
+    /**
+     * The Y offsets of glyphs.
+     */
+    @NotNull
+    private final int[] yOffset;
+
+    /**
+     * The X advances of glyphs.
+     */
+    @NotNull
+    private final int[] xAdvance;
+
+    /**
+     * The X positions of glyph origins to draw glyphs in the atlas.
+     */
+    @NotNull
+    private final int[] originX;
+
+    /**
+     * The Y positions of glyph origins (baselines) to draw glyphs in the atlas.
+     */
+    @NotNull
+    private final int[] originY;
+
+    /**
+     * The Y offsets of glyph pixel bounds relative to glyph origins.
+     */
+    @NotNull
+    private final int[] inkY;
+
+    /**
+     * The heights of glyph pixel bounds.
+     */
+    @NotNull
+    private final int[] inkHeight;
+
+    /**
+     * The atlas pages of glyphs.
+     */
+    @NotNull
+    private final int[] page;
+
+    /**
+     * The BMFont channels of glyphs in their atlas pages.
+     */
+    @NotNull
+    private final int[] channel;
+
+    /**
+     * The indices of glyphs whose cells are used by glyphs, a glyph which has its own cell refers to itself.
+     */
+    @NotNull
+    private final int[] cells;
+
+    /**
+     * The pixel format of atlas pages.
+     */
+    @NotNull
+    private final AtlasFormat format;
+
+    /**
+     * The kerning pairs of glyphs.
+     */
+    @NotNull
+    private final KerningTable kernings;
+
+    /**
+     * The width of an atlas page.
+     */
+    private final int imageWidth;
+
+    /**
+     * The height of an atlas page.
+     */
+    private final int imageHeight;
+
+    /**
+     * The count of atlas pages.
+     */
+    private final int pageCount;
+
+    /**
+     * The height of a line.
+     */
+    private final int lineHeight;
+
+    /**
+     * The distance from the top of a line to the baseline.
+     */
+    private final int base;
+
+    /**
+     * The count of glyphs.
+     */
+    private final int count;
+
+    /**
+     * The count of displayable glyphs which don't fit all atlas pages.
+     */
+    private final int skipped;
+
+    /**
+     * The spread of a distance field in pixels or 0 if glyphs are drawn as coverage.
+     */
+    private final int distanceFieldSpread;
+
+    /**
+     * The scale of the resolution to draw glyphs before computing a distance field.
+     */
+    private final int distanceFieldScale;
+
+    /**
+     * The count of glyphs which use the cells of other glyphs.
+     */
+    private final int sharedCount;
+
+    /**
+     * The part of the area of all atlas pages which is used by glyph cells.
+     */
+    private final float occupancy;
+
+    public GlyphLayout(
+            @NotNull Font font,
+            @NotNull int[] ids,
+            @NotNull int[] glyphCodes,
+            @NotNull int[] x,
+            @NotNull int[] y,
+            @NotNull int[] width,
+            @NotNull int[] height,
+            @NotNull int[] xOffset,
+            @NotNull int[] yOffset,
+            @NotNull int[] xAdvance,
+            @NotNull int[] originX,
+            @NotNull int[] originY,
+            @NotNull int[] inkY,
+            @NotNull int[] inkHeight,
+            @NotNull int[] page,
+            @NotNull int[] channel,
+            @NotNull int[] cells,
+            int imageWidth,
+            int imageHeight,
+            int pageCount,
+            int lineHeight,
+            int base,
+            int count,
+            int skipped,
+            int distanceFieldSpread,
+            int distanceFieldScale,
+            @NotNull AtlasFormat format,
+            @NotNull KerningTable kernings
+    ) {
+        this.font = font;
+        this.ids = ids;
+        this.glyphCodes = glyphCodes;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.xOffset = xOffset;
+        this.yOffset = yOffset;
+        this.xAdvance = xAdvance;
+        this.originX = originX;
+        this.originY = originY;
+        this.inkY = inkY;
+        this.inkHeight = inkHeight;
+        this.page = page;
+        this.channel = channel;
+        this.cells = cells;
+        this.format = format;
+        this.kernings = kernings;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.pageCount = pageCount;
+        this.lineHeight = lineHeight;
+        this.base = base;
+        this.count = count;
+        this.skipped = skipped;
+        this.distanceFieldSpread = distanceFieldSpread;
+        this.distanceFieldScale = distanceFieldScale;
+
+        var usedArea = 0L;
+        var shared = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (cells[i] != i) {
+                shared++;
+            } else {
+                usedArea += (long) width[i] * height[i];
+            }
+        }
+
+        this.sharedCount = shared;
+        this.occupancy = (float) usedArea / ((long) imageWidth * imageHeight * pageCount * format.getGlyphSets());
+    }
+
+    /**
+     * Create the copy of the layout which is moved to the pages of a shared atlas.
+     *
+     * @param newX        the X positions of glyph cells in the shared atlas.
+     * @param newY        the Y positions of glyph cells in the shared atlas.
+     * @param newPage     the pages of glyph cells in the copy.
+     * @param newChannel  the channels of glyph cells in the shared atlas.
+     * @param imageWidth  the width of a page of the shared atlas.
+     * @param imageHeight the height of a page of the shared atlas.
+     * @param pageCount   the count of pages of the copy.
+     * @return the moved copy of the layout.
+     */
+    @NotNull GlyphLayout relocate(
+            @NotNull int[] newX,
+            @NotNull int[] newY,
+            @NotNull int[] newPage,
+            @NotNull int[] newChannel,
+            int imageWidth,
+            int imageHeight,
+            int pageCount
+    ) {
+
+        var newOriginX = new int[count];
+        var newOriginY = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            newOriginX[i] = originX[i] + newX[i] - x[i];
+            newOriginY[i] = originY[i] + newY[i] - y[i];
+        }
+
+        return new GlyphLayout(font, ids, glyphCodes, newX, newY, width, height, xOffset, yOffset, xAdvance,
+                newOriginX, newOriginY, inkY, inkHeight, newPage, newChannel, cells, imageWidth, imageHeight,
+                pageCount, lineHeight, base, count, skipped, distanceFieldSpread, distanceFieldScale, format, kernings);
+    }
+
+    /**
+     * Get the laid out font.
+     *
+     * @return the laid out font.
+     */
+    public @NotNull Font getFont() {
+        return font;
+    }
+
+    /**
+     * Get the count of glyphs.
+     *
+     * @return the count of glyphs.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the count of displayable glyphs which don't fit all atlas pages.
+     *
+     * @return the count of skipped glyphs.
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Get the count of glyphs which use the cells of other glyphs.
+     *
+     * @return the count of glyphs which use the cells of other glyphs.
+     */
+    public int getSharedCount() {
+        return sharedCount;
+    }
+
+    /**
+     * Get the pixel format of atlas pages.
+     *
+     * @return the pixel format of atlas pages.
+     */
+    public @NotNull AtlasFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Get the kerning pairs of glyphs.
+     *
+     * @return the kerning pairs, the table is empty if kerning wasn't extracted.
+     */
+    public @NotNull KerningTable getKernings() {
+        return kernings;
+    }
+
+    /**
+     * Return true if glyphs are drawn as a signed distance field instead of coverage.
+     *
+     * @return true if glyphs are drawn as a signed distance field.
+     */
+    public boolean isDistanceField() {
+        return distanceFieldSpread > 0;
+    }
+
+    /**
+     * Get the spread of a distance field, it's the distance in pixels which is mapped to the range from the edge
+     * of a glyph to 0 or 255, glyph cells are extended by the spread.
+     *
+     * @return the spread of a distance field in pixels or 0 if glyphs are drawn as coverage.
+     */
+    public int getDistanceFieldSpread() {
+        return distanceFieldSpread;
+    }
+
+    /**
+     * Get the scale of the resolution to draw glyphs before computing a distance field.
+     *
+     * @return the scale of the resolution.
+     */
+    public int getDistanceFieldScale() {
+        return distanceFieldScale;
+    }
+
+    /**
+     * Get the part of the area of all atlas pages which is used by glyph cells, it shows efficiency of packing.
+     *
+     * @return the part of the used area from 0 to 1.
+     */
+    public float getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Get the width of an atlas page.
+     *
+     * @return the width of an atlas page.
+     */
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    /**
+     * Get the height of an atlas page.
+     *
+     * @return the height of an atlas page.
+     */
+    public int getImageHeight() {
+        return imageHeight;
+    }
+
+    /**
+     * Get the count of atlas pages.
+     *
+     * @return the count of atlas pages.
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Get the height of a line.
+     *
+     * @return the height of a line.
+     */
+    public int getLineHeight() {
+        return lineHeight;
+    }
+
+    /**
+     * Get the distance from the top of a line to the baseline.
+     *
+     * @return the distance from the top of a line to the baseline.
+     */
+    public int getBase() {
+        return base;
+    }
+
+    /**
+     * Get the id (code point) of the glyph.
+     *
+     * @param index the glyph index.
+     * @return the id of the glyph.
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Get the glyph code of the glyph in the font.
+     *
+     * @param index the glyph index.
+     * @return the glyph code.
+     */
+    public int getGlyphCode(int index) {
+        return glyphCodes[index];
+    }
+
+    /**
+     * Get the X position of the glyph cell in the atlas.
+     *
+     * @param index the glyph index.
+     * @return the X position of the glyph cell.
+     */
+    public int getX(int index) {
+        return x[index];
+    }
+
+    /**
+     * Get the Y position of the glyph cell in the atlas.
+     *
+     * @param index the glyph index.
+     * @return the Y position of the glyph cell.
+     */
+    public int getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Get the width of the glyph cell in the atlas.
+     *
+     * @param index the glyph index.
+     * @return the width of the glyph cell.
+     */
+    public int getWidth(int index) {
+        return width[index];
+    }
+
+    /**
+     * Get the height of the glyph cell in the atlas.
+     *
+     * @param index the glyph index.
+     * @return the height of the glyph cell.
+     */
+    public int getHeight(int index) {
+        return height[index];
+    }
+
+    /**
+     * Get the X offset of the glyph.
+     *
+     * @param index the glyph index.
+     * @return the X offset of the glyph.
+     */
+    public int getXOffset(int index) {
+        return xOffset[index];
+    }
+
+    /**
+     * Get the Y offset of the top of the glyph cell from the top of a line.
+     *
+     * @param index the glyph index.
+     * @return the Y offset of the glyph.
+     */
+    public int getYOffset(int index) {
+        return yOffset[index];
+    }
+
+    /**
+     * Get the X advance of the glyph.
+     *
+     * @param index the glyph index.
+     * @return the X advance of the glyph.
+     */
+    public int getXAdvance(int index) {
+        return xAdvance[index];
+    }
+
+    /**
+     * Get the X position of the glyph origin in the atlas.
+     *
+     * @param index the glyph index.
+     * @return the X position of the glyph origin.
+     */
+    public int getOriginX(int index) {
+        return originX[index];
+    }
+
+    /**
+     * Get the Y position of the glyph origin (baseline) in the atlas.
+     *
+     * @param index the glyph index.
+     * @return the Y position of the glyph origin.
+     */
+    public int getOriginY(int index) {
+        return originY[index];
+    }
+
+    /**
+     * Get the Y offset of the glyph pixel bounds relative to the glyph origin.
+     *
+     * @param index the glyph index.
+     * @return the Y offset of the glyph pixel bounds.
+     */
+    public int getInkY(int index) {
+        return inkY[index];
+    }
+
+    /**
+     * Get the height of the glyph pixel bounds.
+     *
+     * @param index the glyph index.
+     * @return the height of the glyph pixel bounds.
+     */
+    public int getInkHeight(int index) {
+        return inkHeight[index];
+    }
+
+    /**
+     * Get the index of the glyph whose cell is used by the glyph.
+     *
+     * @param index the glyph index.
+     * @return the index of the glyph which owns the cell or the glyph index if the glyph has its own cell.
+     */
+    public int getCell(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Return true if the glyph uses the cell of another glyph, so it isn't drawn itself.
+     *
+     * @param index the glyph index.
+     * @return true if the glyph uses the cell of another glyph.
+     */
+    public boolean isSharedCell(int index) {
+        return cells[index] != index;
+    }
+
+    /**
+     * Get the atlas page of the glyph.
+     *
+     * @param index the glyph index.
+     * @return the atlas page of the glyph.
+     */
+    public int getPage(int index) {
+        return page[index];
+    }
+
+    /**
+     * Get the BMFont channel of the glyph in its atlas page.
+     *
+     * @param index the glyph index.
+     * @return the channel of the glyph or 0 if glyphs aren't packed to channels.
+     * @see AtlasFormat#getChannel(int)
+     */
+    public int getChannel(int index) {
+        return channel[index];
+    }
+}
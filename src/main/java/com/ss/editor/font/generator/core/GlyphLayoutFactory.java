@@ -0,0 +1,539 @@
+package com.ss.editor.font.generator.core;
+
+import com.ss.editor.font.generator.core.pack.AtlasPacker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The factory to lay out glyphs of a font on a bitmap atlas.
+ *
+ * @author JavaSaBr, normenhansen
+ */
+public class GlyphLayoutFactory {
+
+    /**
+     * The min size of an automatic atlas.
+     */
+    private static final int MIN_AUTO_IMAGE_SIZE = 32;
+
+    /**
+     * The cache of glyph metrics or null.
+     */
+    @Nullable
+    private final GlyphCache cache;
+
+    /**
+     * The extractor of kerning pairs.
+     */
+    @NotNull
+    private final KerningExtractor kerningExtractor;
+
+    public GlyphLayoutFactory() {
+        this(null);
+    }
+
+    /**
+     * Create a factory.
+     *
+     * @param cache the cache of glyph metrics or null.
+     */
+    public GlyphLayoutFactory(@Nullable GlyphCache cache) {
+        this(cache, null);
+    }
+
+    /**
+     * Create a factory.
+     *
+     * @param cache the cache of glyph metrics or null.
+     * @param pool  the pool to extract kerning pairs in the parallel mode or null.
+     */
+    public GlyphLayoutFactory(@Nullable GlyphCache cache, @Nullable ForkJoinPool pool) {
+        this.cache = cache;
+        this.kerningExtractor = new KerningExtractor(pool);
+    }
+
+    /**
+     * Lay out glyphs of the font. The layout is cancelled by interrupting the current thread.
+     *
+     * @param font     the font.
+     * @param settings the settings.
+     * @return the glyph layout.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public @NotNull GlyphLayout layout(@NotNull Font font, @NotNull BitmapFontSettings settings) {
+        return layout(font, settings, null);
+    }
+
+    /**
+     * Lay out glyphs of the font and record durations of phases and counts of glyphs. The layout is cancelled
+     * by interrupting the current thread.
+     *
+     * @param font     the font.
+     * @param settings the settings.
+     * @param recorder the recorder of metrics or null.
+     * @return the glyph layout.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public @NotNull GlyphLayout layout(
+            @NotNull Font font,
+            @NotNull BitmapFontSettings settings,
+            @Nullable MetricsRecorder recorder
+    ) {
+        return layout(font, settings, null, recorder);
+    }
+
+    /**
+     * Find the requested characters of the settings which the font can display. Fonts of the same name and style
+     * display the same characters at any size, so the found characters can be reused to lay out glyphs of other
+     * sizes. The scan is cancelled by interrupting the current thread.
+     *
+     * @param font     the font.
+     * @param settings the settings.
+     * @return the displayable characters.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public @NotNull CharacterSet scan(@NotNull Font font, @NotNull BitmapFontSettings settings) {
+
+        var characterSet = settings.getRequestedCharacters();
+        var result = new CharacterSet();
+
+        for (int i = characterSet.next(0); i >= 0; i = characterSet.next(i + 1)) {
+
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+
+            if (font.canDisplay(i)) {
+                result.add(i);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Lay out glyphs of the font and record durations of phases and counts of glyphs. The layout is cancelled
+     * by interrupting the current thread.
+     *
+     * @param font        the font.
+     * @param settings    the settings.
+     * @param displayable the requested characters which the font can display or null to check them while
+     *                    laying out.
+     * @param recorder    the recorder of metrics or null.
+     * @return the glyph layout.
+     * @throws CancellationException if the current thread was interrupted.
+     * @see #scan(Font, BitmapFontSettings)
+     */
+    public @NotNull GlyphLayout layout(
+            @NotNull Font font,
+            @NotNull BitmapFontSettings settings,
+            @Nullable CharacterSet displayable,
+            @Nullable MetricsRecorder recorder
+    ) {
+
+        // the measuring image only provides the same render context and metrics as the atlas image
+        var measuringImage = new BufferedImage(1, 1, BufferedImage.TYPE_4BYTE_ABGR);
+        var graphics = GlyphRasterizer.prepareGraphics(measuringImage, font);
+
+        var fontRenderContext = graphics.getFontRenderContext();
+        var fontMetrics = graphics.getFontMetrics();
+
+        graphics.dispose();
+
+        var spread = settings.isDistanceField() ? Math.max(settings.getDistanceFieldSpread(), 1) : 0;
+
+        // a distance field falls off around glyphs, so glyph cells are extended by its spread, a negative
+        // padding can't crop a cell below the pixel bounds of its glyph
+        var paddingX = Math.max(settings.getPaddingX() + spread, 0);
+        var paddingY = Math.max(settings.getPaddingY() + spread, 0);
+        var requested = settings.getRequestedCharacters();
+        var characterSet = displayable == null ? requested : displayable;
+        var capacity = characterSet.size();
+        var glyphs = new GlyphMetrics[capacity];
+        var ids = new int[capacity];
+        var unmeasured = new int[capacity];
+        var unmeasuredCount = 0;
+        var count = 0;
+        var scanStartTime = System.nanoTime();
+
+        for (int i = characterSet.next(0); i >= 0; i = characterSet.next(i + 1)) {
+
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+
+            var metrics = cache == null ? null : cache.get(font, i);
+
+            if (metrics == null) {
+
+                if (displayable == null && !font.canDisplay(i)) {
+
+                    if (cache != null) {
+                        cache.put(font, i, GlyphMetrics.NOT_DISPLAYABLE);
+                    }
+
+                    continue;
+                }
+
+                // displayable glyphs are measured together after scanning
+                unmeasured[unmeasuredCount++] = count;
+
+            } else if (!metrics.isDisplayable()) {
+                continue;
+            }
+
+            glyphs[count] = metrics;
+            ids[count] = i;
+            count++;
+        }
+
+        var measureStartTime = System.nanoTime();
+
+        if (unmeasuredCount > 0) {
+
+            var codePoints = new int[unmeasuredCount];
+
+            for (int i = 0; i < unmeasuredCount; i++) {
+                codePoints[i] = ids[unmeasured[i]];
+            }
+
+            var measured = GlyphMetrics.measureAll(font, codePoints, unmeasuredCount, fontRenderContext);
+
+            for (int i = 0; i < unmeasuredCount; i++) {
+
+                glyphs[unmeasured[i]] = measured[i];
+
+                if (cache != null) {
+                    cache.put(font, codePoints[i], measured[i]);
+                }
+            }
+        }
+
+        var packStartTime = System.nanoTime();
+
+        if (recorder != null) {
+            recorder.addDuration(GenerationPhase.SCAN, measureStartTime - scanStartTime);
+            recorder.addDuration(GenerationPhase.MEASURE, packStartTime - measureStartTime);
+            recorder.setGlyphCounts(requested.size(), count);
+        }
+
+        var width = new int[count];
+        var height = new int[count];
+
+        // glyph cells are tight to pixel bounds, so short glyphs don't take the height of a line, glyphs without
+        // pixels get empty cells
+        for (int i = 0; i < count; i++) {
+            width[i] = getCellSize(glyphs[i], glyphs[i].getBoundsWidth(), paddingX);
+            height[i] = getCellSize(glyphs[i], glyphs[i].getBoundsHeight(), paddingY);
+        }
+
+        var cells = sequence(count);
+        var pending = sequence(count);
+        var pendingCount = count;
+
+        if (settings.isDeduplicateGlyphs()) {
+            pendingCount = GlyphDeduplicator.deduplicate(font, fontRenderContext, glyphs, width, height, count,
+                    settings.isDistanceField(), cells, pending);
+        }
+
+        var imageWidth = settings.getImageSize();
+        var imageHeight = settings.getImageSize();
+        var packer = settings.getPackingStrategy().getPacker();
+
+        if (settings.isAutoImageSize()) {
+
+            var size = findImageSize(packer, width, height, pending, pendingCount,
+                    settings.getAtlasFormat().getGlyphSets(), imageWidth, settings.isNonSquareImage());
+
+            // if glyphs don't fit one page, all pages have the max size
+            if (size != null) {
+                imageWidth = size.width;
+                imageHeight = size.height;
+            }
+        }
+
+        var x = new int[count];
+        var y = new int[count];
+        var page = new int[count];
+        var placed = new boolean[count];
+
+        var channel = new int[count];
+        var format = settings.getAtlasFormat();
+        var glyphSets = format.getGlyphSets();
+
+        var setCount = 0;
+        var maxSets = Math.max(settings.getMaxPages(), 1) * glyphSets;
+
+        // every next glyph set takes the glyphs which don't fit the previous sets, a page has one set
+        // or several sets in different channels
+        while (pendingCount > 0 && setCount < maxSets) {
+
+            var pagePlaced = packer.pack(width, height, pending, pendingCount, imageWidth, imageHeight,
+                    x, y, placed);
+
+            if (pagePlaced < 1) {
+                break;
+            }
+
+            var rest = 0;
+
+            for (int i = 0; i < pendingCount; i++) {
+
+                var index = pending[i];
+
+                if (placed[index]) {
+                    page[index] = setCount / glyphSets;
+                    channel[index] = format.getChannel(setCount % glyphSets);
+                } else {
+                    pending[rest++] = index;
+                }
+            }
+
+            pendingCount = rest;
+            setCount++;
+        }
+
+        var pageCount = (setCount + glyphSets - 1) / glyphSets;
+        var placedCount = 0;
+
+        // glyphs which share cells take the places of their cells
+        for (int i = 0; i < count; i++) {
+
+            var cell = cells[i];
+
+            if (cell != i) {
+                x[i] = x[cell];
+                y[i] = y[cell];
+                page[i] = page[cell];
+                channel[i] = channel[cell];
+                placed[i] = placed[cell];
+            }
+
+            if (placed[i]) {
+                placedCount++;
+            }
+        }
+
+        var skipped = count - placedCount;
+
+        var glyphCodes = new int[placedCount];
+        var xOffset = new int[placedCount];
+        var yOffset = new int[placedCount];
+        var xAdvance = new int[placedCount];
+        var originX = new int[placedCount];
+        var originY = new int[placedCount];
+        var inkY = new int[placedCount];
+        var inkHeight = new int[placedCount];
+        var placedCells = new int[placedCount];
+        var moved = new int[count];
+        var letterSpacing = settings.getLetterSpacing();
+        var ascent = fontMetrics.getAscent();
+
+        // the glyphs which don't fit all pages are removed, so the rest glyphs are compacted
+        for (int i = 0, j = 0; i < count; i++) {
+
+            if (!placed[i]) {
+                continue;
+            }
+
+            var metrics = glyphs[i];
+            var advance = (int) Math.ceil(metrics.getAdvance());
+
+            // a cell is owned by the first of its glyphs, so the owner is already moved
+            moved[i] = j;
+            placedCells[j] = moved[cells[i]];
+            ids[j] = ids[i];
+            glyphCodes[j] = metrics.getGlyphCode();
+            x[j] = x[i];
+            y[j] = y[i];
+            page[j] = page[i];
+            channel[j] = channel[i];
+            width[j] = width[i];
+            height[j] = height[i];
+            // the cell starts before the pixel bounds by its padding which includes the spread
+            xOffset[j] = metrics.getBoundsX() - (width[i] > 0 ? paddingX : 0);
+            yOffset[j] = ascent + metrics.getBoundsY() - (height[i] > 0 ? paddingY : 0);
+            xAdvance[j] = (advance + letterSpacing) - 1;
+            originX[j] = x[i] + paddingX - metrics.getBoundsX();
+            originY[j] = y[i] + paddingY - metrics.getBoundsY();
+            inkY[j] = metrics.getBoundsY();
+            inkHeight[j] = metrics.getBoundsHeight();
+            j++;
+        }
+
+        var lineHeight = fontMetrics.getDescent() + fontMetrics.getAscent();
+        var kernings = KerningTable.EMPTY;
+        var kerningStartTime = System.nanoTime();
+
+        if (settings.isKerning()) {
+            kernings = kerningExtractor.extract(font, fontRenderContext, ids, placedCount,
+                    settings.getKerningSample());
+        }
+
+        if (recorder != null) {
+            recorder.addDuration(GenerationPhase.PACK, kerningStartTime - packStartTime);
+            recorder.addDuration(GenerationPhase.KERNING, System.nanoTime() - kerningStartTime);
+        }
+
+        return new GlyphLayout(font, Arrays.copyOf(ids, placedCount), glyphCodes, Arrays.copyOf(x, placedCount),
+                Arrays.copyOf(y, placedCount), Arrays.copyOf(width, placedCount),
+                Arrays.copyOf(height, placedCount), xOffset, yOffset, xAdvance, originX, originY, inkY, inkHeight,
+                Arrays.copyOf(page, placedCount), Arrays.copyOf(channel, placedCount),
+                placedCells, imageWidth, imageHeight, Math.max(pageCount, 1), lineHeight,
+                ascent, placedCount, skipped, spread,
+                Math.max(settings.getDistanceFieldScale(), 1), format, kernings);
+    }
+
+    /**
+     * Get the size of the glyph cell along an axis.
+     *
+     * @param metrics the metrics of the glyph.
+     * @param size    the size of pixel bounds of the glyph along the axis.
+     * @param padding the padding of the cell along the axis.
+     * @return the size of the cell or 0 if the glyph has no pixels.
+     */
+    private static int getCellSize(@NotNull GlyphMetrics metrics, int size, int padding) {
+
+        if (metrics.getBoundsWidth() < 1 || metrics.getBoundsHeight() < 1) {
+            return 0;
+        }
+
+        return size + padding * 2;
+    }
+
+    /**
+     * Find the smallest power of two atlas size which fits all glyph cells to one page.
+     *
+     * @param packer    the packer.
+     * @param width     the widths of glyph cells.
+     * @param height    the heights of glyph cells.
+     * @param cells     the indices of glyph cells.
+     * @param count     the count of glyph cells.
+     * @param glyphSets the count of glyph sets in a page.
+     * @param maxSize   the max size of the atlas.
+     * @param nonSquare true if the atlas can be non-square.
+     * @return the found size or null if glyph cells don't fit the max size.
+     */
+    static @Nullable Dimension findImageSize(
+            @NotNull AtlasPacker packer,
+            @NotNull int[] width,
+            @NotNull int[] height,
+            @NotNull int[] cells,
+            int count,
+            int glyphSets,
+            int maxSize,
+            boolean nonSquare
+    ) {
+
+        var usedArea = 0L;
+
+        for (int i = 0; i < count; i++) {
+            usedArea += (long) width[cells[i]] * height[cells[i]];
+        }
+
+        var pending = new int[count];
+        var x = new int[width.length];
+        var y = new int[width.length];
+        var placed = new boolean[width.length];
+
+        for (int size = MIN_AUTO_IMAGE_SIZE; size <= maxSize; size *= 2) {
+
+            // a non-square atlas is tried before the square one of the double area
+            if (nonSquare && size > MIN_AUTO_IMAGE_SIZE) {
+
+                var halfSize = size / 2;
+
+                if ((long) size * halfSize * glyphSets >= usedArea &&
+                        fits(packer, width, height, cells, count, glyphSets, size, halfSize, pending, x, y,
+                                placed)) {
+                    return new Dimension(size, halfSize);
+                }
+            }
+
+            if ((long) size * size * glyphSets >= usedArea &&
+                    fits(packer, width, height, cells, count, glyphSets, size, size, pending, x, y, placed)) {
+                return new Dimension(size, size);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Check that all glyph cells fit the glyph sets of the size.
+     *
+     * @param packer      the packer.
+     * @param width       the widths of glyph cells.
+     * @param height      the heights of glyph cells.
+     * @param cells       the indices of glyph cells.
+     * @param count       the count of glyph cells.
+     * @param glyphSets   the count of glyph sets.
+     * @param atlasWidth  the width of the atlas.
+     * @param atlasHeight the height of the atlas.
+     * @param pending     the buffer of indices of glyph cells.
+     * @param x           the buffer of X positions.
+     * @param y           the buffer of Y positions.
+     * @param placed      the buffer of flags of placed glyph cells.
+     * @return true if all glyph cells fit.
+     */
+    private static boolean fits(
+            @NotNull AtlasPacker packer,
+            @NotNull int[] width,
+            @NotNull int[] height,
+            @NotNull int[] cells,
+            int count,
+            int glyphSets,
+            int atlasWidth,
+            int atlasHeight,
+            @NotNull int[] pending,
+            @NotNull int[] x,
+            @NotNull int[] y,
+            @NotNull boolean[] placed
+    ) {
+
+        Arrays.fill(placed, false);
+        System.arraycopy(cells, 0, pending, 0, count);
+
+        var pendingCount = count;
+
+        for (int set = 0; set < glyphSets && pendingCount > 0; set++) {
+
+            packer.pack(width, height, pending, pendingCount, atlasWidth, atlasHeight, x, y, placed);
+
+            var rest = 0;
+
+            for (int i = 0; i < pendingCount; i++) {
+                if (!placed[pending[i]]) {
+                    pending[rest++] = pending[i];
+                }
+            }
+
+            pendingCount = rest;
+        }
+
+        return pendingCount == 0;
+    }
+
+    /**
+     * Create the sequence of indices from 0 to count.
+     *
+     * @param count the count of indices.
+     * @return the sequence of indices.
+     */
+    private static @NotNull int[] sequence(int count) {
+
+        var result = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            result[i] = i;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,293 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.EnumSet;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The measured metrics of a glyph of a font.
+ *
+ * @author JavaSaBr
+ */
+public class GlyphMetrics {
+
+    /**
+     * The metrics of glyphs which can't be displayed by a font.
+     */
+    public static final GlyphMetrics NOT_DISPLAYABLE = new GlyphMetrics(false, new Rectangle(), 0, 0);
+
+    /**
+     * The scripts which glyphs aren't changed by text layout when they are laid out alone.
+     */
+    private static final EnumSet<Character.UnicodeScript> SIMPLE_SCRIPTS = EnumSet.of(
+            Character.UnicodeScript.COMMON,
+            Character.UnicodeScript.LATIN,
+            Character.UnicodeScript.GREEK,
+            Character.UnicodeScript.CYRILLIC,
+            Character.UnicodeScript.ARMENIAN,
+            Character.UnicodeScript.GEORGIAN,
+            Character.UnicodeScript.HAN,
+            Character.UnicodeScript.HIRAGANA,
+            Character.UnicodeScript.KATAKANA,
+            Character.UnicodeScript.BOPOMOFO,
+            Character.UnicodeScript.HANGUL
+    );
+
+    /**
+     * Get the text of the code point to draw or measure it.
+     *
+     * @param codePoint the code point.
+     * @return the text of the code point.
+     */
+    static @NotNull String toText(int codePoint) {
+        return new String(Character.toChars(codePoint));
+    }
+
+    /**
+     * Measure a glyph of the font by a text layout of its code point.
+     *
+     * @param font              the font.
+     * @param codePoint         the code point of the glyph.
+     * @param fontRenderContext the font render context.
+     * @return the metrics of the glyph.
+     */
+    public static @NotNull GlyphMetrics measure(
+            @NotNull Font font,
+            int codePoint,
+            @NotNull FontRenderContext fontRenderContext
+    ) {
+
+        if (!font.canDisplay(codePoint)) {
+            return NOT_DISPLAYABLE;
+        }
+
+        var glyphCode = font.createGlyphVector(fontRenderContext, toText(codePoint)).getGlyphCode(0);
+
+        return measure(font, codePoint, glyphCode, fontRenderContext);
+    }
+
+    /**
+     * Measure glyphs which the font can display by one glyph vector of all code points. The metrics are identical
+     * to {@link #measure(Font, int, FontRenderContext)}: glyphs which a text layout can change, such as marks and
+     * glyphs of complex scripts, are still measured by text layouts. Measuring is cancelled by interrupting
+     * the current thread.
+     *
+     * @param font              the font.
+     * @param codePoints        the code points of the glyphs.
+     * @param count             the count of the code points.
+     * @param fontRenderContext the font render context.
+     * @return the metrics of the glyphs in the order of the code points.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public static @NotNull GlyphMetrics[] measureAll(
+            @NotNull Font font,
+            @NotNull int[] codePoints,
+            int count,
+            @NotNull FontRenderContext fontRenderContext
+    ) {
+
+        var text = new StringBuilder(count + 16);
+
+        for (int i = 0; i < count; i++) {
+            text.appendCodePoint(codePoints[i]);
+        }
+
+        // a supplementary code point is mapped to its glyph and an invisible glyph, so glyphs match chars
+        var glyphVector = font.createGlyphVector(fontRenderContext, text.toString());
+        var result = new GlyphMetrics[count];
+        var origin = new Point2D.Float();
+
+        for (int i = 0, glyph = 0; i < count; i++) {
+
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+
+            var codePoint = codePoints[i];
+            var glyphCode = glyphVector.getGlyphCode(glyph);
+
+            if (isChangedByLayout(codePoint)) {
+                result[i] = measure(font, codePoint, glyphCode, fontRenderContext);
+            } else {
+                // pixel bounds of a glyph depend on its fractional position, so it's measured at the origin
+                glyphVector.setGlyphPosition(glyph, origin);
+                result[i] = new GlyphMetrics(true, glyphVector.getGlyphPixelBounds(glyph, fontRenderContext, 0, 0),
+                        glyphVector.getGlyphMetrics(glyph).getAdvance(), glyphCode);
+            }
+
+            glyph += Character.charCount(codePoint);
+        }
+
+        return result;
+    }
+
+    /**
+     * Measure a glyph which the font can display by a text layout of its code point.
+     *
+     * @param font              the font.
+     * @param codePoint         the code point of the glyph.
+     * @param glyphCode         the glyph code of the code point in the font.
+     * @param fontRenderContext the font render context.
+     * @return the metrics of the glyph.
+     */
+    private static @NotNull GlyphMetrics measure(
+            @NotNull Font font,
+            int codePoint,
+            int glyphCode,
+            @NotNull FontRenderContext fontRenderContext
+    ) {
+
+        var textLayout = new TextLayout(toText(codePoint), font, fontRenderContext);
+        var pixelBounds = textLayout.getPixelBounds(fontRenderContext, 0, 0);
+
+        return new GlyphMetrics(true, pixelBounds, textLayout.getAdvance(), glyphCode);
+    }
+
+    /**
+     * Check that a text layout can change the glyph of the code point comparing with its glyph in a glyph vector.
+     * A text layout zeroes advances of glyphs which are marks in the font and hides format characters.
+     *
+     * @param codePoint the code point.
+     * @return true if a text layout can change the glyph.
+     */
+    private static boolean isChangedByLayout(int codePoint) {
+
+        switch (Character.getType(codePoint)) {
+            case Character.NON_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.COMBINING_SPACING_MARK:
+            case Character.FORMAT:
+            case Character.PRIVATE_USE:
+                return true;
+            default:
+                break;
+        }
+
+        var chars = Character.toChars(codePoint);
+
+        return !SIMPLE_SCRIPTS.contains(Character.UnicodeScript.of(codePoint)) ||
+                Font.textRequiresLayout(chars, 0, chars.length);
+    }
+
+    /**
+     * The pixel bounds of the glyph relative to its origin.
+     */
+    @NotNull
+    private final Rectangle pixelBounds;
+
+    /**
+     * The rasterized glyph or null if it wasn't rasterized yet.
+     */
+    @Nullable
+    private volatile BufferedImage raster;
+
+    /**
+     * The advance of the glyph.
+     */
+    private final float advance;
+
+    /**
+     * The glyph code in the font.
+     */
+    private final int glyphCode;
+
+    /**
+     * True if the glyph can be displayed by its font.
+     */
+    private final boolean displayable;
+
+    public GlyphMetrics(boolean displayable, @NotNull Rectangle pixelBounds, float advance, int glyphCode) {
+        this.displayable = displayable;
+        this.pixelBounds = pixelBounds;
+        this.advance = advance;
+        this.glyphCode = glyphCode;
+    }
+
+    /**
+     * Return true if the glyph can be displayed by its font.
+     *
+     * @return true if the glyph can be displayed by its font.
+     */
+    public boolean isDisplayable() {
+        return displayable;
+    }
+
+    /**
+     * Get the X of the pixel bounds relative to the glyph origin.
+     *
+     * @return the X of the pixel bounds.
+     */
+    public int getBoundsX() {
+        return pixelBounds.x;
+    }
+
+    /**
+     * Get the Y of the pixel bounds relative to the glyph origin.
+     *
+     * @return the Y of the pixel bounds.
+     */
+    public int getBoundsY() {
+        return pixelBounds.y;
+    }
+
+    /**
+     * Get the width of the pixel bounds.
+     *
+     * @return the width of the pixel bounds.
+     */
+    public int getBoundsWidth() {
+        return pixelBounds.width;
+    }
+
+    /**
+     * Get the height of the pixel bounds.
+     *
+     * @return the height of the pixel bounds.
+     */
+    public int getBoundsHeight() {
+        return pixelBounds.height;
+    }
+
+    /**
+     * Get the advance of the glyph.
+     *
+     * @return the advance of the glyph.
+     */
+    public float getAdvance() {
+        return advance;
+    }
+
+    /**
+     * Get the glyph code in the font to draw the glyph from a glyph vector.
+     *
+     * @return the glyph code.
+     */
+    public int getGlyphCode() {
+        return glyphCode;
+    }
+
+    /**
+     * Get the rasterized glyph.
+     *
+     * @return the rasterized glyph or null if it wasn't rasterized yet.
+     */
+    public @Nullable BufferedImage getRaster() {
+        return raster;
+    }
+
+    /**
+     * Set the rasterized glyph.
+     *
+     * @param raster the rasterized glyph.
+     */
+    void setRaster(@NotNull BufferedImage raster) {
+        this.raster = raster;
+    }
+}
@@ -0,0 +1,1223 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The rasterizer to draw laid out glyphs to a bitmap atlas.
+ * <p>
+ * In the parallel mode the atlas is split to horizontal strips which are drawn concurrently, each strip by
+ * its own {@link Graphics2D} which is clipped by the strip. Every strip draws all glyphs which touch it in
+ * the same order as the serial mode does, so the result is identical to the serial mode. Pages of a multi-page
+ * atlas are drawn concurrently as well. Distance field atlases are drawn by {@link DistanceFieldRasterizer}.
+ * Single-channel and channel-packed atlases are composed from single-channel images of glyph sets.
+ * <p>
+ * Previews can draw a scaled region of a page, only glyphs which touch the region are drawn in the resolution
+ * of the result, so the cost depends on the size of the result rather than the size of the atlas.
+ * Huge pages can be drawn by strips of rows which are consumed one by one from the top, so the memory of images
+ * is bounded by the size of a strip.
+ *
+ * @author JavaSaBr, normenhansen
+ */
+public class GlyphRasterizer {
+
+    /**
+     * The consumer of drawn atlas pages.
+     */
+    @FunctionalInterface
+    public interface PageConsumer {
+
+        /**
+         * Consume the drawn atlas page.
+         *
+         * @param page  the page.
+         * @param image the image of the page.
+         * @throws IOException if the page can't be consumed.
+         */
+        void accept(int page, @NotNull BufferedImage image) throws IOException;
+    }
+
+    /**
+     * The consumer of drawn strips of atlas pages.
+     */
+    @FunctionalInterface
+    public interface StripConsumer {
+
+        /**
+         * Consume the drawn strip of the atlas page, strips of a page are consumed in order from the top.
+         *
+         * @param page  the page.
+         * @param y     the Y of the strip in the page.
+         * @param image the image of the strip in the atlas format.
+         * @throws IOException if the strip can't be consumed.
+         */
+        void accept(int page, int y, @NotNull BufferedImage image) throws IOException;
+    }
+
+    private static final Color OPAQUE_WHITE = new Color(0xFFFFFFFF, true);
+    private static final Color TRANSPARENT_BLACK = new Color(0x00000000, true);
+
+    /**
+     * The min height of a strip in the parallel mode.
+     */
+    private static final int MIN_STRIP_HEIGHT = 32;
+
+    /**
+     * The count of strips per a thread in the parallel mode to balance uneven strips.
+     */
+    private static final int STRIPS_PER_THREAD = 4;
+
+    /**
+     * Prepare graphics of the image to draw glyphs of the font.
+     *
+     * @param image the image.
+     * @param font  the font.
+     * @return the prepared graphics.
+     */
+    static @NotNull Graphics2D prepareGraphics(@NotNull BufferedImage image, @NotNull Font font) {
+
+        var graphics = (Graphics2D) image.getGraphics();
+        graphics.setFont(font);
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setColor(OPAQUE_WHITE);
+        graphics.setBackground(TRANSPARENT_BLACK);
+
+        return graphics;
+    }
+
+    /**
+     * The cache of glyph metrics and rasterized glyphs or null.
+     */
+    @Nullable
+    private final GlyphCache cache;
+
+    /**
+     * The pool to draw strips in the parallel mode.
+     */
+    @Nullable
+    private final ForkJoinPool pool;
+
+    /**
+     * The count of threads to draw glyphs.
+     */
+    private final int parallelism;
+
+    /**
+     * Create a serial rasterizer.
+     */
+    public GlyphRasterizer() {
+        this(1);
+    }
+
+    /**
+     * Create a rasterizer.
+     *
+     * @param parallelism the count of threads to draw glyphs, 1 means the serial mode.
+     */
+    public GlyphRasterizer(int parallelism) {
+        this(parallelism, null);
+    }
+
+    /**
+     * Create a rasterizer. If the cache keeps rasterized glyphs, they are drawn by copying from the cache,
+     * that is fast, but its anti-aliasing may be slightly different from drawing glyphs directly, so it's
+     * intended for previews.
+     *
+     * @param parallelism the count of threads to draw glyphs, 1 means the serial mode.
+     * @param cache       the cache of glyph metrics and rasterized glyphs or null.
+     */
+    public GlyphRasterizer(int parallelism, @Nullable GlyphCache cache) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism should be at least 1, but was " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+        this.cache = cache != null && cache.isCacheRasters() ? cache : null;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /**
+     * Get the count of threads to draw glyphs.
+     *
+     * @return the count of threads to draw glyphs.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Get the pool to draw glyphs in the parallel mode.
+     *
+     * @return the pool or null in the serial mode.
+     */
+    @Nullable ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Draw the first page of the glyph layout to a new image. The serial mode is cancelled by interrupting
+     * the current thread.
+     *
+     * @param layout the glyph layout.
+     * @param debug  true if need to draw bounds of glyph cells.
+     * @return the image.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public @NotNull BufferedImage render(@NotNull GlyphLayout layout, boolean debug) {
+        return render(layout, 0, debug);
+    }
+
+    /**
+     * Draw the page of the glyph layout to a new image. The serial mode is cancelled by interrupting the current
+     * thread.
+     *
+     * @param layout the glyph layout.
+     * @param page   the page.
+     * @param debug  true if need to draw bounds of glyph cells.
+     * @return the image.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public @NotNull BufferedImage render(@NotNull GlyphLayout layout, int page, boolean debug) {
+        return renderPage(layout, page, Viewport.of(layout), debug, false);
+    }
+
+    /**
+     * Draw the region of the page of the glyph layout scaled by the scale to a new image of the atlas format.
+     * Glyphs are drawn by their outlines in the scaled resolution, so the result is close to the scaled page,
+     * but it isn't identical to it. Distance fields are computed in the atlas resolution for the glyphs which touch
+     * the region and the region is resampled. The serial mode is cancelled by interrupting the current thread.
+     *
+     * @param layout the glyph layout.
+     * @param page   the page.
+     * @param region the region of the page.
+     * @param scale  the scale of the region.
+     * @param debug  true if need to draw bounds of glyph cells.
+     * @return the image.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public @NotNull BufferedImage render(
+            @NotNull GlyphLayout layout,
+            int page,
+            @NotNull Rectangle region,
+            double scale,
+            boolean debug
+    ) {
+
+        if (region.isEmpty() || scale <= 0) {
+            throw new IllegalArgumentException("The region " + region + " with the scale " + scale + " is empty.");
+        }
+
+        return renderPage(layout, page, new Viewport(region, scale), debug, false);
+    }
+
+    /**
+     * Draw all pages of the glyph layout and pass them to the consumer. In the parallel mode pages are drawn and
+     * consumed concurrently, so the consumer should be thread-safe.
+     *
+     * @param layout   the glyph layout.
+     * @param debug    true if need to draw bounds of glyph cells.
+     * @param consumer the consumer of drawn pages.
+     * @throws IOException           if a page can't be consumed.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public void renderPages(@NotNull GlyphLayout layout, boolean debug, @NotNull PageConsumer consumer)
+            throws IOException {
+        renderPages(layout, debug, consumer, null);
+    }
+
+    /**
+     * Draw all pages of the glyph layout, pass them to the consumer and record durations of drawing and memory
+     * of images. In the parallel mode pages are drawn and consumed concurrently, so the consumer should be
+     * thread-safe.
+     *
+     * @param layout   the glyph layout.
+     * @param debug    true if need to draw bounds of glyph cells.
+     * @param consumer the consumer of drawn pages.
+     * @param recorder the recorder of metrics or null.
+     * @throws IOException           if a page can't be consumed.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public void renderPages(
+            @NotNull GlyphLayout layout,
+            boolean debug,
+            @NotNull PageConsumer consumer,
+            @Nullable MetricsRecorder recorder
+    ) throws IOException {
+        renderPages(layout, debug, layout.getImageHeight(), (page, y, image) -> consumer.accept(page, image),
+                recorder);
+    }
+
+    /**
+     * Draw all pages of the glyph layout by strips of rows, pass the strips to the consumer and record durations
+     * of drawing and memory of images. A page which isn't higher than a strip is drawn as one strip, otherwise
+     * the strips of a page are drawn one by one in the current thread. In the parallel mode pages are drawn and
+     * consumed concurrently, so the consumer should be thread-safe.
+     *
+     * @param layout      the glyph layout.
+     * @param debug       true if need to draw bounds of glyph cells.
+     * @param stripHeight the max height of a strip.
+     * @param consumer    the consumer of drawn strips.
+     * @param recorder    the recorder of metrics or null.
+     * @throws IOException           if a strip can't be consumed.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public void renderPages(
+            @NotNull GlyphLayout layout,
+            boolean debug,
+            int stripHeight,
+            @NotNull StripConsumer consumer,
+            @Nullable MetricsRecorder recorder
+    ) throws IOException {
+
+        if (stripHeight < 1) {
+            throw new IllegalArgumentException("The strip height " + stripHeight + " is less than 1.");
+        }
+
+        var pageCount = layout.getPageCount();
+
+        if (pool == null || pageCount < 2) {
+
+            for (int page = 0; page < pageCount; page++) {
+                renderPage(layout, page, debug, false, stripHeight, consumer, recorder);
+            }
+
+            return;
+        }
+
+        try {
+            pool.invoke(new PageTask(this, layout, 0, pageCount, debug, stripHeight, consumer, recorder));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Draw the page of the glyph layout by strips and pass them to the consumer.
+     *
+     * @param layout      the glyph layout.
+     * @param page        the page.
+     * @param debug       true if need to draw bounds of glyph cells.
+     * @param forked      true if it's called from a task of the pool.
+     * @param stripHeight the max height of a strip.
+     * @param consumer    the consumer of drawn strips.
+     * @param recorder    the recorder of metrics or null.
+     * @throws IOException if a strip can't be consumed.
+     */
+    private void renderPage(
+            @NotNull GlyphLayout layout,
+            int page,
+            boolean debug,
+            boolean forked,
+            int stripHeight,
+            @NotNull StripConsumer consumer,
+            @Nullable MetricsRecorder recorder
+    ) throws IOException {
+
+        var imageWidth = layout.getImageWidth();
+        var imageHeight = layout.getImageHeight();
+
+        if (stripHeight >= imageHeight) {
+            renderPageStrip(layout, page, Viewport.of(layout), debug, forked, consumer, recorder);
+            return;
+        }
+
+        for (int y = 0; y < imageHeight; y += stripHeight) {
+            var region = new Rectangle(0, y, imageWidth, Math.min(stripHeight, imageHeight - y));
+            renderPageStrip(layout, page, new Viewport(region, 1), debug, forked, consumer, recorder);
+        }
+    }
+
+    /**
+     * Draw the strip of the page of the glyph layout and pass it to the consumer.
+     *
+     * @param layout   the glyph layout.
+     * @param page     the page.
+     * @param viewport the viewport of the strip.
+     * @param debug    true if need to draw bounds of glyph cells.
+     * @param forked   true if it's called from a task of the pool.
+     * @param consumer the consumer of drawn strips.
+     * @param recorder the recorder of metrics or null.
+     * @throws IOException if the strip can't be consumed.
+     */
+    private void renderPageStrip(
+            @NotNull GlyphLayout layout,
+            int page,
+            @NotNull Viewport viewport,
+            boolean debug,
+            boolean forked,
+            @NotNull StripConsumer consumer,
+            @Nullable MetricsRecorder recorder
+    ) throws IOException {
+
+        var y = viewport.region.y;
+
+        if (recorder == null) {
+            consumer.accept(page, y, renderPage(layout, page, viewport, debug, forked));
+            return;
+        }
+
+        var pixels = (long) viewport.width * viewport.height;
+        var stripMemory = getPageMemory(layout, pixels);
+        var imageMemory = layout.getFormat() == AtlasFormat.ALPHA ? pixels : pixels * 4;
+
+        recorder.allocateImageMemory(stripMemory);
+
+        var startTime = System.nanoTime();
+        var image = renderPage(layout, page, viewport, debug, forked);
+
+        recorder.addDuration(GenerationPhase.RASTERIZE, System.nanoTime() - startTime);
+
+        // only the strip image is alive while the strip is consumed
+        recorder.releaseImageMemory(stripMemory - imageMemory);
+
+        try {
+            consumer.accept(page, y, image);
+        } finally {
+            recorder.releaseImageMemory(imageMemory);
+        }
+    }
+
+    /**
+     * Get the peak memory of images which are alive at the same time while a page or a strip is drawn.
+     *
+     * @param layout the glyph layout.
+     * @param pixels the count of pixels of a page or a strip.
+     * @return the memory in bytes.
+     */
+    private static long getPageMemory(@NotNull GlyphLayout layout, long pixels) {
+
+        var format = layout.getFormat();
+        var distanceField = layout.isDistanceField();
+
+        if (format == AtlasFormat.RGBA && !distanceField) {
+            return pixels * 4;
+        } else if (format == AtlasFormat.ALPHA) {
+            // a coverage page is drawn to a 4-channel image before taking its alpha channel
+            return distanceField ? pixels : pixels * 5;
+        }
+
+        // the 4-channel page is composed from single-channel images
+        return distanceField ? pixels * 5 : pixels * 9;
+    }
+
+    /**
+     * Draw the viewport of the page of the glyph layout to a new image of the atlas format.
+     *
+     * @param layout   the glyph layout.
+     * @param page     the page.
+     * @param viewport the viewport of the page.
+     * @param debug    true if need to draw bounds of glyph cells.
+     * @param forked   true if it's called from a task of the pool.
+     * @return the image.
+     */
+    private @NotNull BufferedImage renderPage(
+            @NotNull GlyphLayout layout,
+            int page,
+            @NotNull Viewport viewport,
+            boolean debug,
+            boolean forked
+    ) {
+
+        var format = layout.getFormat();
+
+        if (format == AtlasFormat.RGBA && !layout.isDistanceField()) {
+            return renderCoverage(layout, page, 0, viewport, debug, forked);
+        } else if (format == AtlasFormat.ALPHA) {
+            return renderChannel(layout, page, 0, viewport, debug, forked);
+        }
+
+        var fontImage = new BufferedImage(viewport.width, viewport.height, BufferedImage.TYPE_4BYTE_ABGR);
+        var pixels = getPixels(fontImage);
+
+        if (format == AtlasFormat.RGBA) {
+
+            // a distance field is put to the alpha channel of white pixels
+            Arrays.fill(pixels, (byte) 0xFF);
+            copyChannel(getPixels(renderChannel(layout, page, 0, viewport, debug, forked)), pixels, 0);
+
+            return fontImage;
+        }
+
+        for (int set = 0, sets = format.getGlyphSets(); set < sets; set++) {
+            var channel = format.getChannel(set);
+            var channelImage = renderChannel(layout, page, channel, viewport, debug, forked);
+            copyChannel(getPixels(channelImage), pixels, getChannelOffset(channel));
+        }
+
+        return fontImage;
+    }
+
+    /**
+     * Draw the glyphs of the channel of the viewport of the page to a new single-channel image.
+     *
+     * @param layout   the glyph layout.
+     * @param page     the page.
+     * @param channel  the channel.
+     * @param viewport the viewport of the page.
+     * @param debug    true if need to draw bounds of glyph cells.
+     * @param forked   true if it's called from a task of the pool.
+     * @return the single-channel image.
+     */
+    private @NotNull BufferedImage renderChannel(
+            @NotNull GlyphLayout layout,
+            int page,
+            int channel,
+            @NotNull Viewport viewport,
+            boolean debug,
+            boolean forked
+    ) {
+
+        if (layout.isDistanceField()) {
+            return renderDistanceField(layout, page, channel, viewport, debug, forked);
+        }
+
+        var coverage = renderCoverage(layout, page, channel, viewport, debug, forked);
+        var result = new BufferedImage(coverage.getWidth(), coverage.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+
+        // the coverage is in the alpha channel
+        var source = getPixels(coverage);
+        var target = getPixels(result);
+
+        for (int i = 0; i < target.length; i++) {
+            target[i] = source[i * 4];
+        }
+
+        return result;
+    }
+
+    /**
+     * Draw the glyphs of the channel of the viewport of the page to a new image with white glyphs in the alpha
+     * channel.
+     *
+     * @param layout   the glyph layout.
+     * @param page     the page.
+     * @param channel  the channel.
+     * @param viewport the viewport of the page.
+     * @param debug    true if need to draw bounds of glyph cells.
+     * @param forked   true if it's called from a task of the pool.
+     * @return the image.
+     */
+    private @NotNull BufferedImage renderCoverage(
+            @NotNull GlyphLayout layout,
+            int page,
+            int channel,
+            @NotNull Viewport viewport,
+            boolean debug,
+            boolean forked
+    ) {
+
+        if (!viewport.isWhole(layout)) {
+            return renderScaledCoverage(layout, page, channel, viewport, debug);
+        }
+
+        var imageHeight = layout.getImageHeight();
+        var fontImage = new BufferedImage(layout.getImageWidth(), imageHeight, BufferedImage.TYPE_4BYTE_ABGR);
+
+        var strips = Math.min(parallelism * STRIPS_PER_THREAD, imageHeight / MIN_STRIP_HEIGHT);
+
+        if (pool == null || strips < 2 || layout.getCount() < 2) {
+            renderStrip(fontImage, layout, page, channel, 0, imageHeight, debug, cache);
+            return fontImage;
+        }
+
+        var stripHeight = (imageHeight + strips - 1) / strips;
+        var task = new StripTask(fontImage, layout, page, channel, 0, strips, stripHeight, debug, cache);
+
+        if (forked) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+
+        return fontImage;
+    }
+
+    /**
+     * Draw the glyphs of the channel of the viewport of the page to a new single-channel distance field image.
+     *
+     * @param layout   the glyph layout.
+     * @param page     the page.
+     * @param channel  the channel.
+     * @param viewport the viewport of the page.
+     * @param debug    true if need to draw bounds of glyph cells.
+     * @param forked   true if it's called from a task of the pool.
+     * @return the image.
+     */
+    private @NotNull BufferedImage renderDistanceField(
+            @NotNull GlyphLayout layout,
+            int page,
+            int channel,
+            @NotNull Viewport viewport,
+            boolean debug,
+            boolean forked
+    ) {
+
+        if (!viewport.isWhole(layout)) {
+            return renderScaledDistanceField(layout, page, channel, viewport, debug);
+        }
+
+        var fontImage = new BufferedImage(layout.getImageWidth(), layout.getImageHeight(),
+                BufferedImage.TYPE_BYTE_GRAY);
+
+        if (pool == null || layout.getCount() < 2) {
+            DistanceFieldRasterizer.render(fontImage, layout, page, channel, 0, layout.getCount());
+        } else if (forked) {
+            DistanceFieldRasterizer.newTask(fontImage, layout, page, channel).invoke();
+        } else {
+            pool.invoke(DistanceFieldRasterizer.newTask(fontImage, layout, page, channel));
+        }
+
+        if (debug) {
+
+            var graphics = fontImage.createGraphics();
+            graphics.setColor(Color.GRAY);
+
+            for (int i = 0, length = layout.getCount(); i < length; i++) {
+                if (layout.getPage(i) == page && layout.getChannel(i) == channel && !layout.isSharedCell(i)) {
+                    graphics.drawRect(layout.getX(i), layout.getY(i), layout.getWidth(i), layout.getHeight(i));
+                }
+            }
+
+            graphics.dispose();
+        }
+
+        return fontImage;
+    }
+
+    /**
+     * Draw the glyphs of the channel which touch the viewport of the page by their outlines in the scaled
+     * resolution to a new image with white glyphs in the alpha channel.
+     *
+     * @param layout   the glyph layout.
+     * @param page     the page.
+     * @param channel  the channel.
+     * @param viewport the viewport of the page.
+     * @param debug    true if need to draw bounds of glyph cells.
+     * @return the image.
+     */
+    private static @NotNull BufferedImage renderScaledCoverage(
+            @NotNull GlyphLayout layout,
+            int page,
+            int channel,
+            @NotNull Viewport viewport,
+            boolean debug
+    ) {
+
+        var fontImage = new BufferedImage(viewport.width, viewport.height, BufferedImage.TYPE_4BYTE_ABGR);
+        var indices = viewport.findGlyphs(layout, page, channel);
+        var count = indices.length;
+
+        if (count > 0) {
+
+            var graphics = prepareGraphics(fontImage, layout.getFont());
+            graphics.scale(viewport.scale, viewport.scale);
+            graphics.translate(-viewport.region.x, -viewport.region.y);
+
+            drawGlyphs(graphics, layout, indices, count);
+
+            graphics.dispose();
+        }
+
+        if (debug) {
+            drawCells(fontImage, layout, indices, viewport, Color.BLUE);
+        }
+
+        return fontImage;
+    }
+
+    /**
+     * Draw the distance field of the glyphs of the channel which touch the viewport of the page to a new
+     * single-channel image. Distance fields are computed in the atlas resolution, so the region is resampled
+     * to the scaled resolution.
+     *
+     * @param layout   the glyph layout.
+     * @param page     the page.
+     * @param channel  the channel.
+     * @param viewport the viewport of the page.
+     * @param debug    true if need to draw bounds of glyph cells.
+     * @return the image.
+     */
+    private static @NotNull BufferedImage renderScaledDistanceField(
+            @NotNull GlyphLayout layout,
+            int page,
+            int channel,
+            @NotNull Viewport viewport,
+            boolean debug
+    ) {
+
+        var region = viewport.region;
+        var indices = viewport.findGlyphs(layout, page, channel);
+        var regionImage = new BufferedImage(region.width, region.height, BufferedImage.TYPE_BYTE_GRAY);
+
+        DistanceFieldRasterizer.render(regionImage, region.x, region.y, layout, indices);
+
+        var fontImage = regionImage;
+
+        if (viewport.width != region.width || viewport.height != region.height) {
+
+            var interpolation = viewport.scale < 1 ? RenderingHints.VALUE_INTERPOLATION_BILINEAR :
+                    RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+
+            fontImage = new BufferedImage(viewport.width, viewport.height, BufferedImage.TYPE_BYTE_GRAY);
+
+            var graphics = fontImage.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            graphics.drawImage(regionImage, 0, 0, viewport.width, viewport.height, null);
+            graphics.dispose();
+        }
+
+        if (debug) {
+            drawCells(fontImage, layout, indices, viewport, Color.GRAY);
+        }
+
+        return fontImage;
+    }
+
+    /**
+     * Draw bounds of the glyph cells in the viewport by lines of one pixel.
+     *
+     * @param image    the image of the viewport.
+     * @param layout   the glyph layout.
+     * @param indices  the glyph indices.
+     * @param viewport the viewport.
+     * @param color    the color of lines.
+     */
+    private static void drawCells(
+            @NotNull BufferedImage image,
+            @NotNull GlyphLayout layout,
+            @NotNull int[] indices,
+            @NotNull Viewport viewport,
+            @NotNull Color color
+    ) {
+
+        var region = viewport.region;
+        var scale = viewport.scale;
+
+        var graphics = image.createGraphics();
+        graphics.setColor(color);
+
+        for (var index : indices) {
+
+            var minX = (int) Math.floor((layout.getX(index) - region.x) * scale);
+            var minY = (int) Math.floor((layout.getY(index) - region.y) * scale);
+            var maxX = (int) Math.floor((layout.getX(index) + layout.getWidth(index) - region.x) * scale);
+            var maxY = (int) Math.floor((layout.getY(index) + layout.getHeight(index) - region.y) * scale);
+
+            graphics.drawRect(minX, minY, maxX - minX, maxY - minY);
+        }
+
+        graphics.dispose();
+    }
+
+    /**
+     * Get the pixels of the byte image.
+     *
+     * @param image the byte image.
+     * @return the pixels.
+     */
+    private static @NotNull byte[] getPixels(@NotNull BufferedImage image) {
+        return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Get the offset of the BMFont channel in a pixel of a {@link BufferedImage#TYPE_4BYTE_ABGR} image.
+     *
+     * @param channel the BMFont channel.
+     * @return the offset of the channel.
+     */
+    private static int getChannelOffset(int channel) {
+        switch (channel) {
+            case 1:
+                return 1;
+            case 2:
+                return 2;
+            case 4:
+                return 3;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Copy single-channel pixels to the channel of 4-channel pixels.
+     *
+     * @param source the single-channel pixels.
+     * @param target the 4-channel pixels.
+     * @param offset the offset of the channel in a 4-channel pixel.
+     */
+    private static void copyChannel(@NotNull byte[] source, @NotNull byte[] target, int offset) {
+        for (int i = 0; i < source.length; i++) {
+            target[i * 4 + offset] = source[i];
+        }
+    }
+
+    /**
+     * Draw all glyphs which touch the strip of the image.
+     *
+     * @param fontImage the font image.
+     * @param layout    the glyph layout.
+     * @param page      the page.
+     * @param channel   the channel.
+     * @param minY      the min Y of the strip.
+     * @param maxY      the max Y (exclusive) of the strip.
+     * @param debug     true if need to draw bounds of glyph cells.
+     * @param cache     the cache of rasterized glyphs or null.
+     */
+    private static void renderStrip(
+            @NotNull BufferedImage fontImage,
+            @NotNull GlyphLayout layout,
+            int page,
+            int channel,
+            int minY,
+            int maxY,
+            boolean debug,
+            @Nullable GlyphCache cache
+    ) {
+
+        var whole = minY == 0 && maxY == fontImage.getHeight();
+        var strip = whole ? fontImage : fontImage.getSubimage(0, minY, fontImage.getWidth(), maxY - minY);
+
+        var graphics = prepareGraphics(strip, layout.getFont());
+        graphics.translate(0, -minY);
+
+        var length = layout.getCount();
+        var indices = new int[length];
+        var count = 0;
+
+        // a shared cell is drawn by its owner only, anti-aliased edges would be darker if it's drawn twice
+        for (int i = 0; i < length; i++) {
+
+            if (layout.getPage(i) != page || layout.getChannel(i) != channel || layout.isSharedCell(i)) {
+                continue;
+            } else if (!whole && !isTouched(layout, i, minY, maxY, debug)) {
+                continue;
+            } else if (Thread.currentThread().isInterrupted()) {
+                graphics.dispose();
+                throw new CancellationException();
+            }
+
+            indices[count++] = i;
+        }
+
+        if (cache != null) {
+            for (int i = 0; i < count; i++) {
+                drawCached(graphics, layout, indices[i], cache);
+            }
+        } else if (count > 0) {
+            drawGlyphs(graphics, layout, indices, count);
+        }
+
+        if (debug) {
+
+            graphics.setColor(Color.BLUE);
+
+            for (int i = 0; i < count; i++) {
+                var index = indices[i];
+                graphics.drawRect(layout.getX(index), layout.getY(index), layout.getWidth(index),
+                        layout.getHeight(index));
+            }
+        }
+
+        graphics.dispose();
+    }
+
+    /**
+     * Draw the glyphs at their origins by one glyph vector.
+     *
+     * @param graphics the graphics.
+     * @param layout   the glyph layout.
+     * @param indices  the glyph indices.
+     * @param count    the count of the glyph indices.
+     */
+    private static void drawGlyphs(
+            @NotNull Graphics2D graphics,
+            @NotNull GlyphLayout layout,
+            @NotNull int[] indices,
+            int count
+    ) {
+
+        var glyphCodes = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            glyphCodes[i] = layout.getGlyphCode(indices[i]);
+        }
+
+        var glyphVector = layout.getFont().createGlyphVector(graphics.getFontRenderContext(), glyphCodes);
+        var position = new Point2D.Float();
+
+        for (int i = 0; i < count; i++) {
+            var index = indices[i];
+            position.setLocation(layout.getOriginX(index), layout.getOriginY(index));
+            glyphVector.setGlyphPosition(i, position);
+        }
+
+        graphics.drawGlyphVector(glyphVector, 0, 0);
+    }
+
+    /**
+     * Draw the glyph by copying its rasterized image from the cache.
+     *
+     * @param graphics the graphics.
+     * @param layout   the glyph layout.
+     * @param index    the glyph index.
+     * @param cache    the cache of rasterized glyphs.
+     */
+    private static void drawCached(
+            @NotNull Graphics2D graphics,
+            @NotNull GlyphLayout layout,
+            int index,
+            @NotNull GlyphCache cache
+    ) {
+
+        var font = layout.getFont();
+        var codePoint = layout.getId(index);
+        var metrics = cache.get(font, codePoint);
+
+        if (metrics == null) {
+            metrics = GlyphMetrics.measure(font, codePoint, graphics.getFontRenderContext());
+            cache.put(font, codePoint, metrics);
+        }
+
+        var width = metrics.getBoundsWidth();
+        var height = metrics.getBoundsHeight();
+
+        if (width < 1 || height < 1) {
+            return;
+        }
+
+        var raster = metrics.getRaster();
+
+        if (raster == null) {
+
+            // one extra pixel around pixel bounds covers anti-aliasing
+            raster = new BufferedImage(width + 2, height + 2, BufferedImage.TYPE_4BYTE_ABGR);
+
+            var rasterGraphics = prepareGraphics(raster, font);
+            rasterGraphics.drawString(GlyphMetrics.toText(codePoint),
+                    1 - metrics.getBoundsX(), 1 - metrics.getBoundsY());
+            rasterGraphics.dispose();
+
+            cache.putRaster(font, codePoint, metrics, raster);
+        }
+
+        graphics.drawImage(raster, layout.getOriginX(index) + metrics.getBoundsX() - 1,
+                layout.getOriginY(index) + metrics.getBoundsY() - 1, null);
+    }
+
+    /**
+     * Check of drawing the glyph touches the strip.
+     *
+     * @param layout the glyph layout.
+     * @param index  the glyph index.
+     * @param minY   the min Y of the strip.
+     * @param maxY   the max Y (exclusive) of the strip.
+     * @param debug  true if bounds of glyph cells are drawn.
+     * @return true if drawing the glyph touches the strip.
+     */
+    private static boolean isTouched(@NotNull GlyphLayout layout, int index, int minY, int maxY, boolean debug) {
+
+        // one extra pixel around pixel bounds covers anti-aliasing
+        var top = layout.getOriginY(index) + layout.getInkY(index) - 1;
+        var bottom = top + layout.getInkHeight(index) + 2;
+
+        if (debug) {
+            top = Math.min(top, layout.getY(index));
+            bottom = Math.max(bottom, layout.getY(index) + layout.getHeight(index) + 1);
+        }
+
+        return top < maxY && bottom > minY;
+    }
+
+    /**
+     * The task to draw a range of strips.
+     */
+    private static class StripTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The font image.
+         */
+        @NotNull
+        private final BufferedImage fontImage;
+
+        /**
+         * The glyph layout.
+         */
+        @NotNull
+        private final GlyphLayout layout;
+
+        /**
+         * The page.
+         */
+        private final int page;
+
+        /**
+         * The channel.
+         */
+        private final int channel;
+
+        /**
+         * The first strip.
+         */
+        private final int firstStrip;
+
+        /**
+         * The last strip (exclusive).
+         */
+        private final int lastStrip;
+
+        /**
+         * The height of a strip.
+         */
+        private final int stripHeight;
+
+        /**
+         * The cache of rasterized glyphs or null.
+         */
+        @Nullable
+        private final GlyphCache cache;
+
+        /**
+         * True if need to draw bounds of glyph cells.
+         */
+        private final boolean debug;
+
+        private StripTask(
+                @NotNull BufferedImage fontImage,
+                @NotNull GlyphLayout layout,
+                int page,
+                int channel,
+                int firstStrip,
+                int lastStrip,
+                int stripHeight,
+                boolean debug,
+                @Nullable GlyphCache cache
+        ) {
+            this.fontImage = fontImage;
+            this.layout = layout;
+            this.page = page;
+            this.channel = channel;
+            this.firstStrip = firstStrip;
+            this.lastStrip = lastStrip;
+            this.stripHeight = stripHeight;
+            this.debug = debug;
+            this.cache = cache;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (lastStrip - firstStrip > 1) {
+                var middle = (firstStrip + lastStrip) >>> 1;
+                invokeAll(new StripTask(fontImage, layout, page, channel, firstStrip, middle, stripHeight, debug,
+                                cache),
+                        new StripTask(fontImage, layout, page, channel, middle, lastStrip, stripHeight, debug,
+                                cache));
+                return;
+            }
+
+            var minY = firstStrip * stripHeight;
+            var maxY = Math.min(minY + stripHeight, fontImage.getHeight());
+
+            if (minY < maxY) {
+                renderStrip(fontImage, layout, page, channel, minY, maxY, debug, cache);
+            }
+        }
+    }
+
+    /**
+     * The task to draw and consume a range of pages.
+     */
+    private static class PageTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The rasterizer.
+         */
+        @NotNull
+        private final GlyphRasterizer rasterizer;
+
+        /**
+         * The glyph layout.
+         */
+        @NotNull
+        private final GlyphLayout layout;
+
+        /**
+         * The consumer of drawn strips.
+         */
+        @NotNull
+        private final StripConsumer consumer;
+
+        /**
+         * The first page.
+         */
+        private final int firstPage;
+
+        /**
+         * The last page (exclusive).
+         */
+        private final int lastPage;
+
+        /**
+         * The recorder of metrics or null.
+         */
+        @Nullable
+        private final MetricsRecorder recorder;
+
+        /**
+         * The max height of a strip.
+         */
+        private final int stripHeight;
+
+        /**
+         * True if need to draw bounds of glyph cells.
+         */
+        private final boolean debug;
+
+        private PageTask(
+                @NotNull GlyphRasterizer rasterizer,
+                @NotNull GlyphLayout layout,
+                int firstPage,
+                int lastPage,
+                boolean debug,
+                int stripHeight,
+                @NotNull StripConsumer consumer,
+                @Nullable MetricsRecorder recorder
+        ) {
+            this.rasterizer = rasterizer;
+            this.layout = layout;
+            this.firstPage = firstPage;
+            this.lastPage = lastPage;
+            this.debug = debug;
+            this.stripHeight = stripHeight;
+            this.consumer = consumer;
+            this.recorder = recorder;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (lastPage - firstPage > 1) {
+                var middle = (firstPage + lastPage) >>> 1;
+                invokeAll(new PageTask(rasterizer, layout, firstPage, middle, debug, stripHeight, consumer, recorder),
+                        new PageTask(rasterizer, layout, middle, lastPage, debug, stripHeight, consumer, recorder));
+                return;
+            }
+
+            try {
+                rasterizer.renderPage(layout, firstPage, debug, true, stripHeight, consumer, recorder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * The scaled region of an atlas page to draw.
+     */
+    private static final class Viewport {
+
+        /**
+         * Create the viewport of a whole page of the glyph layout in the atlas resolution.
+         *
+         * @param layout the glyph layout.
+         * @return the viewport.
+         */
+        private static @NotNull Viewport of(@NotNull GlyphLayout layout) {
+            return new Viewport(new Rectangle(layout.getImageWidth(), layout.getImageHeight()), 1);
+        }
+
+        /**
+         * The region of the page.
+         */
+        @NotNull
+        private final Rectangle region;
+
+        /**
+         * The scale of the region.
+         */
+        private final double scale;
+
+        /**
+         * The width of the drawn image.
+         */
+        private final int width;
+
+        /**
+         * The height of the drawn image.
+         */
+        private final int height;
+
+        private Viewport(@NotNull Rectangle region, double scale) {
+            this.region = region;
+            this.scale = scale;
+            this.width = Math.max((int) Math.ceil(region.width * scale), 1);
+            this.height = Math.max((int) Math.ceil(region.height * scale), 1);
+        }
+
+        /**
+         * Check that the viewport is a whole page of the glyph layout in the atlas resolution.
+         *
+         * @param layout the glyph layout.
+         * @return true if the viewport is a whole page.
+         */
+        private boolean isWhole(@NotNull GlyphLayout layout) {
+            return scale == 1 && region.x == 0 && region.y == 0 &&
+                    region.width == layout.getImageWidth() && region.height == layout.getImageHeight();
+        }
+
+        /**
+         * Find the glyphs of the channel of the page which cells touch the region. The current thread is checked
+         * for interruption.
+         *
+         * @param layout  the glyph layout.
+         * @param page    the page.
+         * @param channel the channel.
+         * @return the glyph indices.
+         * @throws CancellationException if the current thread was interrupted.
+         */
+        private @NotNull int[] findGlyphs(@NotNull GlyphLayout layout, int page, int channel) {
+
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+
+            var length = layout.getCount();
+            var result = new int[length];
+            var count = 0;
+
+            for (int i = 0; i < length; i++) {
+
+                if (layout.getPage(i) != page || layout.getChannel(i) != channel || layout.isSharedCell(i)) {
+                    continue;
+                }
+
+                // one extra pixel around a cell covers anti-aliasing and its debug bounds
+                var x = layout.getX(i) - 1;
+                var y = layout.getY(i) - 1;
+
+                if (x < region.x + region.width && x + layout.getWidth(i) + 2 > region.x &&
+                        y < region.y + region.height && y + layout.getHeight(i) + 2 > region.y) {
+                    result[count++] = i;
+                }
+            }
+
+            return Arrays.copyOf(result, count);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The list of file formats of atlas pages.
+ *
+ * @author JavaSaBr
+ */
+public enum ImageFormat {
+
+    /**
+     * Lossless PNG images.
+     */
+    PNG("PNG", "png"),
+
+    /**
+     * Block-compressed DDS textures: BC4 for grayscale pages and DXT5 for RGBA pages, they are uploaded to the GPU
+     * as they are and take 2 to 4 times less video memory than uncompressed textures.
+     */
+    DDS("DDS", "dds");
+
+    private static final ImageFormat[] VALUES = values();
+
+    /**
+     * Find a format by its name or its title.
+     *
+     * @param name the name or the title of a format.
+     * @return the found format or null.
+     */
+    public static @Nullable ImageFormat find(@NotNull String name) {
+
+        for (var format : VALUES) {
+            if (format.name().equalsIgnoreCase(name) || format.title.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The title of this format.
+     */
+    @NotNull
+    private final String title;
+
+    /**
+     * The extension of files of this format.
+     */
+    @NotNull
+    private final String extension;
+
+    ImageFormat(@NotNull String title, @NotNull String extension) {
+        this.title = title;
+        this.extension = extension;
+    }
+
+    /**
+     * Get the title of this format.
+     *
+     * @return the title of this format.
+     */
+    public @NotNull String getTitle() {
+        return title;
+    }
+
+    /**
+     * Get the extension of files of this format.
+     *
+     * @return the extension without the dot.
+     */
+    public @NotNull String getExtension() {
+        return extension;
+    }
+}
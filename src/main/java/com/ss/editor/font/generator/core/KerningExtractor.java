@@ -0,0 +1,469 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The extractor of kerning pairs of a font through the AWT kerning ({@link TextAttribute#KERNING}).
+ * <p>
+ * Checking all pairs is quadratic, so candidate pairs are pruned: if a sample text is given, only pairs of adjacent
+ * characters of the text are checked, otherwise only pairs of the same Unicode script or pairs with common
+ * characters (digits, punctuation) are checked and combining marks are skipped. Pairs aren't laid out one by one,
+ * every first glyph is laid out once interleaved with all its second glyphs, so a row of pairs costs one layout.
+ * Rows are independent, so they are checked concurrently in the parallel mode.
+ *
+ * @author JavaSaBr
+ */
+public class KerningExtractor {
+
+    /**
+     * The max count of rows of pairs which are checked by one task in the parallel mode.
+     */
+    private static final int ROWS_PER_TASK = 8;
+
+    /**
+     * The pool to check rows of pairs in the parallel mode or null.
+     */
+    @Nullable
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a serial extractor.
+     */
+    public KerningExtractor() {
+        this(null);
+    }
+
+    /**
+     * Create an extractor.
+     *
+     * @param pool the pool to check rows of pairs in the parallel mode or null.
+     */
+    public KerningExtractor(@Nullable ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Extract kerning pairs of the glyphs. The serial mode is cancelled by interrupting the current thread.
+     *
+     * @param font              the font.
+     * @param fontRenderContext the render context to lay out glyphs.
+     * @param ids               the sorted ids (code points) of glyphs.
+     * @param count             the count of glyphs.
+     * @param sample            the sample text to take candidate pairs from or null to check pairs of scripts.
+     * @return the table of pairs with non-zero amounts.
+     * @throws CancellationException if the current thread was interrupted.
+     */
+    public @NotNull KerningTable extract(
+            @NotNull Font font,
+            @NotNull FontRenderContext fontRenderContext,
+            @NotNull int[] ids,
+            int count,
+            @Nullable CharSequence sample
+    ) {
+
+        if (count < 1) {
+            return KerningTable.EMPTY;
+        }
+
+        var kerningFont = font.deriveFont(Map.of(TextAttribute.KERNING, TextAttribute.KERNING_ON));
+        var advances = new float[count];
+        var scripts = new Character.UnicodeScript[count];
+
+        for (int i = 0; i < count; i++) {
+            var vector = kerningFont.createGlyphVector(fontRenderContext, GlyphMetrics.toText(ids[i]));
+            advances[i] = vector.getGlyphMetrics(0).getAdvanceX();
+            scripts[i] = Character.UnicodeScript.of(ids[i]);
+        }
+
+        var rows = new Rows(kerningFont, fontRenderContext, ids, count, advances, scripts,
+                sample == null ? null : findSamplePairs(ids, count, sample));
+
+        var task = new RowTask(rows, 0, count);
+
+        if (pool == null || count <= ROWS_PER_TASK) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+
+        return rows.toTable();
+    }
+
+    /**
+     * Find pairs of adjacent characters of the sample text which are both in the glyphs.
+     *
+     * @param ids    the sorted ids of glyphs.
+     * @param count  the count of glyphs.
+     * @param sample the sample text.
+     * @return the sorted indices of second glyphs for every first glyph.
+     */
+    private static @NotNull int[][] findSamplePairs(@NotNull int[] ids, int count, @NotNull CharSequence sample) {
+
+        var seconds = new int[count][];
+        var sizes = new int[count];
+        var previous = -1;
+
+        for (int i = 0, length = sample.length(); i < length; ) {
+
+            var codePoint = Character.codePointAt(sample, i);
+            var index = Arrays.binarySearch(ids, 0, count, codePoint);
+
+            if (previous >= 0 && index >= 0) {
+
+                if (seconds[previous] == null) {
+                    seconds[previous] = new int[4];
+                } else if (sizes[previous] == seconds[previous].length) {
+                    seconds[previous] = Arrays.copyOf(seconds[previous], sizes[previous] * 2);
+                }
+
+                seconds[previous][sizes[previous]++] = index;
+            }
+
+            previous = index;
+            i += Character.charCount(codePoint);
+        }
+
+        for (int i = 0; i < count; i++) {
+
+            if (seconds[i] == null) {
+                seconds[i] = new int[0];
+                continue;
+            }
+
+            var row = seconds[i];
+            Arrays.sort(row, 0, sizes[i]);
+
+            var unique = 0;
+
+            for (int j = 0; j < sizes[i]; j++) {
+                if (unique == 0 || row[unique - 1] != row[j]) {
+                    row[unique++] = row[j];
+                }
+            }
+
+            seconds[i] = Arrays.copyOf(row, unique);
+        }
+
+        return seconds;
+    }
+
+    /**
+     * The rows of pairs, every row is checked once and keeps its found pairs.
+     */
+    private static class Rows {
+
+        /**
+         * The font with enabled kerning.
+         */
+        @NotNull
+        private final Font kerningFont;
+
+        /**
+         * The render context to lay out glyphs.
+         */
+        @NotNull
+        private final FontRenderContext fontRenderContext;
+
+        /**
+         * The ids of glyphs.
+         */
+        @NotNull
+        private final int[] ids;
+
+        /**
+         * The advances of glyphs without kerning.
+         */
+        @NotNull
+        private final float[] advances;
+
+        /**
+         * The scripts of glyphs.
+         */
+        @NotNull
+        private final Character.UnicodeScript[] scripts;
+
+        /**
+         * The indices of second glyphs from the sample text for every first glyph or null.
+         */
+        @Nullable
+        private final int[][] samplePairs;
+
+        /**
+         * The found pairs of every row, a pair is the pair index in the matrix of glyphs which is shifted
+         * left by 16 bits plus the amount.
+         */
+        @NotNull
+        private final long[][] found;
+
+        /**
+         * The count of glyphs.
+         */
+        private final int count;
+
+        private Rows(
+                @NotNull Font kerningFont,
+                @NotNull FontRenderContext fontRenderContext,
+                @NotNull int[] ids,
+                int count,
+                @NotNull float[] advances,
+                @NotNull Character.UnicodeScript[] scripts,
+                @Nullable int[][] samplePairs
+        ) {
+            this.kerningFont = kerningFont;
+            this.fontRenderContext = fontRenderContext;
+            this.ids = ids;
+            this.count = count;
+            this.advances = advances;
+            this.scripts = scripts;
+            this.samplePairs = samplePairs;
+            this.found = new long[count][];
+        }
+
+        /**
+         * Check the row of pairs of the first glyph. Without the sample text the row has pairs with itself and
+         * the next glyphs in both orders, so every pair of glyphs is in one row.
+         *
+         * @param first the index of the first glyph.
+         */
+        private void check(int first) {
+
+            var seconds = samplePairs == null ? findSeconds(first) : samplePairs[first];
+            var reverse = samplePairs == null;
+            var secondCount = seconds.length;
+
+            if (secondCount == 0) {
+                found[first] = new long[0];
+                return;
+            }
+
+            // the first glyph is put between all second glyphs: first, second 1, first, second 2, ..., first
+            var glyphCount = secondCount * 2 + 1;
+            var chars = new char[glyphCount * 2];
+            var glyphs = new int[glyphCount];
+            var length = 0;
+
+            for (int i = 0; i < glyphCount; i++) {
+                glyphs[i] = i % 2 == 0 ? first : seconds[i / 2];
+                length += Character.toChars(ids[glyphs[i]], chars, length);
+            }
+
+            var vector = kerningFont.layoutGlyphVector(fontRenderContext, chars, 0, length,
+                    Font.LAYOUT_LEFT_TO_RIGHT);
+
+            var result = new long[reverse ? secondCount * 2 : secondCount];
+            var resultCount = 0;
+
+            // glyphs map to characters one to one unless the font substitutes some of them
+            if (vector.getNumGlyphs() != glyphCount) {
+
+                for (var second : seconds) {
+
+                    resultCount = add(result, resultCount, first, second, measure(first, second));
+
+                    if (reverse && second != first) {
+                        resultCount = add(result, resultCount, second, first, measure(second, first));
+                    }
+                }
+
+                found[first] = Arrays.copyOf(result, resultCount);
+                return;
+            }
+
+            var positions = vector.getGlyphPositions(0, glyphCount, null);
+
+            for (int i = 0; i < glyphCount - 1; i++) {
+
+                // odd glyphs start reversed pairs, the pair of the first glyph with itself is checked once
+                if (i % 2 != 0 && (!reverse || glyphs[i] == first)) {
+                    continue;
+                }
+
+                var amount = positions[(i + 1) * 2] - positions[i * 2] - advances[glyphs[i]];
+                resultCount = add(result, resultCount, glyphs[i], glyphs[i + 1], amount);
+            }
+
+            found[first] = Arrays.copyOf(result, resultCount);
+        }
+
+        /**
+         * Find the first glyph and the next glyphs which can make kerning pairs with the first glyph.
+         *
+         * @param first the index of the first glyph.
+         * @return the indices of the second glyphs.
+         */
+        private @NotNull int[] findSeconds(int first) {
+
+            if (!isKernable(first)) {
+                return new int[0];
+            }
+
+            var script = scripts[first];
+            var result = new int[count - first];
+            var resultCount = 0;
+
+            for (int i = first; i < count; i++) {
+
+                var other = scripts[i];
+
+                if (!isKernable(i)) {
+                    continue;
+                } else if (other == script || other == Character.UnicodeScript.COMMON ||
+                        script == Character.UnicodeScript.COMMON) {
+                    result[resultCount++] = i;
+                }
+            }
+
+            return Arrays.copyOf(result, resultCount);
+        }
+
+        /**
+         * Return true if the glyph can be in kerning pairs, combining marks are skipped.
+         *
+         * @param index the index of the glyph.
+         * @return true if the glyph can be in kerning pairs.
+         */
+        private boolean isKernable(int index) {
+            return advances[index] > 0 && scripts[index] != Character.UnicodeScript.INHERITED;
+        }
+
+        /**
+         * Measure the amount of the pair of glyphs by laying out the pair alone.
+         *
+         * @param first  the index of the first glyph.
+         * @param second the index of the second glyph.
+         * @return the amount or 0 if the pair can't be measured.
+         */
+        private float measure(int first, int second) {
+
+            var text = GlyphMetrics.toText(ids[first]) + GlyphMetrics.toText(ids[second]);
+            var vector = kerningFont.layoutGlyphVector(fontRenderContext, text.toCharArray(), 0, text.length(),
+                    Font.LAYOUT_LEFT_TO_RIGHT);
+
+            if (vector.getNumGlyphs() != 2) {
+                return 0;
+            }
+
+            return (float) (vector.getGlyphPosition(1).getX() - vector.getGlyphPosition(0).getX() -
+                    advances[first]);
+        }
+
+        /**
+         * Add the pair to the result if its rounded amount isn't zero.
+         *
+         * @param result      the result.
+         * @param resultCount the count of pairs in the result.
+         * @param first       the index of the first glyph.
+         * @param second      the index of the second glyph.
+         * @param amount      the amount.
+         * @return the new count of pairs in the result.
+         */
+        private int add(@NotNull long[] result, int resultCount, int first, int second, float amount) {
+
+            var rounded = Math.round(amount);
+
+            if (rounded == 0) {
+                return resultCount;
+            }
+
+            result[resultCount] = ((long) first * count + second) << 16 | (rounded & 0xFFFF);
+
+            return resultCount + 1;
+        }
+
+        /**
+         * Collect the found pairs of all rows to a table.
+         *
+         * @return the table of pairs.
+         */
+        private @NotNull KerningTable toTable() {
+
+            var total = 0;
+
+            for (var row : found) {
+                total += row.length;
+            }
+
+            var pairs = new long[total];
+            var offset = 0;
+
+            for (var row : found) {
+                System.arraycopy(row, 0, pairs, offset, row.length);
+                offset += row.length;
+            }
+
+            Arrays.sort(pairs);
+
+            var first = new int[total];
+            var second = new int[total];
+            var amount = new int[total];
+
+            for (int i = 0; i < total; i++) {
+                var pair = pairs[i] >>> 16;
+                first[i] = ids[(int) (pair / count)];
+                second[i] = ids[(int) (pair % count)];
+                amount[i] = (short) pairs[i];
+            }
+
+            return new KerningTable(first, second, amount, total);
+        }
+    }
+
+    /**
+     * The task to check a range of rows of pairs.
+     */
+    private static class RowTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The rows of pairs.
+         */
+        @NotNull
+        private final Rows rows;
+
+        /**
+         * The first row.
+         */
+        private final int first;
+
+        /**
+         * The last row (exclusive).
+         */
+        private final int last;
+
+        private RowTask(@NotNull Rows rows, int first, int last) {
+            this.rows = rows;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (last - first > ROWS_PER_TASK) {
+                var middle = (first + last) >>> 1;
+                invokeAll(new RowTask(rows, first, middle), new RowTask(rows, middle, last));
+                return;
+            }
+
+            for (int i = first; i < last; i++) {
+
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+
+                rows.check(i);
+            }
+        }
+    }
+}
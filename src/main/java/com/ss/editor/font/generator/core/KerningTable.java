@@ -0,0 +1,117 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The immutable table of kerning pairs of a font. Pairs are sorted by the first and then by the second code point
+ * and only pairs with non-zero amounts are kept.
+ *
+ * @author JavaSaBr
+ */
+public class KerningTable {
+
+    /**
+     * The table without kerning pairs.
+     */
+    @NotNull
+    public static final KerningTable EMPTY = new KerningTable(new int[0], new int[0], new int[0], 0);
+
+    /**
+     * The first code points of pairs.
+     */
+    @NotNull
+    private final int[] first;
+
+    /**
+     * The second code points of pairs.
+     */
+    @NotNull
+    private final int[] second;
+
+    /**
+     * The amounts to adjust the X position of the second glyph.
+     */
+    @NotNull
+    private final int[] amount;
+
+    /**
+     * The count of pairs.
+     */
+    private final int count;
+
+    public KerningTable(@NotNull int[] first, @NotNull int[] second, @NotNull int[] amount, int count) {
+        this.first = first;
+        this.second = second;
+        this.amount = amount;
+        this.count = count;
+    }
+
+    /**
+     * Get the count of pairs.
+     *
+     * @return the count of pairs.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the first code point of the pair.
+     *
+     * @param index the pair index.
+     * @return the first code point.
+     */
+    public int getFirst(int index) {
+        return first[index];
+    }
+
+    /**
+     * Get the second code point of the pair.
+     *
+     * @param index the pair index.
+     * @return the second code point.
+     */
+    public int getSecond(int index) {
+        return second[index];
+    }
+
+    /**
+     * Get the amount to adjust the X position of the second glyph of the pair.
+     *
+     * @param index the pair index.
+     * @return the amount in pixels.
+     */
+    public int getAmount(int index) {
+        return amount[index];
+    }
+
+    /**
+     * Find the amount of the pair of code points.
+     *
+     * @param firstId  the first code point.
+     * @param secondId the second code point.
+     * @return the amount in pixels or 0 if there is no such pair.
+     */
+    public int findAmount(int firstId, int secondId) {
+
+        var low = 0;
+        var high = count - 1;
+
+        while (low <= high) {
+
+            var middle = (low + high) >>> 1;
+            var compare = first[middle] != firstId ? Integer.compare(first[middle], firstId) :
+                    Integer.compare(second[middle], secondId);
+
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                return amount[middle];
+            }
+        }
+
+        return 0;
+    }
+}
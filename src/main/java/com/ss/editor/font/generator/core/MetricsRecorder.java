@@ -0,0 +1,157 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The thread-safe recorder of metrics of generation of one font. Durations of phases which run on several threads
+ * are summed, so they are thread time rather than wall time.
+ *
+ * @author JavaSaBr
+ */
+public class MetricsRecorder {
+
+    private static final GenerationPhase[] PHASES = GenerationPhase.values();
+
+    /**
+     * The durations of phases in nanoseconds.
+     */
+    @NotNull
+    private final AtomicLongArray durations;
+
+    /**
+     * The memory of currently allocated atlas images in bytes.
+     */
+    @NotNull
+    private final AtomicLong imageMemory;
+
+    /**
+     * The peak memory of allocated atlas images in bytes.
+     */
+    @NotNull
+    private final AtomicLong peakImageMemory;
+
+    /**
+     * The count of written bytes.
+     */
+    @NotNull
+    private final AtomicLong bytesWritten;
+
+    /**
+     * The count of requested characters.
+     */
+    private volatile int requested;
+
+    /**
+     * The count of displayable glyphs.
+     */
+    private volatile int displayable;
+
+    public MetricsRecorder() {
+        this.durations = new AtomicLongArray(PHASES.length);
+        this.imageMemory = new AtomicLong();
+        this.peakImageMemory = new AtomicLong();
+        this.bytesWritten = new AtomicLong();
+    }
+
+    /**
+     * Add the duration to the phase.
+     *
+     * @param phase    the phase.
+     * @param duration the duration in nanoseconds.
+     */
+    public void addDuration(@NotNull GenerationPhase phase, long duration) {
+        durations.addAndGet(phase.ordinal(), duration);
+    }
+
+    /**
+     * Set the counts of requested characters and displayable glyphs.
+     *
+     * @param requested   the count of requested characters.
+     * @param displayable the count of displayable glyphs.
+     */
+    public void setGlyphCounts(int requested, int displayable) {
+        this.requested = requested;
+        this.displayable = displayable;
+    }
+
+    /**
+     * Register allocated memory of atlas images.
+     *
+     * @param bytes the count of bytes.
+     */
+    public void allocateImageMemory(long bytes) {
+        var memory = imageMemory.addAndGet(bytes);
+        peakImageMemory.accumulateAndGet(memory, Math::max);
+    }
+
+    /**
+     * Register released memory of atlas images.
+     *
+     * @param bytes the count of bytes.
+     */
+    public void releaseImageMemory(long bytes) {
+        imageMemory.addAndGet(-bytes);
+    }
+
+    /**
+     * Add the count of written bytes.
+     *
+     * @param bytes the count of bytes.
+     */
+    public void addBytesWritten(long bytes) {
+        bytesWritten.addAndGet(bytes);
+    }
+
+    /**
+     * Add an even share of the durations, the peak memory of atlas images and the written bytes which are recorded
+     * for work which is shared by several fonts, the remainders of the division go to the first fonts, so the shares
+     * sum to the recorded values.
+     *
+     * @param shared the recorder of the shared work.
+     * @param index  the index of the font between the fonts which share the work.
+     * @param count  the count of the fonts which share the work.
+     */
+    public void addShare(@NotNull MetricsRecorder shared, int index, int count) {
+
+        for (int i = 0; i < PHASES.length; i++) {
+            durations.addAndGet(i, share(shared.durations.get(i), index, count));
+        }
+
+        peakImageMemory.accumulateAndGet(share(shared.peakImageMemory.get(), index, count), Math::max);
+        bytesWritten.addAndGet(share(shared.bytesWritten.get(), index, count));
+    }
+
+    /**
+     * Get an even share of the value.
+     *
+     * @param value the value.
+     * @param index the index of the share.
+     * @param count the count of shares.
+     * @return the share.
+     */
+    private static long share(long value, int index, int count) {
+        return value / count + (index < value % count ? 1 : 0);
+    }
+
+    /**
+     * Create the metrics of the generated font from the recorded values.
+     *
+     * @param layout the glyph layout of the font.
+     * @return the metrics.
+     */
+    public @NotNull GenerationMetrics toMetrics(@NotNull GlyphLayout layout) {
+
+        var result = new long[PHASES.length];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = durations.get(i);
+        }
+
+        return new GenerationMetrics(result, requested, displayable, layout.getSkipped(), layout.getSharedCount(),
+                layout.getCount(), layout.getPageCount(), layout.getImageWidth(), layout.getImageHeight(),
+                layout.getOccupancy(), bytesWritten.get(), peakImageMemory.get());
+    }
+}
@@ -0,0 +1,24 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The streaming encoder of an atlas page which takes rows by strips from the top.
+ *
+ * @author JavaSaBr
+ */
+public interface PageEncoder extends Closeable {
+
+    /**
+     * Write the next rows of the page from the strip which is a 4-byte ABGR image for RGBA pages or a grayscale
+     * image for grayscale pages.
+     *
+     * @param strip the strip of the page.
+     * @throws IOException if the rows can't be written.
+     */
+    void writeRows(@NotNull BufferedImage strip) throws IOException;
+}
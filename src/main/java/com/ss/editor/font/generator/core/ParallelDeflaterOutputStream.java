@@ -0,0 +1,251 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * The stream which compresses data to a zlib stream by independent blocks on a pool like pigz. Every block is
+ * deflated by its own deflater which is primed by the last 32 KB of the previous block and is ended by a sync
+ * flush, so the compressed blocks are concatenated to one standard zlib stream.
+ *
+ * @author JavaSaBr
+ */
+class ParallelDeflaterOutputStream extends OutputStream {
+
+    /**
+     * The size of uncompressed data of a block.
+     */
+    static final int BLOCK_SIZE = 128 * 1024;
+
+    /**
+     * The size of the deflate window which is used as the dictionary of the next block.
+     */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    /**
+     * The output stream of the zlib stream.
+     */
+    @NotNull
+    private final OutputStream out;
+
+    /**
+     * The pool to compress blocks.
+     */
+    @NotNull
+    private final ForkJoinPool pool;
+
+    /**
+     * The checksum of uncompressed data.
+     */
+    @NotNull
+    private final Adler32 checksum;
+
+    /**
+     * The compressing blocks in the order of data.
+     */
+    @NotNull
+    private final ArrayDeque<ForkJoinTask<byte[]>> pending;
+
+    /**
+     * The filling block.
+     */
+    @NotNull
+    private byte[] block;
+
+    /**
+     * The previous block or null if the filling block is the first.
+     */
+    @Nullable
+    private byte[] previousBlock;
+
+    /**
+     * The compression level.
+     */
+    private final int level;
+
+    /**
+     * The max count of compressing blocks.
+     */
+    private final int maxPending;
+
+    /**
+     * The length of data in the filling block.
+     */
+    private int blockLength;
+
+    /**
+     * True if the stream is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Create a stream and write the zlib header to the output stream.
+     *
+     * @param out   the output stream which isn't closed by this stream.
+     * @param level the compression level.
+     * @param pool  the pool to compress blocks.
+     * @throws IOException if the header can't be written.
+     */
+    ParallelDeflaterOutputStream(@NotNull OutputStream out, int level, @NotNull ForkJoinPool pool)
+            throws IOException {
+        this.out = out;
+        this.level = level;
+        this.pool = pool;
+        this.checksum = new Adler32();
+        this.pending = new ArrayDeque<>();
+        this.block = new byte[BLOCK_SIZE];
+        this.maxPending = pool.getParallelism() * 2;
+
+        // CMF of the 32 KB window and FLG of the compression level with the check bits
+        out.write(0x78);
+        out.write(level < 2 ? 0x01 : level < 6 ? 0x5E : level == 6 ? 0x9C : 0xDA);
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        write(new byte[] {(byte) value}, 0, 1);
+    }
+
+    @Override
+    public void write(@NotNull byte[] buffer, int offset, int length) throws IOException {
+
+        if (closed) {
+            throw new IOException("The stream is closed.");
+        }
+
+        checksum.update(buffer, offset, length);
+
+        while (length > 0) {
+
+            var count = Math.min(length, BLOCK_SIZE - blockLength);
+
+            System.arraycopy(buffer, offset, block, blockLength, count);
+
+            blockLength += count;
+            offset += count;
+            length -= count;
+
+            if (blockLength == BLOCK_SIZE) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Submit the filling block to the pool and write compressed blocks while too many blocks are compressing.
+     *
+     * @param last true if the block is the last.
+     * @throws IOException if compressed blocks can't be written.
+     */
+    private void submitBlock(boolean last) throws IOException {
+
+        var input = block;
+        var inputLength = blockLength;
+        var dictionary = previousBlock;
+
+        pending.add(pool.submit(() -> deflate(input, inputLength, dictionary, level, last)));
+
+        previousBlock = input;
+        block = new byte[BLOCK_SIZE];
+        blockLength = 0;
+
+        while (pending.size() > maxPending) {
+            out.write(pending.remove().join());
+        }
+    }
+
+    /**
+     * Compress the block to raw deflate data which ends on a byte boundary.
+     *
+     * @param input      the block.
+     * @param length     the length of data in the block.
+     * @param dictionary the previous full block or null.
+     * @param level      the compression level.
+     * @param last       true if the block is the last, so the deflate stream is finished.
+     * @return the compressed data.
+     */
+    private static @NotNull byte[] deflate(
+            @NotNull byte[] input,
+            int length,
+            @Nullable byte[] dictionary,
+            int level,
+            boolean last
+    ) {
+
+        var deflater = new Deflater(level, true);
+        var result = new ByteArrayOutputStream(length / 4 + 64);
+        var buffer = new byte[16 * 1024];
+
+        try {
+
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary, dictionary.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            }
+
+            deflater.setInput(input, 0, length);
+
+            if (last) {
+
+                deflater.finish();
+
+                while (!deflater.finished()) {
+                    result.write(buffer, 0, deflater.deflate(buffer));
+                }
+
+            } else {
+
+                int count;
+
+                // a sync flush ends the block on a byte boundary, so the next block can be appended
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    result.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+
+        } finally {
+            deflater.end();
+        }
+
+        return result.toByteArray();
+    }
+
+    /**
+     * Compress the rest data, write all compressed blocks and the checksum. The output stream is flushed, but
+     * isn't closed.
+     *
+     * @throws IOException if the data can't be written.
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        submitBlock(true);
+
+        while (!pending.isEmpty()) {
+            out.write(pending.remove().join());
+        }
+
+        var value = checksum.getValue();
+
+        out.write((int) (value >>> 24));
+        out.write((int) (value >>> 16));
+        out.write((int) (value >>> 8));
+        out.write((int) value);
+        out.flush();
+    }
+}
@@ -0,0 +1,551 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * The streaming encoder of 8-bit grayscale and RGBA PNG images. Rows are written by strips from the top, every
+ * row is filtered by the chosen filter or by the filter which gives the least sum of absolute differences and
+ * deflated to IDAT chunks right away, so only the current strip and two rows have to be in memory. With a pool
+ * filtered rows are deflated by independent blocks in parallel, the image is still a standard PNG image.
+ *
+ * @author JavaSaBr
+ */
+public class PngEncoder implements PageEncoder {
+
+    /**
+     * The signature of PNG files.
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final int CHUNK_IHDR = 0x49484452;
+    private static final int CHUNK_IDAT = 0x49444154;
+    private static final int CHUNK_IEND = 0x49454E44;
+
+    private static final int COLOR_TYPE_GRAY = 0;
+    private static final int COLOR_TYPE_RGBA = 6;
+
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_SUB = 1;
+    private static final int FILTER_UP = 2;
+    private static final int FILTER_AVERAGE = 3;
+    private static final int FILTER_PAETH = 4;
+
+    /**
+     * The max size of data of an IDAT chunk.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The compression level to store data without compression.
+     */
+    public static final int MIN_COMPRESSION_LEVEL = 0;
+
+    /**
+     * The compression level to write images fast while iterating.
+     */
+    public static final int FAST_COMPRESSION_LEVEL = 1;
+
+    /**
+     * The default compression level which balances speed and size.
+     */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 4;
+
+    /**
+     * The compression level to write the smallest images for releases.
+     */
+    public static final int MAX_COMPRESSION_LEVEL = 9;
+
+    /**
+     * Write the whole 4-byte ABGR or grayscale image to the stream as a PNG image and close the stream.
+     *
+     * @param image the image.
+     * @param out   the output stream.
+     * @throws IOException if the image can't be written.
+     */
+    public static void write(@NotNull BufferedImage image, @NotNull OutputStream out) throws IOException {
+
+        var grayscale = image.getType() == BufferedImage.TYPE_BYTE_GRAY;
+
+        try (var encoder = new PngEncoder(out, image.getWidth(), image.getHeight(), grayscale)) {
+            encoder.writeRows(image);
+        }
+    }
+
+    /**
+     * The output stream.
+     */
+    @NotNull
+    private final DataOutputStream out;
+
+    /**
+     * The checksum of chunks.
+     */
+    @NotNull
+    private final CRC32 crc;
+
+    /**
+     * The compressor of image data or null if image data is compressed in parallel.
+     */
+    @Nullable
+    private final Deflater deflater;
+
+    /**
+     * The stream of compressed image data to IDAT chunks.
+     */
+    @NotNull
+    private final OutputStream data;
+
+    /**
+     * The filter of rows.
+     */
+    @NotNull
+    private final PngFilter rowFilter;
+
+    /**
+     * The filtered rows by every filter type.
+     */
+    @NotNull
+    private final byte[][] filtered;
+
+    /**
+     * The previous unfiltered row.
+     */
+    @NotNull
+    private byte[] previousRow;
+
+    /**
+     * The current unfiltered row.
+     */
+    @NotNull
+    private byte[] row;
+
+    /**
+     * The width of the image.
+     */
+    private final int width;
+
+    /**
+     * The height of the image.
+     */
+    private final int height;
+
+    /**
+     * The count of bytes of a pixel.
+     */
+    private final int bytesPerPixel;
+
+    /**
+     * The count of written rows.
+     */
+    private int rows;
+
+    /**
+     * True if the encoder is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Create an encoder with the default compression and write the header of the image to the stream. The stream
+     * is closed by the encoder.
+     *
+     * @param out       the output stream.
+     * @param width     the width of the image.
+     * @param height    the height of the image.
+     * @param grayscale true if the image is 8-bit grayscale, otherwise it's 8-bit RGBA.
+     * @throws IOException if the header can't be written.
+     */
+    public PngEncoder(@NotNull OutputStream out, int width, int height, boolean grayscale) throws IOException {
+        this(out, width, height, grayscale, DEFAULT_COMPRESSION_LEVEL, PngFilter.ADAPTIVE, null);
+    }
+
+    /**
+     * Create an encoder and write the header of the image to the stream. The stream is closed by the encoder.
+     *
+     * @param out       the output stream.
+     * @param width     the width of the image.
+     * @param height    the height of the image.
+     * @param grayscale true if the image is 8-bit grayscale, otherwise it's 8-bit RGBA.
+     * @param level     the compression level from 0 to 9.
+     * @param filter    the filter of rows.
+     * @param pool      the pool to compress blocks of image data in parallel or null.
+     * @throws IOException if the header can't be written.
+     */
+    public PngEncoder(
+            @NotNull OutputStream out,
+            int width,
+            int height,
+            boolean grayscale,
+            int level,
+            @NotNull PngFilter filter,
+            @Nullable ForkJoinPool pool
+    ) throws IOException {
+
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("The image size " + width + "x" + height + " is empty.");
+        } else if (level < MIN_COMPRESSION_LEVEL || level > MAX_COMPRESSION_LEVEL) {
+            throw new IllegalArgumentException("The compression level " + level + " isn't from 0 to 9.");
+        }
+
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.crc = new CRC32();
+        this.rowFilter = filter;
+
+        // small images are a single block, so they aren't worth the parallel compression
+        if (pool == null || pool.getParallelism() < 2 ||
+                (long) width * height * (grayscale ? 1 : 4) <= ParallelDeflaterOutputStream.BLOCK_SIZE) {
+            this.deflater = new Deflater(level);
+            this.data = new DeflaterOutputStream(new IdatOutputStream(), deflater, CHUNK_SIZE);
+        } else {
+            this.deflater = null;
+            this.data = new ParallelDeflaterOutputStream(new BufferedOutputStream(new IdatOutputStream(),
+                    CHUNK_SIZE), level, pool);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.bytesPerPixel = grayscale ? 1 : 4;
+
+        var rowLength = width * bytesPerPixel;
+
+        this.filtered = new byte[FILTER_PAETH + 1][rowLength];
+        this.previousRow = new byte[rowLength];
+        this.row = new byte[rowLength];
+
+        var header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = 8;
+        header[9] = (byte) (grayscale ? COLOR_TYPE_GRAY : COLOR_TYPE_RGBA);
+
+        this.out.write(SIGNATURE);
+
+        writeChunk(CHUNK_IHDR, header, 0, header.length);
+    }
+
+    /**
+     * Write the next rows of the image from the strip which is a 4-byte ABGR image for RGBA images or a grayscale
+     * image for grayscale images.
+     *
+     * @param strip the strip of the image.
+     * @throws IOException if the rows can't be written.
+     */
+    @Override
+    public void writeRows(@NotNull BufferedImage strip) throws IOException {
+
+        var expectedType = bytesPerPixel == 1 ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_4BYTE_ABGR;
+        var stripHeight = strip.getHeight();
+
+        if (closed) {
+            throw new IllegalStateException("The encoder is closed.");
+        } else if (strip.getType() != expectedType || strip.getWidth() != width) {
+            throw new IllegalArgumentException("The strip " + strip.getWidth() + "x" + stripHeight +
+                    " doesn't match the image " + width + "x" + height + ".");
+        } else if (rows + stripHeight > height) {
+            throw new IllegalArgumentException("The strip of " + stripHeight + " rows exceeds the image, only " +
+                    (height - rows) + " rows are left.");
+        }
+
+        var pixels = ((DataBufferByte) strip.getRaster().getDataBuffer()).getData();
+        var rowLength = row.length;
+
+        for (int y = 0; y < stripHeight; y++) {
+
+            var offset = y * rowLength;
+
+            if (bytesPerPixel == 1) {
+                System.arraycopy(pixels, offset, row, 0, rowLength);
+            } else {
+                // ABGR pixels to RGBA pixels
+                for (int i = 0; i < rowLength; i += 4) {
+                    row[i] = pixels[offset + i + 3];
+                    row[i + 1] = pixels[offset + i + 2];
+                    row[i + 2] = pixels[offset + i + 1];
+                    row[i + 3] = pixels[offset + i];
+                }
+            }
+
+            var filter = filterRow();
+
+            data.write(filter);
+            data.write(filter == FILTER_NONE ? row : filtered[filter], 0, rowLength);
+
+            var swap = previousRow;
+            previousRow = row;
+            row = swap;
+        }
+
+        rows += stripHeight;
+    }
+
+    /**
+     * Filter the current row by the fixed filter or by all filter types and choose the filter which gives the least
+     * sum of absolute differences.
+     *
+     * @return the chosen filter type.
+     */
+    private int filterRow() {
+
+        var bpp = bytesPerPixel;
+        var sub = filtered[FILTER_SUB];
+        var up = filtered[FILTER_UP];
+        var average = filtered[FILTER_AVERAGE];
+        var paeth = filtered[FILTER_PAETH];
+
+        var length = row.length;
+        var first = 0;
+
+        // bytes out of the span of non-zero bytes of both rows are zero for every filter
+        while (first < length && row[first] == 0 && previousRow[first] == 0) {
+            first++;
+        }
+
+        if (first == length) {
+            return FILTER_NONE;
+        }
+
+        var last = length - 1;
+
+        while (row[last] == 0 && previousRow[last] == 0) {
+            last--;
+        }
+
+        var end = Math.min(length, last + bpp + 1);
+        var fixedFilter = rowFilter.getType();
+
+        if (fixedFilter == FILTER_NONE) {
+            return FILTER_NONE;
+        } else if (fixedFilter > FILTER_NONE) {
+            applyFilter(fixedFilter, first, end);
+            return fixedFilter;
+        }
+
+        for (int filter = FILTER_SUB; filter <= FILTER_PAETH; filter++) {
+            Arrays.fill(filtered[filter], 0, first, (byte) 0);
+            Arrays.fill(filtered[filter], end, length, (byte) 0);
+        }
+
+        long sumNone = 0;
+        long sumSub = 0;
+        long sumUp = 0;
+        long sumAverage = 0;
+        long sumPaeth = 0;
+
+        for (int i = first; i < end; i++) {
+
+            var value = row[i] & 0xFF;
+            var left = i < bpp ? 0 : row[i - bpp] & 0xFF;
+            var above = previousRow[i] & 0xFF;
+            var upperLeft = i < bpp ? 0 : previousRow[i - bpp] & 0xFF;
+
+            sub[i] = (byte) (value - left);
+            up[i] = (byte) (value - above);
+            average[i] = (byte) (value - ((left + above) >> 1));
+            paeth[i] = (byte) (value - paethPredictor(left, above, upperLeft));
+
+            sumNone += Math.abs(row[i]);
+            sumSub += Math.abs(sub[i]);
+            sumUp += Math.abs(up[i]);
+            sumAverage += Math.abs(average[i]);
+            sumPaeth += Math.abs(paeth[i]);
+        }
+
+        var filter = FILTER_NONE;
+        var min = sumNone;
+
+        if (sumSub < min) {
+            filter = FILTER_SUB;
+            min = sumSub;
+        }
+
+        if (sumUp < min) {
+            filter = FILTER_UP;
+            min = sumUp;
+        }
+
+        if (sumAverage < min) {
+            filter = FILTER_AVERAGE;
+            min = sumAverage;
+        }
+
+        if (sumPaeth < min) {
+            filter = FILTER_PAETH;
+        }
+
+        return filter;
+    }
+
+    /**
+     * Filter the span of the current row by the filter type, bytes out of the span are zero.
+     *
+     * @param type  the filter type.
+     * @param first the first byte of the span.
+     * @param end   the end of the span (exclusive).
+     */
+    private void applyFilter(int type, int first, int end) {
+
+        var bpp = bytesPerPixel;
+        var result = filtered[type];
+
+        Arrays.fill(result, 0, first, (byte) 0);
+        Arrays.fill(result, end, result.length, (byte) 0);
+
+        for (int i = first; i < end; i++) {
+
+            var value = row[i] & 0xFF;
+            var left = i < bpp ? 0 : row[i - bpp] & 0xFF;
+            var above = previousRow[i] & 0xFF;
+
+            switch (type) {
+                case FILTER_SUB:
+                    result[i] = (byte) (value - left);
+                    break;
+                case FILTER_UP:
+                    result[i] = (byte) (value - above);
+                    break;
+                case FILTER_AVERAGE:
+                    result[i] = (byte) (value - ((left + above) >> 1));
+                    break;
+                default:
+                    var upperLeft = i < bpp ? 0 : previousRow[i - bpp] & 0xFF;
+                    result[i] = (byte) (value - paethPredictor(left, above, upperLeft));
+            }
+        }
+    }
+
+    /**
+     * Get the Paeth predictor of the byte.
+     *
+     * @param left      the left byte.
+     * @param above     the above byte.
+     * @param upperLeft the upper left byte.
+     * @return the predictor.
+     */
+    private static int paethPredictor(int left, int above, int upperLeft) {
+
+        var estimate = left + above - upperLeft;
+        var distanceLeft = Math.abs(estimate - left);
+        var distanceAbove = Math.abs(estimate - above);
+        var distanceUpperLeft = Math.abs(estimate - upperLeft);
+
+        if (distanceLeft <= distanceAbove && distanceLeft <= distanceUpperLeft) {
+            return left;
+        } else if (distanceAbove <= distanceUpperLeft) {
+            return above;
+        }
+
+        return upperLeft;
+    }
+
+    /**
+     * Write the chunk to the output stream.
+     *
+     * @param type   the type of the chunk.
+     * @param buffer the buffer with data of the chunk.
+     * @param offset the offset of data in the buffer.
+     * @param length the length of data.
+     * @throws IOException if the chunk can't be written.
+     */
+    private void writeChunk(int type, @NotNull byte[] buffer, int offset, int length) throws IOException {
+
+        var typeBytes = new byte[4];
+        writeInt(typeBytes, 0, type);
+
+        crc.reset();
+        crc.update(typeBytes);
+        crc.update(buffer, offset, length);
+
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(buffer, offset, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Write the big-endian int to the buffer.
+     *
+     * @param buffer the buffer.
+     * @param offset the offset in the buffer.
+     * @param value  the value.
+     */
+    private static void writeInt(@NotNull byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Finish the image and close the output stream. If not all rows were written, the stream is closed without
+     * finishing the image.
+     *
+     * @throws IOException if the image can't be finished.
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+
+            if (rows == height) {
+                data.close();
+                writeChunk(CHUNK_IEND, new byte[0], 0, 0);
+            }
+
+        } finally {
+
+            if (deflater != null) {
+                deflater.end();
+            }
+
+            out.close();
+        }
+    }
+
+    /**
+     * The stream which writes compressed image data as IDAT chunks.
+     */
+    private class IdatOutputStream extends OutputStream {
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[] {(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(@NotNull byte[] buffer, int offset, int length) throws IOException {
+
+            while (length > 0) {
+
+                var chunkLength = Math.min(length, CHUNK_SIZE);
+
+                writeChunk(CHUNK_IDAT, buffer, offset, chunkLength);
+
+                offset += chunkLength;
+                length -= chunkLength;
+            }
+        }
+
+        @Override
+        public void close() {
+            // the output stream is closed by the encoder
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The list of row filters of PNG atlas pages.
+ *
+ * @author JavaSaBr
+ */
+public enum PngFilter {
+
+    /**
+     * The filter which gives the least sum of absolute differences is chosen for every row.
+     */
+    ADAPTIVE("Adaptive", -1),
+
+    /**
+     * Rows aren't filtered.
+     */
+    NONE("None", 0),
+
+    /**
+     * The difference from the left byte.
+     */
+    SUB("Sub", 1),
+
+    /**
+     * The difference from the above byte.
+     */
+    UP("Up", 2),
+
+    /**
+     * The difference from the average of the left and above bytes.
+     */
+    AVERAGE("Average", 3),
+
+    /**
+     * The difference from the Paeth predictor of the left, above and upper left bytes.
+     */
+    PAETH("Paeth", 4);
+
+    private static final PngFilter[] VALUES = values();
+
+    /**
+     * Find a filter by its name or its title.
+     *
+     * @param name the name or the title of a filter.
+     * @return the found filter or null.
+     */
+    public static @Nullable PngFilter find(@NotNull String name) {
+
+        for (var filter : VALUES) {
+            if (filter.name().equalsIgnoreCase(name) || filter.title.equalsIgnoreCase(name)) {
+                return filter;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The title of this filter.
+     */
+    @NotNull
+    private final String title;
+
+    /**
+     * The PNG filter type of this filter or -1 if it's chosen for every row.
+     */
+    private final int type;
+
+    PngFilter(@NotNull String title, int type) {
+        this.title = title;
+        this.type = type;
+    }
+
+    /**
+     * Get the title of this filter.
+     *
+     * @return the title of this filter.
+     */
+    public @NotNull String getTitle() {
+        return title;
+    }
+
+    /**
+     * Get the PNG filter type of this filter.
+     *
+     * @return the PNG filter type or -1 if the filter is chosen for every row.
+     */
+    public int getType() {
+        return type;
+    }
+}
@@ -0,0 +1,265 @@
+package com.ss.editor.font.generator.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The atlas which is shared by several fonts. Glyph cells of all fonts are packed together, so small fonts fill
+ * the space which is left by large fonts, and every font is moved to the shared pages which have its glyphs.
+ *
+ * @author JavaSaBr
+ */
+class SharedAtlas {
+
+    /**
+     * Pack glyph cells of the glyph layouts to a shared atlas.
+     *
+     * @param layouts  the glyph layouts of the same atlas format, all glyphs of them should be placed.
+     * @param settings the settings of the shared atlas.
+     * @return the shared atlas.
+     * @throws AtlasOverflowException if some glyphs don't fit the shared atlas.
+     */
+    static @NotNull SharedAtlas pack(@NotNull GlyphLayout[] layouts, @NotNull BitmapFontSettings settings) {
+
+        var count = 0;
+
+        for (var layout : layouts) {
+            count += layout.getCount();
+        }
+
+        var width = new int[count];
+        var height = new int[count];
+        var cells = new int[count];
+        var pending = new int[count];
+        var pendingCount = 0;
+
+        for (int i = 0, offset = 0; i < layouts.length; i++) {
+
+            var layout = layouts[i];
+
+            for (int glyph = 0, glyphCount = layout.getCount(); glyph < glyphCount; glyph++) {
+
+                var index = offset + glyph;
+
+                width[index] = layout.getWidth(glyph);
+                height[index] = layout.getHeight(glyph);
+                cells[index] = offset + layout.getCell(glyph);
+
+                // glyphs which share cells in their layout share them in the atlas too
+                if (cells[index] == index) {
+                    pending[pendingCount++] = index;
+                }
+            }
+
+            offset += layout.getCount();
+        }
+
+        var format = layouts[0].getFormat();
+        var glyphSets = format.getGlyphSets();
+        var imageWidth = settings.getImageSize();
+        var imageHeight = settings.getImageSize();
+        var packer = settings.getPackingStrategy().getPacker();
+
+        if (settings.isAutoImageSize()) {
+
+            var size = GlyphLayoutFactory.findImageSize(packer, width, height, pending, pendingCount, glyphSets,
+                    imageWidth, settings.isNonSquareImage());
+
+            if (size != null) {
+                imageWidth = size.width;
+                imageHeight = size.height;
+            }
+        }
+
+        var x = new int[count];
+        var y = new int[count];
+        var page = new int[count];
+        var channel = new int[count];
+        var placed = new boolean[count];
+        var setCount = 0;
+        var maxSets = Math.max(settings.getMaxPages(), 1) * glyphSets;
+
+        while (pendingCount > 0 && setCount < maxSets) {
+
+            var setPlaced = packer.pack(width, height, pending, pendingCount, imageWidth, imageHeight, x, y,
+                    placed);
+
+            if (setPlaced < 1) {
+                break;
+            }
+
+            var rest = 0;
+
+            for (int i = 0; i < pendingCount; i++) {
+
+                var index = pending[i];
+
+                if (placed[index]) {
+                    page[index] = setCount / glyphSets;
+                    channel[index] = format.getChannel(setCount % glyphSets);
+                } else {
+                    pending[rest++] = index;
+                }
+            }
+
+            pendingCount = rest;
+            setCount++;
+        }
+
+        var pageCount = Math.max((setCount + glyphSets - 1) / glyphSets, 1);
+
+        if (pendingCount > 0) {
+            throw new AtlasOverflowException(pendingCount, imageWidth, imageHeight, pageCount);
+        }
+
+        for (int i = 0; i < count; i++) {
+
+            var cell = cells[i];
+
+            if (cell != i) {
+                x[i] = x[cell];
+                y[i] = y[cell];
+                page[i] = page[cell];
+                channel[i] = channel[cell];
+            }
+        }
+
+        var relocated = new GlyphLayout[layouts.length];
+        var layoutPages = new int[layouts.length][];
+
+        for (int i = 0, offset = 0; i < layouts.length; i++) {
+
+            var glyphCount = layouts[i].getCount();
+            var layoutPage = Arrays.copyOfRange(page, offset, offset + glyphCount);
+
+            // pages of a font keep the order of the shared pages
+            var pages = Arrays.stream(layoutPage).sorted().distinct().toArray();
+
+            if (pages.length < 1) {
+                pages = new int[] {0};
+            }
+
+            for (int glyph = 0; glyph < glyphCount; glyph++) {
+                layoutPage[glyph] = Arrays.binarySearch(pages, layoutPage[glyph]);
+            }
+
+            relocated[i] = layouts[i].relocate(Arrays.copyOfRange(x, offset, offset + glyphCount),
+                    Arrays.copyOfRange(y, offset, offset + glyphCount), layoutPage,
+                    Arrays.copyOfRange(channel, offset, offset + glyphCount), imageWidth, imageHeight, pages.length);
+
+            layoutPages[i] = pages;
+            offset += glyphCount;
+        }
+
+        return new SharedAtlas(relocated, layoutPages, imageWidth, imageHeight, pageCount);
+    }
+
+    /**
+     * The glyph layouts which are moved to the shared atlas.
+     */
+    @NotNull
+    private final GlyphLayout[] layouts;
+
+    /**
+     * The shared pages of every layout by the page of the moved layout.
+     */
+    @NotNull
+    private final int[][] layoutPages;
+
+    /**
+     * The width of a shared page.
+     */
+    private final int imageWidth;
+
+    /**
+     * The height of a shared page.
+     */
+    private final int imageHeight;
+
+    /**
+     * The count of shared pages.
+     */
+    private final int pageCount;
+
+    private SharedAtlas(
+            @NotNull GlyphLayout[] layouts,
+            @NotNull int[][] layoutPages,
+            int imageWidth,
+            int imageHeight,
+            int pageCount
+    ) {
+        this.layouts = layouts;
+        this.layoutPages = layoutPages;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.pageCount = pageCount;
+    }
+
+    /**
+     * Get the count of glyph layouts.
+     *
+     * @return the count of glyph layouts.
+     */
+    int getLayoutCount() {
+        return layouts.length;
+    }
+
+    /**
+     * Get the glyph layout which is moved to the shared atlas.
+     *
+     * @param index the index of the layout.
+     * @return the moved glyph layout.
+     */
+    @NotNull GlyphLayout getLayout(int index) {
+        return layouts[index];
+    }
+
+    /**
+     * Get the shared pages of the layout in the order of pages of the moved layout.
+     *
+     * @param index the index of the layout.
+     * @return the shared pages.
+     */
+    @NotNull int[] getLayoutPages(int index) {
+        return layoutPages[index];
+    }
+
+    /**
+     * Get the page of the moved layout which is the shared page.
+     *
+     * @param index the index of the layout.
+     * @param page  the shared page.
+     * @return the page of the moved layout or a negative value if the layout has no glyphs on the shared page.
+     */
+    int getLayoutPage(int index, int page) {
+        return Arrays.binarySearch(layoutPages[index], page);
+    }
+
+    /**
+     * Get the width of a shared page.
+     *
+     * @return the width of a shared page.
+     */
+    int getImageWidth() {
+        return imageWidth;
+    }
+
+    /**
+     * Get the height of a shared page.
+     *
+     * @return the height of a shared page.
+     */
+    int getImageHeight() {
+        return imageHeight;
+    }
+
+    /**
+     * Get the count of shared pages.
+     *
+     * @return the count of shared pages.
+     */
+    int getPageCount() {
+        return pageCount;
+    }
+}
@@ -0,0 +1,39 @@
+package com.ss.editor.font.generator.core.pack;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The packer of rects (glyph cells) to an atlas.
+ *
+ * @author JavaSaBr
+ */
+public interface AtlasPacker {
+
+    /**
+     * Place the rects to an atlas. Only the rects referenced by the first {@code count} indices are packed,
+     * the positions of the placed rects are written to the {@code x} and {@code y} arrays by the rect index,
+     * the positions of the rects which don't fit are left untouched.
+     *
+     * @param widths      the widths of rects.
+     * @param heights     the heights of rects.
+     * @param indices     the indices of rects to pack in the preferred order.
+     * @param count       the count of rects to pack.
+     * @param atlasWidth  the width of the atlas.
+     * @param atlasHeight the height of the atlas.
+     * @param x           the X positions of placed rects.
+     * @param y           the Y positions of placed rects.
+     * @param placed      the flags of placed rects.
+     * @return the count of placed rects.
+     */
+    int pack(
+            @NotNull int[] widths,
+            @NotNull int[] heights,
+            @NotNull int[] indices,
+            int count,
+            int atlasWidth,
+            int atlasHeight,
+            @NotNull int[] x,
+            @NotNull int[] y,
+            @NotNull boolean[] placed
+    );
+}
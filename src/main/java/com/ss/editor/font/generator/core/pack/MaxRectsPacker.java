@@ -0,0 +1,266 @@
+package com.ss.editor.font.generator.core.pack;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The packer which keeps the list of maximal free rects of the atlas and puts every next rect to the free rect
+ * where it fits best by its short side (the best short side fit rule). Rects are packed from the highest to
+ * the lowest one. It's slower than the skyline packer, but usually packs glyphs of different sizes tighter.
+ *
+ * @author JavaSaBr
+ */
+public class MaxRectsPacker implements AtlasPacker {
+
+    /**
+     * The list of free rects.
+     */
+    private static class FreeRects {
+
+        private int[] x = new int[64];
+        private int[] y = new int[64];
+        private int[] width = new int[64];
+        private int[] height = new int[64];
+
+        /**
+         * The count of free rects.
+         */
+        private int size;
+
+        /**
+         * Add a free rect.
+         *
+         * @param rectX      the X position.
+         * @param rectY      the Y position.
+         * @param rectWidth  the width.
+         * @param rectHeight the height.
+         */
+        private void add(int rectX, int rectY, int rectWidth, int rectHeight) {
+
+            if (size == x.length) {
+                x = Arrays.copyOf(x, size * 2);
+                y = Arrays.copyOf(y, size * 2);
+                width = Arrays.copyOf(width, size * 2);
+                height = Arrays.copyOf(height, size * 2);
+            }
+
+            x[size] = rectX;
+            y[size] = rectY;
+            width[size] = rectWidth;
+            height[size] = rectHeight;
+            size++;
+        }
+
+        /**
+         * Remove a free rect by replacing it with the last one.
+         *
+         * @param index the index of the free rect.
+         */
+        private void fastRemove(int index) {
+            size--;
+            x[index] = x[size];
+            y[index] = y[size];
+            width[index] = width[size];
+            height[index] = height[size];
+        }
+
+        /**
+         * Check of the free rect contains the other rect.
+         *
+         * @param index      the index of the free rect.
+         * @param rectX      the X position of the other rect.
+         * @param rectY      the Y position of the other rect.
+         * @param rectWidth  the width of the other rect.
+         * @param rectHeight the height of the other rect.
+         * @return true if the free rect contains the other rect.
+         */
+        private boolean contains(int index, int rectX, int rectY, int rectWidth, int rectHeight) {
+            return rectX >= x[index] && rectY >= y[index] &&
+                    rectX + rectWidth <= x[index] + width[index] &&
+                    rectY + rectHeight <= y[index] + height[index];
+        }
+    }
+
+    @Override
+    public int pack(
+            @NotNull int[] widths,
+            @NotNull int[] heights,
+            @NotNull int[] indices,
+            int count,
+            int atlasWidth,
+            int atlasHeight,
+            @NotNull int[] x,
+            @NotNull int[] y,
+            @NotNull boolean[] placed
+    ) {
+
+        var result = PackerUtils.placeEmpty(widths, heights, indices, count, x, y, placed);
+        var sorted = PackerUtils.sortByHeight(widths, heights, indices, count);
+
+        var freeRects = new FreeRects();
+        freeRects.add(0, 0, atlasWidth, atlasHeight);
+
+        var newRects = new FreeRects();
+
+        for (var index : sorted) {
+
+            var width = widths[index];
+            var height = heights[index];
+
+            if (width < 1 || height < 1) {
+                continue;
+            }
+
+            var best = -1;
+            var bestShortSide = Integer.MAX_VALUE;
+            var bestLongSide = Integer.MAX_VALUE;
+
+            for (int i = 0; i < freeRects.size; i++) {
+
+                var leftX = freeRects.width[i] - width;
+                var leftY = freeRects.height[i] - height;
+
+                if (leftX < 0 || leftY < 0) {
+                    continue;
+                }
+
+                var shortSide = Math.min(leftX, leftY);
+                var longSide = Math.max(leftX, leftY);
+
+                if (shortSide < bestShortSide || (shortSide == bestShortSide && longSide < bestLongSide)) {
+                    best = i;
+                    bestShortSide = shortSide;
+                    bestLongSide = longSide;
+                }
+            }
+
+            if (best < 0) {
+                continue;
+            }
+
+            var rectX = freeRects.x[best];
+            var rectY = freeRects.y[best];
+
+            x[index] = rectX;
+            y[index] = rectY;
+            placed[index] = true;
+            result++;
+
+            split(freeRects, newRects, rectX, rectY, width, height);
+        }
+
+        return result;
+    }
+
+    /**
+     * Split all free rects which intersect the used rect to maximal free rects around it.
+     *
+     * @param freeRects  the free rects.
+     * @param newRects   the buffer for new free rects.
+     * @param usedX      the X position of the used rect.
+     * @param usedY      the Y position of the used rect.
+     * @param usedWidth  the width of the used rect.
+     * @param usedHeight the height of the used rect.
+     */
+    private static void split(
+            @NotNull FreeRects freeRects,
+            @NotNull FreeRects newRects,
+            int usedX,
+            int usedY,
+            int usedWidth,
+            int usedHeight
+    ) {
+
+        newRects.size = 0;
+
+        var usedRight = usedX + usedWidth;
+        var usedBottom = usedY + usedHeight;
+
+        for (int i = 0; i < freeRects.size; ) {
+
+            var freeX = freeRects.x[i];
+            var freeY = freeRects.y[i];
+            var freeRight = freeX + freeRects.width[i];
+            var freeBottom = freeY + freeRects.height[i];
+
+            if (usedX >= freeRight || usedRight <= freeX || usedY >= freeBottom || usedBottom <= freeY) {
+                i++;
+                continue;
+            }
+
+            if (usedX > freeX) {
+                newRects.add(freeX, freeY, usedX - freeX, freeBottom - freeY);
+            }
+            if (usedRight < freeRight) {
+                newRects.add(usedRight, freeY, freeRight - usedRight, freeBottom - freeY);
+            }
+            if (usedY > freeY) {
+                newRects.add(freeX, freeY, freeRight - freeX, usedY - freeY);
+            }
+            if (usedBottom < freeBottom) {
+                newRects.add(freeX, usedBottom, freeRight - freeX, freeBottom - usedBottom);
+            }
+
+            freeRects.fastRemove(i);
+        }
+
+        // only new free rects can be contained in other ones or contain old free rects
+        for (int i = 0; i < newRects.size; i++) {
+
+            var rectX = newRects.x[i];
+            var rectY = newRects.y[i];
+            var rectWidth = newRects.width[i];
+            var rectHeight = newRects.height[i];
+
+            if (rectWidth < 1 || rectHeight < 1) {
+                continue;
+            }
+
+            var contained = false;
+
+            for (int j = 0; j < freeRects.size && !contained; j++) {
+                contained = freeRects.contains(j, rectX, rectY, rectWidth, rectHeight);
+            }
+
+            for (int j = 0; j < newRects.size && !contained; j++) {
+                contained = j != i && newRects.width[j] > 0 &&
+                        newRects.contains(j, rectX, rectY, rectWidth, rectHeight) &&
+                        (j < i || !isSame(newRects, i, j));
+            }
+
+            if (contained) {
+                // mark the rect as removed
+                newRects.width[i] = 0;
+                continue;
+            }
+
+            for (int j = 0; j < freeRects.size; ) {
+                if (newRects.contains(i, freeRects.x[j], freeRects.y[j], freeRects.width[j], freeRects.height[j])) {
+                    freeRects.fastRemove(j);
+                } else {
+                    j++;
+                }
+            }
+        }
+
+        for (int i = 0; i < newRects.size; i++) {
+            if (newRects.width[i] > 0) {
+                freeRects.add(newRects.x[i], newRects.y[i], newRects.width[i], newRects.height[i]);
+            }
+        }
+    }
+
+    /**
+     * Check of the two free rects are the same.
+     *
+     * @param rects  the free rects.
+     * @param first  the index of the first rect.
+     * @param second the index of the second rect.
+     * @return true if the rects are the same.
+     */
+    private static boolean isSame(@NotNull FreeRects rects, int first, int second) {
+        return rects.x[first] == rects.x[second] && rects.y[first] == rects.y[second] &&
+                rects.width[first] == rects.width[second] && rects.height[first] == rects.height[second];
+    }
+}
@@ -0,0 +1,89 @@
+package com.ss.editor.font.generator.core.pack;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The utility methods of packers.
+ *
+ * @author JavaSaBr
+ */
+final class PackerUtils {
+
+    /**
+     * Sort the indices of rects by their heights and then by their widths in the descending order, the sort is
+     * stable, so rects of the same size keep the given order.
+     *
+     * @param widths  the widths of rects.
+     * @param heights the heights of rects.
+     * @param indices the indices of rects.
+     * @param count   the count of indices.
+     * @return the new sorted array of indices.
+     */
+    static @NotNull int[] sortByHeight(@NotNull int[] widths, @NotNull int[] heights, @NotNull int[] indices, int count) {
+
+        var keys = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            var index = indices[i];
+            // the inverted size goes to the high bits and the position goes to the low bits to keep stability
+            var size = ((long) (0xFFFF - Math.min(heights[index], 0xFFFF)) << 16) |
+                    (0xFFFF - Math.min(widths[index], 0xFFFF));
+            keys[i] = (size << 32) | i;
+        }
+
+        Arrays.sort(keys);
+
+        var result = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            result[i] = indices[(int) (keys[i] & 0xFFFFFFFFL)];
+        }
+
+        return result;
+    }
+
+    /**
+     * Place empty rects to the atlas origin, they don't take any space.
+     *
+     * @param widths  the widths of rects.
+     * @param heights the heights of rects.
+     * @param indices the indices of rects.
+     * @param count   the count of indices.
+     * @param x       the X positions of placed rects.
+     * @param y       the Y positions of placed rects.
+     * @param placed  the flags of placed rects.
+     * @return the count of placed empty rects.
+     */
+    static int placeEmpty(
+            @NotNull int[] widths,
+            @NotNull int[] heights,
+            @NotNull int[] indices,
+            int count,
+            @NotNull int[] x,
+            @NotNull int[] y,
+            @NotNull boolean[] placed
+    ) {
+
+        var result = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            var index = indices[i];
+
+            if (widths[index] < 1 || heights[index] < 1) {
+                x[index] = 0;
+                y[index] = 0;
+                placed[index] = true;
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    private PackerUtils() {
+        throw new RuntimeException();
+    }
+}
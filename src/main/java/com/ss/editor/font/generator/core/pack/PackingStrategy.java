@@ -0,0 +1,81 @@
+package com.ss.editor.font.generator.core.pack;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The list of available strategies to pack glyphs to an atlas.
+ *
+ * @author JavaSaBr
+ */
+public enum PackingStrategy {
+
+    /**
+     * Fill shelves in the order of glyphs.
+     */
+    SHELF("Shelf", new ShelfPacker()),
+
+    /**
+     * Put glyphs to the lowest position of the skyline.
+     */
+    SKYLINE("Skyline", new SkylinePacker()),
+
+    /**
+     * Put glyphs to the best fitting maximal free rect.
+     */
+    MAX_RECTS("MaxRects", new MaxRectsPacker());
+
+    private static final PackingStrategy[] VALUES = values();
+
+    /**
+     * Find a strategy by its name or its title.
+     *
+     * @param name the name or the title of a strategy.
+     * @return the found strategy or null.
+     */
+    public static @Nullable PackingStrategy find(@NotNull String name) {
+
+        for (var strategy : VALUES) {
+            if (strategy.name().equalsIgnoreCase(name) || strategy.title.equalsIgnoreCase(name)) {
+                return strategy;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The title of this strategy.
+     */
+    @NotNull
+    private final String title;
+
+    /**
+     * The packer of this strategy.
+     */
+    @NotNull
+    private final AtlasPacker packer;
+
+    PackingStrategy(@NotNull String title, @NotNull AtlasPacker packer) {
+        this.title = title;
+        this.packer = packer;
+    }
+
+    /**
+     * Get the title of this strategy.
+     *
+     * @return the title of this strategy.
+     */
+    public @NotNull String getTitle() {
+        return title;
+    }
+
+    /**
+     * Get the packer of this strategy.
+     *
+     * @return the packer of this strategy.
+     */
+    public @NotNull AtlasPacker getPacker() {
+        return packer;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ss.editor.font.generator.core.pack;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The packer which fills shelves left to right in the given order of rects, a shelf is as high as its highest
+ * rect. It keeps the order of glyphs in the atlas, but wastes space when heights of glyphs are different.
+ *
+ * @author JavaSaBr, normenhansen
+ */
+public class ShelfPacker implements AtlasPacker {
+
+    @Override
+    public int pack(
+            @NotNull int[] widths,
+            @NotNull int[] heights,
+            @NotNull int[] indices,
+            int count,
+            int atlasWidth,
+            int atlasHeight,
+            @NotNull int[] x,
+            @NotNull int[] y,
+            @NotNull boolean[] placed
+    ) {
+
+        var xPos = 0;
+        var yPos = 0;
+        var shelfHeight = 0;
+        var result = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            var index = indices[i];
+            var width = widths[index];
+            var height = heights[index];
+
+            if (width > atlasWidth || height > atlasHeight) {
+                continue;
+            }
+
+            if (xPos + width > atlasWidth) {
+                xPos = 0;
+                yPos += shelfHeight;
+                shelfHeight = 0;
+            }
+
+            if (yPos + height > atlasHeight) {
+                break;
+            }
+
+            x[index] = xPos;
+            y[index] = yPos;
+            placed[index] = true;
+
+            xPos += width;
+            shelfHeight = Math.max(shelfHeight, height);
+            result++;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,197 @@
+package com.ss.editor.font.generator.core.pack;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The packer which keeps the skyline of placed rects and puts every next rect to the lowest position of the
+ * skyline (the bottom-left rule). Rects are packed from the highest to the lowest one. It's fast and packs
+ * glyphs of similar heights well.
+ *
+ * @author JavaSaBr
+ */
+public class SkylinePacker implements AtlasPacker {
+
+    @Override
+    public int pack(
+            @NotNull int[] widths,
+            @NotNull int[] heights,
+            @NotNull int[] indices,
+            int count,
+            int atlasWidth,
+            int atlasHeight,
+            @NotNull int[] x,
+            @NotNull int[] y,
+            @NotNull boolean[] placed
+    ) {
+
+        var result = PackerUtils.placeEmpty(widths, heights, indices, count, x, y, placed);
+        var sorted = PackerUtils.sortByHeight(widths, heights, indices, count);
+
+        // the skyline is a list of horizontal segments which cover the whole width of the atlas
+        var nodeX = new int[16];
+        var nodeY = new int[16];
+        var nodeWidth = new int[16];
+        nodeWidth[0] = atlasWidth;
+        var nodes = 1;
+
+        for (var index : sorted) {
+
+            var width = widths[index];
+            var height = heights[index];
+
+            if (width < 1 || height < 1) {
+                continue;
+            }
+
+            var bestNode = -1;
+            var bestBottom = Integer.MAX_VALUE;
+            var bestWidth = Integer.MAX_VALUE;
+            var bestY = 0;
+
+            for (int i = 0; i < nodes; i++) {
+
+                var top = fit(nodeX, nodeY, nodeWidth, i, width, height, atlasWidth, atlasHeight);
+                if (top < 0) {
+                    continue;
+                }
+
+                var bottom = top + height;
+
+                if (bottom < bestBottom || (bottom == bestBottom && nodeWidth[i] < bestWidth)) {
+                    bestNode = i;
+                    bestBottom = bottom;
+                    bestWidth = nodeWidth[i];
+                    bestY = top;
+                }
+            }
+
+            if (bestNode < 0) {
+                continue;
+            }
+
+            var left = nodeX[bestNode];
+
+            x[index] = left;
+            y[index] = bestY;
+            placed[index] = true;
+            result++;
+
+            if (nodes == nodeX.length) {
+                nodeX = Arrays.copyOf(nodeX, nodes * 2);
+                nodeY = Arrays.copyOf(nodeY, nodes * 2);
+                nodeWidth = Arrays.copyOf(nodeWidth, nodes * 2);
+            }
+
+            // insert the new segment over the placed rect
+            System.arraycopy(nodeX, bestNode, nodeX, bestNode + 1, nodes - bestNode);
+            System.arraycopy(nodeY, bestNode, nodeY, bestNode + 1, nodes - bestNode);
+            System.arraycopy(nodeWidth, bestNode, nodeWidth, bestNode + 1, nodes - bestNode);
+            nodeX[bestNode] = left;
+            nodeY[bestNode] = bestBottom;
+            nodeWidth[bestNode] = width;
+            nodes++;
+
+            // cut the segments which are covered by the new one
+            var right = left + width;
+
+            for (int i = bestNode + 1; i < nodes; ) {
+
+                if (nodeX[i] >= right) {
+                    break;
+                }
+
+                var shrink = right - nodeX[i];
+
+                if (nodeWidth[i] > shrink) {
+                    nodeX[i] += shrink;
+                    nodeWidth[i] -= shrink;
+                    break;
+                }
+
+                removeNode(nodeX, nodeY, nodeWidth, i, nodes);
+                nodes--;
+            }
+
+            // merge neighbour segments of the same height
+            for (int i = 0; i < nodes - 1; ) {
+                if (nodeY[i] == nodeY[i + 1]) {
+                    nodeWidth[i] += nodeWidth[i + 1];
+                    removeNode(nodeX, nodeY, nodeWidth, i + 1, nodes);
+                    nodes--;
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Find the top of a rect which is placed at the left of the segment.
+     *
+     * @param nodeX       the X positions of segments.
+     * @param nodeY       the Y positions of segments.
+     * @param nodeWidth   the widths of segments.
+     * @param node        the segment.
+     * @param width       the width of the rect.
+     * @param height      the height of the rect.
+     * @param atlasWidth  the width of the atlas.
+     * @param atlasHeight the height of the atlas.
+     * @return the top of the rect or -1 if it doesn't fit.
+     */
+    private static int fit(
+            @NotNull int[] nodeX,
+            @NotNull int[] nodeY,
+            @NotNull int[] nodeWidth,
+            int node,
+            int width,
+            int height,
+            int atlasWidth,
+            int atlasHeight
+    ) {
+
+        if (nodeX[node] + width > atlasWidth) {
+            return -1;
+        }
+
+        var top = 0;
+        var widthLeft = width;
+
+        for (int i = node; widthLeft > 0; i++) {
+
+            top = Math.max(top, nodeY[i]);
+
+            if (top + height > atlasHeight) {
+                return -1;
+            }
+
+            widthLeft -= nodeWidth[i];
+        }
+
+        return top;
+    }
+
+    /**
+     * Remove the segment of the skyline.
+     *
+     * @param nodeX     the X positions of segments.
+     * @param nodeY     the Y positions of segments.
+     * @param nodeWidth the widths of segments.
+     * @param node      the segment to remove.
+     * @param nodes     the count of segments.
+     */
+    private static void removeNode(
+            @NotNull int[] nodeX,
+            @NotNull int[] nodeY,
+            @NotNull int[] nodeWidth,
+            int node,
+            int nodes
+    ) {
+        System.arraycopy(nodeX, node + 1, nodeX, node, nodes - node - 1);
+        System.arraycopy(nodeY, node + 1, nodeY, node, nodes - node - 1);
+        System.arraycopy(nodeWidth, node + 1, nodeWidth, node, nodes - node - 1);
+    }
+}
@@ -2,32 +2,39 @@ package com.ss.editor.font.generator.creator;
 
 import static com.ss.editor.extension.property.EditablePropertyType.*;
 import static com.ss.rlib.common.util.ObjectUtils.notNull;
-import com.ss.editor.FileExtensions;
 import com.ss.editor.annotation.FromAnyThread;
 import com.ss.editor.annotation.FxThread;
 import com.ss.editor.font.generator.FontGeneratorEditorPlugin;
 import com.ss.editor.font.generator.PluginMessages;
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.AtlasFormat;
+import com.ss.editor.font.generator.core.AtlasOverflowException;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.CharacterSet;
+import com.ss.editor.font.generator.core.FontFamily;
+import com.ss.editor.font.generator.core.FontOutputCache;
+import com.ss.editor.font.generator.core.ImageFormat;
+import com.ss.editor.font.generator.core.PngEncoder;
+import com.ss.editor.font.generator.core.PngFilter;
+import com.ss.editor.font.generator.core.pack.PackingStrategy;
 import com.ss.editor.plugin.api.file.creator.GenericFileCreator;
 import com.ss.editor.plugin.api.property.PropertyDefinition;
 import com.ss.editor.ui.component.creator.FileCreatorDescription;
 import com.ss.editor.util.EditorUtil;
-import com.ss.rlib.common.util.FileUtils;
 import com.ss.rlib.common.util.VarTable;
 import com.ss.rlib.common.util.array.Array;
 import com.ss.rlib.common.util.array.ArrayFactory;
-import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
-import java.awt.font.TextLayout;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 /**
  * The implementation of bitmap font generation which was took from
@@ -37,8 +44,11 @@ import java.nio.file.Files;
  */
 public class BitmapFontFileCreator extends GenericFileCreator {
 
-    private static final Color OPAQUE_WHITE = new Color(0xFFFFFFFF, true);
-    private static final Color TRANSPARENT_BLACK = new Color(0x00000000, true);
+    private static final BitmapFontGenerator GENERATOR =
+            new BitmapFontGenerator(Runtime.getRuntime().availableProcessors());
+
+    private static final FontOutputCache OUTPUT_CACHE =
+            new FontOutputCache(FontOutputCache.getDefaultFolder(), 256 * 1024 * 1024);
 
     private static final String PROP_FONT = "font";
     private static final String PROP_IMAGE_SIZE = "imageSize";
@@ -48,9 +58,54 @@ public class BitmapFontFileCreator extends GenericFileCreator {
     private static final String PROP_PADDING_Y = "paddingY";
     private static final String PROP_FIRST_CHAR = "firstChar";
     private static final String PROP_LAST_CHAR = "lastChar";
+    private static final String PROP_CHARACTERS = "characters";
     private static final String PROP_LETTER_SPACING = "letterSpacing";
+    private static final String PROP_PACKING_STRATEGY = "packingStrategy";
+    private static final String PROP_AUTO_IMAGE_SIZE = "autoImageSize";
+    private static final String PROP_NON_SQUARE_IMAGE = "nonSquareImage";
+    private static final String PROP_MAX_PAGES = "maxPages";
+    private static final String PROP_DEDUPLICATE_GLYPHS = "deduplicateGlyphs";
+    private static final String PROP_ATLAS_FORMAT = "atlasFormat";
+    private static final String PROP_IMAGE_FORMAT = "imageFormat";
+    private static final String PROP_BINARY_DESCRIPTION = "binaryDescription";
+    private static final String PROP_KERNING = "kerning";
+    private static final String PROP_DISTANCE_FIELD = "distanceField";
+    private static final String PROP_DISTANCE_FIELD_SPREAD = "distanceFieldSpread";
+    private static final String PROP_FAMILY_SIZES = "familySizes";
+    private static final String PROP_FAMILY_STYLES = "familyStyles";
+    private static final String PROP_SHARED_ATLAS = "sharedAtlas";
+    private static final String PROP_COMPRESSION_LEVEL = "compressionLevel";
+    private static final String PROP_PNG_FILTER = "pngFilter";
+
+    private static final Array<String> FONT_STYLES = ArrayFactory.asArray(BitmapFontSettings.STYLE_PLAIN,
+            BitmapFontSettings.STYLE_ITALIC, BitmapFontSettings.STYLE_BOLD);
+
+    private static final Array<String> PACKING_STRATEGIES = ArrayFactory.newArray(String.class);
+
+    private static final Array<String> ATLAS_FORMATS = ArrayFactory.newArray(String.class);
+
+    private static final Array<String> IMAGE_FORMATS = ArrayFactory.newArray(String.class);
+
+    private static final Array<String> PNG_FILTERS = ArrayFactory.newArray(String.class);
 
-    private static final Array<String> FONT_STYLES = ArrayFactory.asArray("Plain", "Italic", "Bold");
+    static {
+
+        for (var strategy : PackingStrategy.values()) {
+            PACKING_STRATEGIES.add(strategy.getTitle());
+        }
+
+        for (var format : AtlasFormat.values()) {
+            ATLAS_FORMATS.add(format.getTitle());
+        }
+
+        for (var format : ImageFormat.values()) {
+            IMAGE_FORMATS.add(format.getTitle());
+        }
+
+        for (var filter : PngFilter.values()) {
+            PNG_FILTERS.add(filter.getTitle());
+        }
+    }
 
     public static final FileCreatorDescription DESCRIPTION = new FileCreatorDescription();
 
@@ -65,12 +120,27 @@ public class BitmapFontFileCreator extends GenericFileCreator {
     @Nullable
     private ImageView imageView;
 
+    /**
+     * The renderer of previews of font.
+     */
+    @Nullable
+    private FontPreviewRenderer previewRenderer;
+
+    /**
+     * The settings of the current preview of font.
+     */
+    @Nullable
+    private BitmapFontSettings previewSettings;
+
     @Override
     @FxThread
     protected void createPreview(@NotNull BorderPane container) {
         super.createPreview(container);
         imageView = new ImageView();
+        previewRenderer = new FontPreviewRenderer(this::showPreview);
         container.setCenter(imageView);
+        container.widthProperty().addListener((observable, oldValue, newValue) -> requestPreview());
+        container.heightProperty().addListener((observable, oldValue, newValue) -> requestPreview());
     }
 
     /**
@@ -83,6 +153,16 @@ public class BitmapFontFileCreator extends GenericFileCreator {
         return notNull(imageView);
     }
 
+    /**
+     * Get the renderer of previews of font.
+     *
+     * @return the renderer of previews of font.
+     */
+    @FxThread
+    private @NotNull FontPreviewRenderer getPreviewRenderer() {
+        return notNull(previewRenderer);
+    }
+
     @Override
     @FromAnyThread
     protected boolean needPreview() {
@@ -99,9 +179,30 @@ public class BitmapFontFileCreator extends GenericFileCreator {
         result.add(new PropertyDefinition(INTEGER, PluginMessages.FONT_GENERATOR_PROP_FONT_SIZE,
                 PROP_FONT_SIZE, 16, 4, 128));
         result.add(new PropertyDefinition(STRING_FROM_LIST, PluginMessages.FONT_GENERATOR_PROP_FONT_STYLE,
-                PROP_FONT_STYLE, "Plain", FONT_STYLES));
+                PROP_FONT_STYLE, BitmapFontSettings.STYLE_PLAIN, FONT_STYLES));
         result.add(new PropertyDefinition(INTEGER, PluginMessages.FONT_GENERATOR_PROP_IMAGE_SIZE,
                 PROP_IMAGE_SIZE, 256, 32, 4096));
+        result.add(new PropertyDefinition(BOOLEAN, PluginMessages.FONT_GENERATOR_PROP_AUTO_IMAGE_SIZE,
+                PROP_AUTO_IMAGE_SIZE, false));
+        result.add(new PropertyDefinition(BOOLEAN, PluginMessages.FONT_GENERATOR_PROP_NON_SQUARE_IMAGE,
+                PROP_NON_SQUARE_IMAGE, false));
+        result.add(new PropertyDefinition(INTEGER, PluginMessages.FONT_GENERATOR_PROP_MAX_PAGES,
+                PROP_MAX_PAGES, 1, 1, 64));
+        result.add(new PropertyDefinition(BOOLEAN, PluginMessages.FONT_GENERATOR_PROP_DEDUPLICATE_GLYPHS,
+                PROP_DEDUPLICATE_GLYPHS, false));
+        result.add(new PropertyDefinition(STRING_FROM_LIST, PluginMessages.FONT_GENERATOR_PROP_ATLAS_FORMAT,
+                PROP_ATLAS_FORMAT, AtlasFormat.RGBA.getTitle(), ATLAS_FORMATS));
+        result.add(new PropertyDefinition(STRING_FROM_LIST, PluginMessages.FONT_GENERATOR_PROP_IMAGE_FORMAT,
+                PROP_IMAGE_FORMAT, ImageFormat.PNG.getTitle(), IMAGE_FORMATS));
+        result.add(new PropertyDefinition(BOOLEAN, PluginMessages.FONT_GENERATOR_PROP_BINARY_DESCRIPTION,
+                PROP_BINARY_DESCRIPTION, false));
+        result.add(new PropertyDefinition(BOOLEAN, PluginMessages.FONT_GENERATOR_PROP_KERNING, PROP_KERNING, false));
+        result.add(new PropertyDefinition(BOOLEAN, PluginMessages.FONT_GENERATOR_PROP_DISTANCE_FIELD,
+                PROP_DISTANCE_FIELD, false));
+        result.add(new PropertyDefinition(INTEGER, PluginMessages.FONT_GENERATOR_PROP_DISTANCE_FIELD_SPREAD,
+                PROP_DISTANCE_FIELD_SPREAD, 4, 1, 32));
+        result.add(new PropertyDefinition(STRING_FROM_LIST, PluginMessages.FONT_GENERATOR_PROP_PACKING_STRATEGY,
+                PROP_PACKING_STRATEGY, PackingStrategy.MAX_RECTS.getTitle(), PACKING_STRATEGIES));
         result.add(new PropertyDefinition(INTEGER, PluginMessages.FONT_GENERATOR_PROP_PADDING_X,
                 PROP_PADDING_X, 0, -10, 10));
         result.add(new PropertyDefinition(INTEGER, PluginMessages.FONT_GENERATOR_PROP_PADDING_Y,
@@ -112,6 +213,19 @@ public class BitmapFontFileCreator extends GenericFileCreator {
                 PROP_FIRST_CHAR, 0, 0, Character.MAX_CODE_POINT));
         result.add(new PropertyDefinition(INTEGER, PluginMessages.FONT_GENERATOR_PROP_LAST_CHAR,
                 PROP_LAST_CHAR, 256, 0, Character.MAX_CODE_POINT));
+        result.add(new PropertyDefinition(STRING, PluginMessages.FONT_GENERATOR_PROP_CHARACTERS,
+                PROP_CHARACTERS, ""));
+        result.add(new PropertyDefinition(STRING, PluginMessages.FONT_GENERATOR_PROP_FAMILY_SIZES,
+                PROP_FAMILY_SIZES, ""));
+        result.add(new PropertyDefinition(STRING, PluginMessages.FONT_GENERATOR_PROP_FAMILY_STYLES,
+                PROP_FAMILY_STYLES, ""));
+        result.add(new PropertyDefinition(BOOLEAN, PluginMessages.FONT_GENERATOR_PROP_SHARED_ATLAS,
+                PROP_SHARED_ATLAS, false));
+        result.add(new PropertyDefinition(INTEGER, PluginMessages.FONT_GENERATOR_PROP_COMPRESSION_LEVEL,
+                PROP_COMPRESSION_LEVEL, PngEncoder.DEFAULT_COMPRESSION_LEVEL, PngEncoder.MIN_COMPRESSION_LEVEL,
+                PngEncoder.MAX_COMPRESSION_LEVEL));
+        result.add(new PropertyDefinition(STRING_FROM_LIST, PluginMessages.FONT_GENERATOR_PROP_PNG_FILTER,
+                PROP_PNG_FILTER, PngFilter.ADAPTIVE.getTitle(), PNG_FILTERS));
 
         return result;
     }
@@ -120,46 +234,95 @@ public class BitmapFontFileCreator extends GenericFileCreator {
     @FxThread
     protected boolean validate(@NotNull VarTable vars) {
 
+        var renderer = getPreviewRenderer();
+
         if (!vars.has(PROP_FONT)) {
+            previewSettings = null;
+            renderer.cancel();
             return false;
         }
 
         var fontStyle = getFontStyle(vars);
         if (fontStyle == -1) {
+            previewSettings = null;
+            renderer.cancel();
             return false;
         }
 
-        var font = vars.get(PROP_FONT, Font.class);
-        var imageSize = vars.getInteger(PROP_IMAGE_SIZE);
-        var fontSize = vars.getInteger(PROP_FONT_SIZE);
-        var paddingX = vars.getInteger(PROP_PADDING_X);
-        var paddingY = vars.getInteger(PROP_PADDING_Y);
-        var firstChar = (char) vars.getInteger(PROP_FIRST_CHAR);
-        var lastChar = (char) vars.getInteger(PROP_LAST_CHAR);
+        try {
+            getCharacterSet(vars);
+            getFamily(vars);
+        } catch (IllegalArgumentException e) {
+            previewSettings = null;
+            renderer.cancel();
+            return false;
+        }
 
-        var image = buildImage(font.getFontName(), imageSize, fontSize, fontStyle, paddingX, paddingY,
-                firstChar, lastChar, true);
+        var settings = toSettings(vars);
 
-        var previewContainer = notNull(getPreviewContainer());
+        // channels of packed pages can't be block-compressed independently
+        if (settings.getImageFormat() == ImageFormat.DDS && settings.getAtlasFormat().isPacked()) {
+            previewSettings = null;
+            renderer.cancel();
+            return false;
+        }
 
-        var imageView = getImageView();
-        imageView.setImage(SwingFXUtils.toFXImage(image, null));
+        previewSettings = settings;
+        requestPreview();
 
-        if (imageSize + 12 > previewContainer.getWidth()) {
+        return super.validate(vars);
+    }
 
-            imageView.fitWidthProperty()
-                    .bind(previewContainer.widthProperty().subtract(12));
-            imageView.fitHeightProperty()
-                    .bind(previewContainer.heightProperty().subtract(12));
+    /**
+     * Request rendering the preview of font which fits the preview container in its pixels.
+     */
+    @FxThread
+    private void requestPreview() {
 
-        } else {
-            imageView.fitWidthProperty().unbind();
-            imageView.setFitWidth(0);
-            imageView.fitHeightProperty().unbind();
-            imageView.setFitHeight(0);
+        var settings = previewSettings;
+        var previewContainer = getPreviewContainer();
+
+        if (settings == null || previewContainer == null) {
+            return;
         }
 
-        return super.validate(vars);
+        var outputScale = getOutputScale(previewContainer);
+        var width = (int) ((previewContainer.getWidth() - 12) * outputScale);
+        var height = (int) ((previewContainer.getHeight() - 12) * outputScale);
+
+        getPreviewRenderer().request(settings, width, height);
+    }
+
+    /**
+     * Show the rendered preview of font.
+     *
+     * @param image the rendered preview.
+     */
+    @FxThread
+    private void showPreview(@NotNull Image image) {
+
+        var imageView = getImageView();
+        var outputScale = getOutputScale(imageView);
+
+        // the preview is rendered in pixels of the screen, so it's shown without scaling
+        imageView.setImage(image);
+        imageView.setFitWidth(image.getWidth() / outputScale);
+        imageView.setFitHeight(image.getHeight() / outputScale);
+    }
+
+    /**
+     * Get the scale of the output of the window of the node.
+     *
+     * @param node the node.
+     * @return the scale of the output or 1 if the node isn't shown.
+     */
+    @FxThread
+    private double getOutputScale(@NotNull Node node) {
+
+        var scene = node.getScene();
+        var window = scene == null ? null : scene.getWindow();
+
+        return window == null ? 1 : window.getOutputScaleX();
     }
 
     /**
@@ -170,19 +333,108 @@ public class BitmapFontFileCreator extends GenericFileCreator {
      */
     @FromAnyThread
     private int getFontStyle(@NotNull VarTable vars) {
+        return BitmapFontSettings.toFontStyle(vars.getString(PROP_FONT_STYLE));
+    }
+
+    /**
+     * Get the set of characters.
+     *
+     * @param vars the variables.
+     * @return the set of characters or null if the range from the first char to the last char is used.
+     * @throws IllegalArgumentException if the set of characters is invalid.
+     */
+    @FromAnyThread
+    private @Nullable CharacterSet getCharacterSet(@NotNull VarTable vars) {
+
+        var characters = vars.getString(PROP_CHARACTERS, "");
+
+        if (characters.trim().isEmpty()) {
+            return null;
+        }
+
+        return CharacterSet.parse(characters);
+    }
+
+    /**
+     * Get the sizes and styles of the font family, the missing one of them is taken from the font size or style.
+     *
+     * @param vars the variables.
+     * @return the font family or null if one font is generated.
+     * @throws IllegalArgumentException if the sizes or styles are invalid.
+     */
+    @FromAnyThread
+    private @Nullable FontFamily getFamily(@NotNull VarTable vars) {
+
+        var sizes = vars.getString(PROP_FAMILY_SIZES, "");
+        var styles = vars.getString(PROP_FAMILY_STYLES, "");
+
+        if (sizes.trim().isEmpty() && styles.trim().isEmpty()) {
+            return null;
+        } else if (sizes.trim().isEmpty()) {
+            sizes = String.valueOf(vars.getInteger(PROP_FONT_SIZE));
+        } else if (styles.trim().isEmpty()) {
+            styles = vars.getString(PROP_FONT_STYLE);
+        }
+
+        return FontFamily.parse(sizes, styles);
+    }
+
+    /**
+     * Convert the variables to settings of font generation.
+     *
+     * @param vars the variables.
+     * @return the settings of font generation.
+     */
+    @FromAnyThread
+    private @NotNull BitmapFontSettings toSettings(@NotNull VarTable vars) {
+
+        var font = vars.get(PROP_FONT, Font.class);
 
-        var fontStyle = vars.getString(PROP_FONT_STYLE);
-
-        switch (fontStyle) {
-            case "Plain":
-                return Font.PLAIN;
-            case "Italic":
-                return Font.ITALIC;
-            case "Bold":
-                return Font.BOLD;
-            default:
-                return -1;
+        var settings = new BitmapFontSettings(font.getFontName());
+        settings.setFontStyle(getFontStyle(vars));
+        settings.setFontSize(vars.getInteger(PROP_FONT_SIZE));
+        settings.setImageSize(vars.getInteger(PROP_IMAGE_SIZE));
+        settings.setPaddingX(vars.getInteger(PROP_PADDING_X));
+        settings.setPaddingY(vars.getInteger(PROP_PADDING_Y));
+        settings.setLetterSpacing(vars.getInteger(PROP_LETTER_SPACING));
+        settings.setFirstChar(vars.getInteger(PROP_FIRST_CHAR));
+        settings.setLastChar(vars.getInteger(PROP_LAST_CHAR));
+        settings.setCharacterSet(getCharacterSet(vars));
+        settings.setAutoImageSize(vars.getBoolean(PROP_AUTO_IMAGE_SIZE));
+        settings.setNonSquareImage(vars.getBoolean(PROP_NON_SQUARE_IMAGE));
+        settings.setMaxPages(vars.getInteger(PROP_MAX_PAGES));
+        settings.setDeduplicateGlyphs(vars.getBoolean(PROP_DEDUPLICATE_GLYPHS));
+        settings.setBinaryDescription(vars.getBoolean(PROP_BINARY_DESCRIPTION));
+        settings.setKerning(vars.getBoolean(PROP_KERNING));
+        settings.setDistanceField(vars.getBoolean(PROP_DISTANCE_FIELD));
+        settings.setDistanceFieldSpread(vars.getInteger(PROP_DISTANCE_FIELD_SPREAD));
+        settings.setCompressionLevel(vars.getInteger(PROP_COMPRESSION_LEVEL));
+
+        var packingStrategy = PackingStrategy.find(vars.getString(PROP_PACKING_STRATEGY));
+
+        if (packingStrategy != null) {
+            settings.setPackingStrategy(packingStrategy);
         }
+
+        var atlasFormat = AtlasFormat.find(vars.getString(PROP_ATLAS_FORMAT));
+
+        if (atlasFormat != null) {
+            settings.setAtlasFormat(atlasFormat);
+        }
+
+        var imageFormat = ImageFormat.find(vars.getString(PROP_IMAGE_FORMAT));
+
+        if (imageFormat != null) {
+            settings.setImageFormat(imageFormat);
+        }
+
+        var pngFilter = PngFilter.find(vars.getString(PROP_PNG_FILTER));
+
+        if (pngFilter != null) {
+            settings.setPngFilter(pngFilter);
+        }
+
+        return settings;
     }
 
     @Override
@@ -202,230 +454,72 @@ public class BitmapFontFileCreator extends GenericFileCreator {
     protected void processOk() {
         super.processOk();
 
-        var fontFile = notNull(getFileToCreate());
-        var filename = FileUtils.getNameWithoutExtension(fontFile);
-
-        var parent = fontFile.getParent();
-        var imageFile = parent.resolve(filename + "." + FileExtensions.IMAGE_PNG);
+        getPreviewRenderer().cancel();
 
+        var fontFile = notNull(getFileToCreate());
         var vars = getVars();
-        var font = vars.get(PROP_FONT, Font.class);
-        var imageSize = vars.getInteger(PROP_IMAGE_SIZE);
-        var fontSize = vars.getInteger(PROP_FONT_SIZE);
-        var paddingX = vars.getInteger(PROP_PADDING_X);
-        var paddingY = vars.getInteger(PROP_PADDING_Y);
-        var letterSpacing = vars.getInteger(PROP_LETTER_SPACING);
-        var fontStyle = getFontStyle(vars);
-        var firstChar = (char) vars.getInteger(PROP_FIRST_CHAR);
-        var lastChar = (char) vars.getInteger(PROP_LAST_CHAR);
+        var settings = toSettings(vars);
+        var family = getFamily(vars);
 
-        var image = buildImage(font.getFontName(), imageSize, fontSize, fontStyle, paddingX, paddingY,
-                firstChar, lastChar, false);
+        List<Path> files;
+        try {
 
-        var description = buildDescription(font.getFontName(), imageFile.getFileName().toString(), imageSize,
-                fontSize, fontStyle, paddingX, paddingY, letterSpacing, firstChar, lastChar);
+            // families aren't cached, because their files depend on all variants
+            if (family != null) {
+                generateFamily(settings, family, fontFile, vars.getBoolean(PROP_SHARED_ATLAS));
+                return;
+            }
 
-        try (var out = new PrintWriter(Files.newOutputStream(fontFile))) {
-            out.print(description);
-        } catch (IOException e) {
-            EditorUtil.handleException(LOGGER, this, e);
-            return;
-        }
+            var key = FontOutputCache.computeKey(settings, fontFile);
+            files = OUTPUT_CACHE.restore(key, fontFile);
 
-        notifyFileCreated(fontFile, true);
+            if (files == null) {
+                var metrics = GENERATOR.generate(settings, fontFile);
+                files = BitmapFontGenerator.getOutputFiles(fontFile, metrics.getPageCount(),
+                        settings.getImageFormat());
+                LOGGER.info(this, fontFile.getFileName() + ": " + metrics.toSummary());
+                OUTPUT_CACHE.store(key, files);
+            }
 
-        try (var out = Files.newOutputStream(imageFile)) {
-            ImageIO.write(image, "png", out);
-        } catch (IOException e) {
+        } catch (IOException | AtlasOverflowException e) {
             EditorUtil.handleException(LOGGER, this, e);
             return;
         }
 
-        notifyFileCreated(imageFile, false);
-    }
-
-    /**
-     * Build an image.
-     *
-     * @param fontName   the font name.
-     * @param bitmapSize the bitmap size.
-     * @param fontSize   the font size.
-     * @param style      the style.
-     * @param paddingX   the padding X.
-     * @param paddingY   the padding Y.
-     * @param firstChar  the first char.
-     * @param lastChar   the last char.
-     * @param debug      the debug.
-     * @return the image.
-     */
-    @FromAnyThread
-    private @NotNull BufferedImage buildImage(
-            @NotNull String fontName,
-            int bitmapSize,
-            int fontSize,
-            int style,
-            int paddingX,
-            int paddingY,
-            char firstChar,
-            char lastChar,
-            boolean debug
-    ) {
-
-        var font = new Font(fontName, style, fontSize);
-        var fontImage = new BufferedImage(bitmapSize, bitmapSize, BufferedImage.TYPE_4BYTE_ABGR);
-
-        var graphics = (Graphics2D) fontImage.getGraphics();
-        graphics.setFont(font);
-        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        graphics.setColor(OPAQUE_WHITE);
-        graphics.setBackground(TRANSPARENT_BLACK);
-
-        var fontRenderContext = graphics.getFontRenderContext();
-        var fontMetrics = graphics.getFontMetrics();
-
-        int xPos = 0;
-        int height = fontMetrics.getDescent() + fontMetrics.getAscent();
-        int yPos = height + (paddingY * 2);
-
-        for (int i = firstChar; i <= lastChar; i++) {
-
-            var ch = (char) i;
-            if (!font.canDisplay(ch)) {
-                continue;
-            }
-
-            var str = Character.toString(ch);
-            var textLayout = new TextLayout(str, font, fontRenderContext);
-            var pixelBounds = textLayout.getPixelBounds(fontRenderContext, xPos, yPos);
-
-            var width = (int) Math.ceil(pixelBounds.getWidth());
-            var xOffset = (int) Math.round(pixelBounds.getX()) - xPos;
-
-            if (xPos + width + (paddingX * 2) > bitmapSize) {
-                xPos = 0;
-                yPos += height + (paddingY * 2);
-            }
-
-            graphics.drawString(str, xPos + paddingX - xOffset, yPos + paddingY);
-
-            if (debug) {
-                graphics.setColor(Color.BLUE);
-                graphics.drawRect(xPos, yPos - fontMetrics.getAscent(),
-                        width + (paddingX * 2), height + (paddingY * 2));
-                graphics.setColor(Color.WHITE);
-            }
-
-            xPos += width + (paddingX * 2);
+        for (int i = 0; i < files.size(); i++) {
+            notifyFileCreated(files.get(i), i == 0);
         }
-
-        return fontImage;
     }
 
     /**
-     * Build an image.
+     * Generate all variants of the font family and notify about the created files.
      *
-     * @param fontName      the font name.
-     * @param fileName      the file name.
-     * @param bitmapSize    the bitmap size.
-     * @param fontSize      the font size.
-     * @param style         the style.
-     * @param paddingX      the padding X.
-     * @param paddingY      the padding Y.
-     * @param letterSpacing the letter spacing.
-     * @param firstChar     the first char.
-     * @param lastChar      the last char.
-     * @return the description.
+     * @param settings    the settings of the family.
+     * @param family      the sizes and styles of the family.
+     * @param fontFile    the font file of the family.
+     * @param sharedAtlas true if variants share one atlas.
+     * @throws IOException            if the files can't be written.
+     * @throws AtlasOverflowException if some glyphs don't fit the atlas.
      */
-    @FromAnyThread
-    private @NotNull String buildDescription(
-            @NotNull String fontName,
-            @NotNull String fileName,
-            int bitmapSize,
-            int fontSize,
-            int style,
-            int paddingX,
-            int paddingY,
-            int letterSpacing,
-            char firstChar,
-            char lastChar
-    ) {
-
-        var font = new Font(fontName, style, fontSize);
-        var locations = new StringBuilder();
-        var fontImage = new BufferedImage(bitmapSize, bitmapSize, BufferedImage.TYPE_4BYTE_ABGR);
-
-        var graphics = (Graphics2D) fontImage.getGraphics();
-        graphics.setFont(font);
-        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        graphics.setColor(OPAQUE_WHITE);
-        graphics.setBackground(TRANSPARENT_BLACK);
-
-        var fontRenderContext = graphics.getFontRenderContext();
-        var fontMetrics = graphics.getFontMetrics();
-
-        var xPos = 0;
-        var height = fontMetrics.getDescent() + fontMetrics.getAscent();
-        var yPos = height + (paddingY * 2);
-        var count = 0;
-
-        for (int i = firstChar; i <= lastChar; i++) {
-
-            var ch = (char) i;
-            if (!font.canDisplay(ch)) {
-                continue;
-            }
-
-            count++;
-
-            var str = Character.toString(ch);
-            var textLayout = new TextLayout(str, font, fontRenderContext);
-            var pixelBounds = textLayout.getPixelBounds(fontRenderContext, xPos, yPos);
-
-            var width = (int) Math.ceil(pixelBounds.getWidth());
-            var advance = (int) Math.ceil(textLayout.getAdvance());
-            var xOffset = (int) Math.round(pixelBounds.getX()) - xPos;
+    @FxThread
+    private void generateFamily(
+            @NotNull BitmapFontSettings settings,
+            @NotNull FontFamily family,
+            @NotNull Path fontFile,
+            boolean sharedAtlas
+    ) throws IOException {
+
+        var output = GENERATOR.generateFamily(settings, family, fontFile, sharedAtlas);
+        var fontFiles = output.getFontFiles();
+
+        for (int i = 0; i < fontFiles.size(); i++) {
+            LOGGER.info(this, fontFiles.get(i).getFileName() + ": " + output.getMetrics().get(i).toSummary());
+        }
 
-            if (xPos + width + (paddingX * 2) > bitmapSize) {
-                xPos = 0;
-                yPos += height + (paddingY * 2);
-            }
+        var files = output.getOutputFiles();
 
-            locations.append("char id=" + i
-                    + "    x=" + xPos
-                    + "    y=" + (yPos - fontMetrics.getAscent())
-                    + "    width=" + (width + (paddingX * 2))
-                    + "    height=" + (fontMetrics.getHeight() + (paddingY * 2))
-                    + "    xoffset=" + (xOffset)
-                    + "    yoffset=0"
-                    + "    xadvance=" + ((advance + letterSpacing) - 1) + " "
-                    + "    page=0"
-                    + "    chnl=0\n");
-
-            xPos += width + (paddingX * 2);
+        for (int i = 0; i < files.size(); i++) {
+            notifyFileCreated(files.get(i), i == 0);
         }
-
-        return "info face=" + fileName + " "
-                + "size=" + fontSize + " "
-                + "bold=0 "
-                + "italic=0 "
-                + "charset=\"\" "
-                + "unicode=1 "
-                + "stretchH=100 "
-                + "smooth=1 "
-                + "aa=1 "
-                + "padding=0,0,0,0 "
-                + "spacing=1,1 "
-                + "outline=0 "
-                + "\n"
-                + "common lineHeight=" + height + " "
-                + "base=26 "
-                + "scaleW=" + bitmapSize + " "
-                + "scaleH=" + bitmapSize + " "
-                + "pages=1 "
-                + "packed=0 "
-                + "\n"
-                + "page id=0 file=\"" + fileName + "\"\n"
-                + "chars count=" + count + "\n"
-                + locations;
     }
 }
@@ -0,0 +1,190 @@
+package com.ss.editor.font.generator.creator;
+
+import com.ss.editor.annotation.BackgroundThread;
+import com.ss.editor.annotation.FxThread;
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.GlyphCache;
+import com.ss.editor.font.generator.core.GlyphLayout;
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The renderer of font previews in a background thread. Rapid requests are debounced, a stale render which
+ * is still running is cancelled and only the result of the latest request is published to the FX thread.
+ * <p>
+ * A preview is drawn in the resolution of the viewport which shows it rather than in the resolution of the atlas,
+ * so a big atlas is drawn fast and it doesn't take much memory. The layout of the latest settings is reused
+ * when only the viewport is changed.
+ *
+ * @author JavaSaBr
+ */
+public class FontPreviewRenderer {
+
+    /**
+     * The delay to wait for next requests before rendering in ms.
+     */
+    private static final long DEBOUNCE_DELAY = 150;
+
+    /**
+     * The time to keep an idle render thread in seconds.
+     */
+    private static final long KEEP_ALIVE_TIME = 30;
+
+    /**
+     * The max estimated weight of cached glyphs in bytes.
+     */
+    private static final long GLYPH_CACHE_WEIGHT = 64 * 1024 * 1024;
+
+    /**
+     * The cache of glyphs which is shared between all previews.
+     */
+    private static final GlyphCache GLYPH_CACHE = new GlyphCache(GLYPH_CACHE_WEIGHT, true);
+
+    /**
+     * The executor to render previews.
+     */
+    @NotNull
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * The generator to render previews, it draws glyphs in one thread to be cancellable by interruption.
+     */
+    @NotNull
+    private final BitmapFontGenerator generator;
+
+    /**
+     * The consumer of rendered previews in the FX thread.
+     */
+    @NotNull
+    private final Consumer<Image> consumer;
+
+    /**
+     * The version of the latest request.
+     */
+    @NotNull
+    private final AtomicLong version;
+
+    /**
+     * The task of the latest request.
+     */
+    @Nullable
+    private ScheduledFuture<?> task;
+
+    /**
+     * The settings of the last layout, it's used only in the render thread.
+     */
+    @Nullable
+    private BitmapFontSettings lastSettings;
+
+    /**
+     * The last layout, it's used only in the render thread.
+     */
+    @Nullable
+    private GlyphLayout lastLayout;
+
+    public FontPreviewRenderer(@NotNull Consumer<Image> consumer) {
+        this.consumer = consumer;
+        this.generator = new BitmapFontGenerator(1, GLYPH_CACHE);
+        this.version = new AtomicLong();
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "FontPreviewRenderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setKeepAliveTime(KEEP_ALIVE_TIME, TimeUnit.SECONDS);
+        this.executor.allowCoreThreadTimeOut(true);
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Request rendering a preview of a font with the settings which fits the viewport. The same settings
+     * can be requested again with another viewport to render the preview of the same layout.
+     *
+     * @param settings       the settings.
+     * @param viewportWidth  the width of the viewport in pixels.
+     * @param viewportHeight the height of the viewport in pixels.
+     */
+    @FxThread
+    public void request(@NotNull BitmapFontSettings settings, int viewportWidth, int viewportHeight) {
+        cancel();
+        var requestVersion = version.get();
+        task = executor.schedule(() -> render(settings, viewportWidth, viewportHeight, requestVersion),
+                DEBOUNCE_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancel the current request.
+     */
+    @FxThread
+    public void cancel() {
+
+        version.incrementAndGet();
+
+        if (task != null) {
+            task.cancel(true);
+            task = null;
+        }
+    }
+
+    /**
+     * Render a preview and publish it if the request is still actual.
+     *
+     * @param settings       the settings.
+     * @param viewportWidth  the width of the viewport in pixels.
+     * @param viewportHeight the height of the viewport in pixels.
+     * @param requestVersion the version of the request.
+     */
+    @BackgroundThread
+    private void render(
+            @NotNull BitmapFontSettings settings,
+            int viewportWidth,
+            int viewportHeight,
+            long requestVersion
+    ) {
+
+        Image image;
+        try {
+
+            var layout = lastLayout;
+
+            if (settings != lastSettings || layout == null) {
+                layout = generator.layout(settings);
+                lastSettings = settings;
+                lastLayout = layout;
+            }
+
+            var imageWidth = layout.getImageWidth();
+            var imageHeight = layout.getImageHeight();
+            var scale = Math.min(1, Math.min((double) Math.max(viewportWidth, 1) / imageWidth,
+                    (double) Math.max(viewportHeight, 1) / imageHeight));
+
+            var region = new Rectangle(imageWidth, imageHeight);
+            image = SwingFXUtils.toFXImage(generator.render(layout, 0, region, scale, true), null);
+
+        } catch (CancellationException e) {
+            return;
+        }
+
+        if (version.get() != requestVersion) {
+            return;
+        }
+
+        Platform.runLater(() -> {
+            if (version.get() == requestVersion) {
+                consumer.accept(image);
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.CharacterSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The test to check parsing and iterating sets of characters.
+ *
+ * @author JavaSaBr
+ */
+public class CharacterSetTest {
+
+    @Test
+    public void parseTest() {
+
+        final CharacterSet characterSet = CharacterSet.parse("32-126, 0x400-0x4FF, U+20AC, U+1F600-U+1F64F");
+
+        assertEquals(95 + 256 + 1 + 80, characterSet.size());
+        assertTrue(characterSet.contains(' '));
+        assertTrue(characterSet.contains(0x20AC));
+        assertTrue(characterSet.contains(0x1F600));
+        assertFalse(characterSet.contains(0x1F650));
+        assertEquals(characterSet, CharacterSet.parse(characterSet.toString()));
+    }
+
+    @Test
+    public void parseBlockTest() {
+
+        final CharacterSet characterSet = CharacterSet.parse("Cyrillic, Latin-1 Supplement");
+
+        assertEquals(256 + 128, characterSet.size());
+        assertEquals(0x80, characterSet.next(0));
+        assertEquals(0x400, characterSet.next(0x100));
+        assertEquals(-1, characterSet.next(0x500));
+    }
+
+    @Test
+    public void supplementaryTextTest() {
+
+        final CharacterSet characterSet = CharacterSet.of("aab\uD83D\uDE00");
+
+        assertEquals(3, characterSet.size());
+        assertTrue(characterSet.contains(0x1F600));
+        assertFalse(characterSet.contains(0xD83D));
+    }
+
+    @Test
+    public void invalidTest() {
+        assertThrows(IllegalArgumentException.class, () -> CharacterSet.parse("32-126, unknown"));
+        assertThrows(IllegalArgumentException.class, () -> CharacterSet.parse("126-32"));
+    }
+}
@@ -0,0 +1,175 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import com.ss.editor.font.generator.core.DdsEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The test to decode block-compressed textures which are encoded by strips and by blocks on a pool.
+ *
+ * @author JavaSaBr
+ */
+public class DdsEncoderTest {
+
+    private static final int WIDTH = 67;
+    private static final int HEIGHT = 45;
+
+    private static final int FOURCC_ATI1 = 0x31495441;
+    private static final int FOURCC_DXT5 = 0x35545844;
+
+    @Test
+    public void grayscaleTest() throws IOException {
+        checkStrips(BufferedImage.TYPE_BYTE_GRAY);
+    }
+
+    @Test
+    public void rgbaTest() throws IOException {
+        checkStrips(BufferedImage.TYPE_4BYTE_ABGR);
+    }
+
+    @Test
+    public void parallelTest() throws IOException {
+
+        // the image has more blocks than a task compresses, so blocks are compressed by the pool
+        final BufferedImage image = newImage(400, 300, BufferedImage.TYPE_4BYTE_ABGR);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            assertArrayEquals(encode(image, null), encode(image, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void checkStrips(final int type) throws IOException {
+
+        final boolean grayscale = type == BufferedImage.TYPE_BYTE_GRAY;
+        final BufferedImage image = newImage(WIDTH, HEIGHT, type);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final int[] stripHeights = {1, 10, 16, 18};
+
+        try (final DdsEncoder encoder = new DdsEncoder(out, WIDTH, HEIGHT, grayscale, null)) {
+
+            int y = 0;
+
+            for (final int stripHeight : stripHeights) {
+                encoder.writeRows(copyRows(image, y, stripHeight));
+                y += stripHeight;
+            }
+
+            assertEquals(HEIGHT, y);
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        final int blocksWide = (WIDTH + 3) / 4;
+        final int blockSize = grayscale ? 8 : 16;
+
+        assertEquals(0x20534444, buffer.getInt(0));
+        assertEquals(HEIGHT, buffer.getInt(12));
+        assertEquals(WIDTH, buffer.getInt(16));
+        assertEquals(grayscale ? FOURCC_ATI1 : FOURCC_DXT5, buffer.getInt(84));
+        assertEquals(128 + blocksWide * ((HEIGHT + 3) / 4) * blockSize, buffer.capacity());
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+
+                final int offset = 128 + ((y / 4) * blocksWide + x / 4) * blockSize;
+                final int index = (y % 4) * 4 + x % 4;
+                final int alpha = decodeAlpha(buffer, offset, index);
+                final int argb = image.getRGB(x, y);
+
+                if (grayscale) {
+                    assertEquals(image.getRaster().getSample(x, y, 0), alpha, "pixel " + x + ", " + y);
+                    continue;
+                }
+
+                assertEquals(argb >>> 24, alpha, "pixel " + x + ", " + y);
+
+                // every color endpoint of a block of white pixels is white
+                if (alpha > 0) {
+                    assertEquals(0xFFFF, buffer.getShort(offset + 8) & 0xFFFF, "pixel " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    private static byte[] encode(final BufferedImage image, final ForkJoinPool pool) throws IOException {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (final DdsEncoder encoder = new DdsEncoder(out, image.getWidth(), image.getHeight(), false, pool)) {
+            encoder.writeRows(image);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static int decodeAlpha(final ByteBuffer buffer, final int offset, final int index) {
+
+        final int alpha0 = buffer.get(offset) & 0xFF;
+        final int alpha1 = buffer.get(offset + 1) & 0xFF;
+
+        long bits = 0;
+
+        for (int i = 0; i < 6; i++) {
+            bits |= (long) (buffer.get(offset + 2 + i) & 0xFF) << (8 * i);
+        }
+
+        final int code = (int) (bits >>> (3 * index)) & 7;
+
+        if (code < 2) {
+            return code == 0 ? alpha0 : alpha1;
+        } else if (alpha0 > alpha1) {
+            return ((8 - code) * alpha0 + (code - 1) * alpha1 + 3) / 7;
+        } else if (code < 6) {
+            return ((6 - code) * alpha0 + (code - 1) * alpha1 + 2) / 5;
+        }
+
+        return code == 6 ? 0 : 255;
+    }
+
+    private static BufferedImage newImage(final int width, final int height, final int type) {
+
+        final Random random = new Random(3);
+        final BufferedImage image = new BufferedImage(width, height, type);
+
+        // empty, full and one partial value in every block as on glyph edges, so blocks are compressed exactly
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+
+                final int edge = 1 + (x / 4 * 37 + y / 4 * 11) % 254;
+                final int value = random.nextInt(3) == 0 ? 0 : random.nextBoolean() ? 255 : edge;
+
+                if (type == BufferedImage.TYPE_BYTE_GRAY) {
+                    image.getRaster().setSample(x, y, 0, value);
+                } else {
+                    image.setRGB(x, y, value << 24 | 0xFFFFFF);
+                }
+            }
+        }
+
+        return image;
+    }
+
+    private static BufferedImage copyRows(final BufferedImage image, final int y, final int height) {
+
+        final BufferedImage strip = new BufferedImage(image.getWidth(), height, image.getType());
+        final byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        final byte[] stripPixels = ((DataBufferByte) strip.getRaster().getDataBuffer()).getData();
+
+        System.arraycopy(pixels, y * (stripPixels.length / height), stripPixels, 0, stripPixels.length);
+
+        return strip;
+    }
+}
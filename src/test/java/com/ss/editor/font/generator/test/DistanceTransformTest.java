@@ -0,0 +1,50 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import com.ss.editor.font.generator.core.DistanceTransform;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * The test to compare the distance transform with the brute force.
+ *
+ * @author JavaSaBr
+ */
+public class DistanceTransformTest {
+
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+
+    @Test
+    public void transformTest() {
+
+        final Random random = new Random(7);
+        final boolean[] source = new boolean[WIDTH * HEIGHT];
+        final double[] grid = new double[WIDTH * HEIGHT];
+
+        for (int i = 0; i < grid.length; i++) {
+            source[i] = random.nextInt(40) == 0;
+            grid[i] = source[i] ? 0 : DistanceTransform.INF;
+        }
+
+        new DistanceTransform().transform(grid, WIDTH, HEIGHT);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+
+                double expected = DistanceTransform.INF;
+
+                for (int i = 0; i < source.length; i++) {
+                    if (source[i]) {
+                        final int dx = i % WIDTH - x;
+                        final int dy = i / WIDTH - y;
+                        expected = Math.min(expected, dx * dx + dy * dy);
+                    }
+                }
+
+                assertEquals(expected, grid[y * WIDTH + x], 0.0001);
+            }
+        }
+    }
+}
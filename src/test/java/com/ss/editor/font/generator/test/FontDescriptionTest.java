@@ -0,0 +1,189 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.FontDescriptionBuilder;
+import com.ss.editor.font.generator.core.GlyphLayout;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The test to check text and binary font descriptions.
+ *
+ * @author JavaSaBr
+ */
+public class FontDescriptionTest {
+
+    private static final String FACE = "test.png";
+
+    @Test
+    public void textDescriptionTest() throws IOException {
+
+        final GlyphLayout layout = createLayout();
+        final FontDescriptionBuilder builder = new FontDescriptionBuilder();
+        final StringWriter writer = new StringWriter();
+
+        builder.write(layout, FACE, List.of(FACE), 16, writer);
+
+        final String description = builder.build(layout, FACE, List.of(FACE), 16);
+
+        assertEquals(description, writer.toString());
+        assertEquals(4 + layout.getCount(), description.split("\n").length);
+    }
+
+    @Test
+    public void binaryDescriptionTest() throws IOException {
+
+        final GlyphLayout layout = createLayout();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new FontDescriptionBuilder().writeBinary(layout, FACE, List.of(FACE), 16, out);
+
+        final ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals('B', buffer.get());
+        assertEquals('M', buffer.get());
+        assertEquals('F', buffer.get());
+        assertEquals(3, buffer.get());
+
+        final int[] blockSizes = new int[5];
+
+        while (buffer.hasRemaining()) {
+            final int type = buffer.get();
+            blockSizes[type] = buffer.getInt();
+            buffer.position(buffer.position() + blockSizes[type]);
+        }
+
+        assertEquals(14 + FACE.length() + 1, blockSizes[1]);
+        assertEquals(15, blockSizes[2]);
+        assertEquals(FACE.length() + 1, blockSizes[3]);
+        assertEquals(layout.getCount() * 20, blockSizes[4]);
+    }
+
+    @Test
+    public void differentPageNamesTest() {
+
+        final BitmapFontSettings settings = createSettings();
+        settings.setImageSize(64);
+        settings.setMaxPages(16);
+
+        final GlyphLayout layout = new BitmapFontGenerator().layout(settings);
+        final List<String> pageFiles = new ArrayList<>();
+
+        for (int i = 0; i < layout.getPageCount(); i++) {
+            pageFiles.add("test_" + (i + 9) + ".png");
+        }
+
+        assertTrue(layout.getPageCount() > 1);
+        assertThrows(IllegalArgumentException.class, () -> new FontDescriptionBuilder()
+                .writeBinary(layout, FACE, pageFiles, 16, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void tightBoundsTest() {
+        checkTightBounds(0);
+    }
+
+    @Test
+    public void paddedTightBoundsTest() {
+        checkTightBounds(3);
+    }
+
+    private static void checkTightBounds(final int padding) {
+
+        final BitmapFontSettings settings = createSettings();
+        settings.setPaddingX(padding);
+        settings.setPaddingY(padding);
+
+        final GlyphLayout layout = new BitmapFontGenerator().layout(settings);
+        final GlyphLayout unpadded = createLayout();
+        final int letter = indexOf(layout, 'H');
+        final int dot = indexOf(layout, '.');
+
+        assertTrue(layout.getBase() > 0 && layout.getBase() < layout.getLineHeight());
+        assertTrue(layout.getHeight(dot) < layout.getHeight(letter));
+        assertTrue(layout.getYOffset(dot) > layout.getYOffset(letter));
+        assertEquals(layout.getBase() + padding, layout.getYOffset(letter) + layout.getHeight(letter));
+        assertTrue(new FontDescriptionBuilder().build(layout, FACE, List.of(FACE), 16)
+                .contains(" base=" + layout.getBase() + " "));
+
+        // the padding around a glyph doesn't move its pixels
+        for (final int id : new int[] {'H', '.', 'g'}) {
+            final int index = indexOf(layout, id);
+            final int unpaddedIndex = indexOf(unpadded, id);
+            assertEquals(unpadded.getXOffset(unpaddedIndex) - padding, layout.getXOffset(index), "char " + id);
+            assertEquals(unpadded.getYOffset(unpaddedIndex) - padding, layout.getYOffset(index), "char " + id);
+        }
+    }
+
+    @Test
+    public void negativePaddingTest() {
+
+        final BitmapFontSettings settings = createSettings();
+        settings.setPaddingX(-2);
+        settings.setPaddingY(-2);
+
+        final GlyphLayout layout = new BitmapFontGenerator().layout(settings);
+        final GlyphLayout unpadded = createLayout();
+
+        for (final int id : new int[] {'-', '.', 'H'}) {
+            final int index = indexOf(layout, id);
+            assertEquals(unpadded.getWidth(indexOf(unpadded, id)), layout.getWidth(index), "char " + id);
+            assertEquals(unpadded.getHeight(indexOf(unpadded, id)), layout.getHeight(index), "char " + id);
+        }
+
+        for (int i = 0; i < layout.getCount(); i++) {
+
+            assertTrue(layout.getWidth(i) >= 0 && layout.getHeight(i) >= 0, "char " + layout.getId(i));
+
+            if (layout.getWidth(i) == 0 || layout.getHeight(i) == 0) {
+                continue;
+            }
+
+            // cells of glyphs with pixels don't overlap
+            for (int j = 0; j < i; j++) {
+                assertFalse(layout.getPage(i) == layout.getPage(j) &&
+                        layout.getX(i) < layout.getX(j) + layout.getWidth(j) &&
+                        layout.getX(j) < layout.getX(i) + layout.getWidth(i) &&
+                        layout.getY(i) < layout.getY(j) + layout.getHeight(j) &&
+                        layout.getY(j) < layout.getY(i) + layout.getHeight(i),
+                        "chars " + layout.getId(i) + ", " + layout.getId(j));
+            }
+        }
+    }
+
+    private static int indexOf(final GlyphLayout layout, final int id) {
+
+        for (int i = 0; i < layout.getCount(); i++) {
+            if (layout.getId(i) == id) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException("No glyph " + id);
+    }
+
+    private static GlyphLayout createLayout() {
+        return new BitmapFontGenerator().layout(createSettings());
+    }
+
+    private static BitmapFontSettings createSettings() {
+
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        settings.setFirstChar(32);
+        settings.setLastChar(127);
+
+        return settings;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.AtlasFormat;
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.FontFamily;
+import com.ss.editor.font.generator.core.FontFamilyOutput;
+import com.ss.editor.font.generator.core.GenerationMetrics;
+import com.ss.editor.font.generator.core.GenerationPhase;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * The test to check parsing of font families and generation of their variants.
+ *
+ * @author JavaSaBr
+ */
+public class FontFamilyTest {
+
+    @Test
+    public void parseTest() {
+
+        final FontFamily family = FontFamily.parse("32, 12-16/2, 14", "Bold, Plain, Bold");
+
+        assertArrayEquals(new int[] {12, 14, 16, 32}, family.getSizes());
+        assertArrayEquals(new int[] {Font.BOLD, Font.PLAIN}, family.getStyles());
+
+        final List<BitmapFontSettings> variants = family.getVariants(new BitmapFontSettings("Dialog"));
+
+        assertEquals(8, variants.size());
+        assertEquals(Font.BOLD, variants.get(3).getFontStyle());
+        assertEquals(32, variants.get(3).getFontSize());
+        assertEquals(Paths.get("fonts", "ui_plain_12.fnt"),
+                FontFamily.getVariantFile(Paths.get("fonts", "ui.fnt"), variants.get(4)));
+    }
+
+    @Test
+    public void invalidTest() {
+        assertThrows(IllegalArgumentException.class, () -> FontFamily.parse("16-12", "Plain"));
+        assertThrows(IllegalArgumentException.class, () -> FontFamily.parse("12, x", "Plain"));
+        assertThrows(IllegalArgumentException.class, () -> FontFamily.parse("12", "Heavy"));
+        assertThrows(IllegalArgumentException.class, () -> FontFamily.parse("", "Plain"));
+    }
+
+    @Test
+    public void sharedAtlasTest() throws IOException {
+
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        settings.setImageSize(256);
+        settings.setMaxPages(4);
+        settings.setFirstChar(32);
+        settings.setLastChar(127);
+
+        final FontFamily family = FontFamily.parse("12-20/4", "Plain, Bold");
+        final Path folder = Files.createTempDirectory("font-family-test");
+        final Path fontFile = folder.resolve("test.fnt");
+        final FontFamilyOutput output = new BitmapFontGenerator(2).generateFamily(settings, family, fontFile, true);
+
+        assertEquals(6, output.getFontFiles().size());
+        assertEquals(6, output.getMetrics().size());
+
+        // every variant fits a page alone, so the shared pages are fewer than variants
+        assertTrue(output.getOutputFiles().size() < 6 * 2);
+
+        for (final Path file : output.getOutputFiles()) {
+            assertTrue(Files.exists(file), file.toString());
+        }
+
+        long fileBytes = 0;
+
+        for (final Path file : output.getOutputFiles()) {
+            fileBytes += Files.size(file);
+        }
+
+        long metricsBytes = 0;
+
+        // the shared costs are split between all variants
+        for (final GenerationMetrics metrics : output.getMetrics()) {
+            assertTrue(metrics.getDuration(GenerationPhase.SCAN) > 0, metrics.toSummary());
+            assertTrue(metrics.getDuration(GenerationPhase.ENCODE) > 0, metrics.toSummary());
+            assertTrue(metrics.getPeakImageMemory() > 0, metrics.toSummary());
+            metricsBytes += metrics.getBytesWritten();
+        }
+
+        assertEquals(fileBytes, metricsBytes);
+
+        final String description = new String(Files.readAllBytes(folder.resolve("test_bold_20.fnt")), "UTF-8");
+
+        assertTrue(description.contains("file=\"test"), description);
+    }
+
+    @Test
+    public void sharedAtlasMemoryTest() throws IOException {
+
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        settings.setImageSize(256);
+        settings.setMaxPages(4);
+        settings.setFirstChar(32);
+        settings.setLastChar(127);
+        settings.setAtlasFormat(AtlasFormat.ALPHA);
+
+        final int stripHeight = 64;
+        final FontFamily family = FontFamily.parse("12-20/4", "Plain, Bold");
+        final Path fontFile = Files.createTempDirectory("font-family-test").resolve("test.fnt");
+        final FontFamilyOutput output = new BitmapFontGenerator(1, null, stripHeight)
+                .generateFamily(settings, family, fontFile, true);
+
+        long peakImageMemory = 0;
+
+        for (final GenerationMetrics metrics : output.getMetrics()) {
+            peakImageMemory += metrics.getPeakImageMemory();
+        }
+
+        // a strip of a variant is live while it's merged to the strip of the page
+        final GenerationMetrics metrics = output.getMetrics().get(0);
+        assertTrue(peakImageMemory >= 2L * metrics.getImageWidth() * stripHeight, metrics.toSummary());
+    }
+}
@@ -0,0 +1,125 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.CharacterSet;
+import com.ss.editor.font.generator.core.FontOutputCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * The test to check keys, restoring and eviction of the cache of generated fonts.
+ *
+ * @author JavaSaBr
+ */
+public class FontOutputCacheTest {
+
+    @Test
+    public void keyTest() {
+
+        final Path fontFile = Paths.get("test.fnt");
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        final String key = FontOutputCache.computeKey(settings, fontFile);
+
+        assertEquals(key, FontOutputCache.computeKey(new BitmapFontSettings("Dialog"), fontFile));
+        assertNotEquals(key, FontOutputCache.computeKey(settings, Paths.get("other.fnt")));
+
+        settings.setPaddingX(2);
+
+        assertNotEquals(key, FontOutputCache.computeKey(settings, fontFile));
+    }
+
+    @Test
+    public void bigCharacterSetKeyTest() {
+
+        final Path fontFile = Paths.get("test.fnt");
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        final CharacterSet characterSet = new CharacterSet();
+
+        // a sparse set of CJK characters which is longer than 64 KB as a string
+        for (int i = 0; i < 15000; i++) {
+            characterSet.add(0x4E00 + i * 2);
+        }
+
+        assertTrue(characterSet.toString().length() > 65535);
+
+        settings.setCharacterSet(characterSet);
+        settings.setKerningSample(characterSet.toString());
+
+        final String key = FontOutputCache.computeKey(settings, fontFile);
+
+        assertEquals(key, FontOutputCache.computeKey(settings, fontFile));
+
+        characterSet.add(0x4E01);
+
+        assertNotEquals(key, FontOutputCache.computeKey(settings, fontFile));
+    }
+
+    @Test
+    public void fontFileKeyTest() throws IOException {
+
+        final Path file = Files.createTempFile("font-cache-test", ".ttf");
+        final Path fontFile = Paths.get("test.fnt");
+        final BitmapFontSettings settings = new BitmapFontSettings("");
+        settings.setFontFile(file);
+
+        try {
+
+            Files.write(file, "first version".getBytes(StandardCharsets.UTF_8));
+
+            final String key = FontOutputCache.computeKey(settings, fontFile);
+
+            assertEquals(key, FontOutputCache.computeKey(settings, fontFile));
+
+            // the same size and another modification time, as a font which is updated in place
+            Files.write(file, "other version".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+
+            assertNotEquals(key, FontOutputCache.computeKey(settings, fontFile));
+
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void restoreAndEvictTest() throws IOException {
+
+        final Path folder = Files.createTempDirectory("font-cache-test");
+        final Path output = Files.createDirectories(folder.resolve("output"));
+        final FontOutputCache cache = new FontOutputCache(folder.resolve("cache"), 3000);
+
+        final Path fontFile = output.resolve("test.fnt");
+        final Path imageFile = output.resolve("test.png");
+
+        Files.write(fontFile, new byte[1000]);
+        Files.write(imageFile, new byte[1000]);
+
+        assertNull(cache.restore("first", fontFile));
+        assertTrue(cache.store("first", List.of(fontFile, imageFile)));
+
+        Files.write(imageFile, new byte[] {1});
+
+        final List<Path> restored = cache.restore("first", fontFile);
+
+        assertEquals(List.of(fontFile, imageFile), restored);
+        assertArrayEquals(new byte[1000], Files.readAllBytes(imageFile));
+
+        // the second entry exceeds the max size, so the least recently used first entry is evicted
+        assertTrue(cache.store("second", List.of(fontFile, imageFile)));
+        assertNull(cache.restore("first", fontFile));
+        assertFalse(cache.restore("second", fontFile).isEmpty());
+    }
+}
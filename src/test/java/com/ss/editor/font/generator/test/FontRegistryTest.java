@@ -0,0 +1,57 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import com.ss.editor.font.generator.core.FontRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The test to check caching of resolved fonts and errors of font files.
+ *
+ * @author JavaSaBr
+ */
+public class FontRegistryTest {
+
+    @Test
+    public void cacheTest() {
+
+        final FontRegistry registry = new FontRegistry(2);
+        final Font font = registry.getFont(null, Font.DIALOG, Font.BOLD, 12);
+
+        assertEquals(Font.BOLD, font.getStyle());
+        assertEquals(12, font.getSize());
+        assertSame(font, registry.getFont(null, Font.DIALOG, Font.BOLD, 12));
+
+        registry.getFont(null, Font.DIALOG, Font.BOLD, 14);
+        registry.getFont(null, Font.DIALOG, Font.BOLD, 16);
+
+        // the least recently used font is evicted
+        assertNotSame(font, registry.getFont(null, Font.DIALOG, Font.BOLD, 12));
+    }
+
+    @Test
+    public void invalidFileTest() throws IOException {
+
+        final FontRegistry registry = new FontRegistry(FontRegistry.DEFAULT_MAX_FONTS);
+        final Path file = Files.createTempFile("font-registry-test", ".ttf");
+
+        Files.write(file, "not a font".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            assertThrows(IllegalArgumentException.class, () -> registry.getFont(file, "", Font.PLAIN, 12));
+        } finally {
+            Files.delete(file);
+        }
+
+        assertThrows(UncheckedIOException.class, () -> registry.getFont(file, "", Font.PLAIN, 12));
+    }
+}
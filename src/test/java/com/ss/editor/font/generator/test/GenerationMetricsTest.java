@@ -0,0 +1,56 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.GenerationMetrics;
+import com.ss.editor.font.generator.core.GenerationPhase;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The test to check metrics of generation of a font.
+ *
+ * @author JavaSaBr
+ */
+public class GenerationMetricsTest {
+
+    @Test
+    public void metricsTest() throws IOException {
+
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        settings.setFontSize(32);
+        settings.setImageSize(128);
+        settings.setMaxPages(8);
+        settings.setFirstChar(32);
+        settings.setLastChar(127);
+
+        final Path folder = Files.createTempDirectory("font-metrics-test");
+        final Path fontFile = folder.resolve("test.fnt");
+        final GenerationMetrics metrics = new BitmapFontGenerator(2).generate(settings, fontFile);
+
+        assertEquals(96, metrics.getRequested());
+        assertEquals(metrics.getDisplayable(), metrics.getGlyphCount());
+        assertEquals(0, metrics.getSkipped());
+        assertTrue(metrics.getPageCount() > 1);
+
+        long bytesWritten = 0;
+
+        for (final Path file : BitmapFontGenerator.getOutputFiles(fontFile, metrics.getPageCount())) {
+            bytesWritten += Files.size(file);
+        }
+
+        assertEquals(bytesWritten, metrics.getBytesWritten());
+        assertTrue(metrics.getPeakImageMemory() >= 128L * 128 * 4);
+
+        for (final GenerationPhase phase : GenerationPhase.values()) {
+            if (phase != GenerationPhase.KERNING) {
+                assertTrue(metrics.getDuration(phase) > 0, phase.getTitle());
+            }
+        }
+    }
+}
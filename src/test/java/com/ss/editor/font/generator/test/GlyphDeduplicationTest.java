@@ -0,0 +1,82 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.CharacterSet;
+import com.ss.editor.font.generator.core.GlyphLayout;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * The test to check that glyphs which share atlas cells are drawn the same as in their own cells.
+ *
+ * @author JavaSaBr
+ */
+public class GlyphDeduplicationTest {
+
+    @Test
+    public void sharedCellsTest() {
+        checkSharedCells(false);
+    }
+
+    @Test
+    public void sharedDistanceFieldCellsTest() {
+        checkSharedCells(true);
+    }
+
+    private static void checkSharedCells(final boolean distanceField) {
+
+        final BitmapFontGenerator generator = new BitmapFontGenerator(2);
+        final GlyphLayout layout = generator.layout(createSettings(distanceField, false));
+        final GlyphLayout deduplicated = generator.layout(createSettings(distanceField, true));
+
+        assertEquals(0, layout.getSharedCount());
+        assertEquals(layout.getCount(), deduplicated.getCount());
+
+        // the space and the no-break space are empty cells of the same size at least
+        assertTrue(deduplicated.getSharedCount() > 0);
+        assertTrue(deduplicated.getOccupancy() < layout.getOccupancy());
+
+        final BufferedImage image = generator.render(layout, 0, false);
+        final BufferedImage deduplicatedImage = generator.render(deduplicated, 0, false);
+
+        for (int i = 0; i < deduplicated.getCount(); i++) {
+
+            final int cell = deduplicated.getCell(i);
+
+            assertEquals(layout.getId(i), deduplicated.getId(i));
+            assertFalse(deduplicated.isSharedCell(cell));
+            assertEquals(deduplicated.getX(cell), deduplicated.getX(i));
+            assertEquals(deduplicated.getY(cell), deduplicated.getY(i));
+            assertEquals(deduplicated.getPage(cell), deduplicated.getPage(i));
+            assertEquals(deduplicated.getWidth(cell), deduplicated.getWidth(i));
+            assertEquals(deduplicated.getHeight(cell), deduplicated.getHeight(i));
+            assertArrayEquals(getCell(image, layout, i), getCell(deduplicatedImage, deduplicated, i),
+                    "char " + deduplicated.getId(i));
+        }
+    }
+
+    private static int[] getCell(final BufferedImage image, final GlyphLayout layout, final int index) {
+        return image.getRGB(layout.getX(index), layout.getY(index), layout.getWidth(index),
+                layout.getHeight(index), null, 0, Math.max(layout.getWidth(index), 1));
+    }
+
+    private static BitmapFontSettings createSettings(final boolean distanceField, final boolean deduplicate) {
+
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        settings.setFontSize(20);
+        settings.setImageSize(512);
+        settings.setPaddingX(1);
+        settings.setPaddingY(1);
+        settings.setCharacterSet(CharacterSet.parse("32-126, 0xA0, 0x391-0x3A9, 0x410-0x42F"));
+        settings.setDistanceField(distanceField);
+        settings.setDeduplicateGlyphs(deduplicate);
+
+        return settings;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.GlyphMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+
+/**
+ * The test to compare glyph metrics which are measured by one glyph vector with metrics of text layouts.
+ *
+ * @author JavaSaBr
+ */
+public class GlyphMetricsTest {
+
+    @Test
+    public void identicalMetricsTest() {
+        checkMetrics(new Font(Font.DIALOG, Font.PLAIN, 20));
+        checkMetrics(new Font(Font.SERIF, Font.BOLD | Font.ITALIC, 13));
+    }
+
+    private static void checkMetrics(final Font font) {
+
+        final BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_4BYTE_ABGR);
+        final Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        final FontRenderContext context = graphics.getFontRenderContext();
+        graphics.dispose();
+
+        final int[] codePoints = new int[0x30000];
+        int count = 0;
+
+        for (int codePoint = 0; codePoint < codePoints.length; codePoint++) {
+            if (font.canDisplay(codePoint)) {
+                codePoints[count++] = codePoint;
+            }
+        }
+
+        assertTrue(count > 0);
+
+        final GlyphMetrics[] measured = GlyphMetrics.measureAll(font, codePoints, count, context);
+
+        for (int i = 0; i < count; i++) {
+
+            final GlyphMetrics expected = GlyphMetrics.measure(font, codePoints[i], context);
+            final GlyphMetrics actual = measured[i];
+            final String message = font + " U+" + Integer.toHexString(codePoints[i]);
+
+            assertEquals(expected.getBoundsX(), actual.getBoundsX(), message);
+            assertEquals(expected.getBoundsY(), actual.getBoundsY(), message);
+            assertEquals(expected.getBoundsWidth(), actual.getBoundsWidth(), message);
+            assertEquals(expected.getBoundsHeight(), actual.getBoundsHeight(), message);
+            assertEquals(expected.getAdvance(), actual.getAdvance(), message);
+            assertEquals(expected.getGlyphCode(), actual.getGlyphCode(), message);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.GlyphLayout;
+import com.ss.editor.font.generator.core.KerningTable;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextAttribute;
+import java.util.Map;
+
+/**
+ * The test to compare extracted kerning pairs with kerning of laid out pairs.
+ *
+ * @author JavaSaBr
+ */
+public class KerningTest {
+
+    private static final String SAMPLE = "AVATAR, To Way.";
+
+    @Test
+    public void allPairsTest() {
+
+        final GlyphLayout layout = new BitmapFontGenerator(2).layout(createSettings(null));
+        final KerningTable kernings = layout.getKernings();
+        final Font font = layout.getFont().deriveFont(Map.of(TextAttribute.KERNING, TextAttribute.KERNING_ON));
+        final FontRenderContext context = new FontRenderContext(null, true, false);
+
+        int expectedCount = 0;
+
+        for (int i = 0; i < layout.getCount(); i++) {
+            for (int j = 0; j < layout.getCount(); j++) {
+
+                final int expected = measure(font, context, layout.getId(i), layout.getId(j));
+
+                if (expected != 0) {
+                    expectedCount++;
+                }
+
+                assertEquals(expected, kernings.findAmount(layout.getId(i), layout.getId(j)));
+            }
+        }
+
+        assertEquals(expectedCount, kernings.getCount());
+    }
+
+    @Test
+    public void samplePairsTest() {
+
+        final KerningTable all = new BitmapFontGenerator().layout(createSettings(null)).getKernings();
+        final KerningTable sample = new BitmapFontGenerator().layout(createSettings(SAMPLE)).getKernings();
+
+        for (int i = 0; i < sample.getCount(); i++) {
+
+            final String pair = new String(Character.toChars(sample.getFirst(i))) +
+                    new String(Character.toChars(sample.getSecond(i)));
+
+            assertTrue(SAMPLE.contains(pair));
+            assertEquals(all.findAmount(sample.getFirst(i), sample.getSecond(i)), sample.getAmount(i));
+        }
+
+        for (int i = 0; i + 1 < SAMPLE.length(); i++) {
+
+            final char first = SAMPLE.charAt(i);
+            final char second = SAMPLE.charAt(i + 1);
+
+            assertEquals(all.findAmount(first, second), sample.findAmount(first, second));
+        }
+    }
+
+    private static int measure(
+            final Font font,
+            final FontRenderContext context,
+            final int first,
+            final int second
+    ) {
+
+        final char[] text = (new String(Character.toChars(first)) + new String(Character.toChars(second)))
+                .toCharArray();
+
+        final GlyphVector pair = font.layoutGlyphVector(context, text, 0, text.length, Font.LAYOUT_LEFT_TO_RIGHT);
+        final GlyphVector single = font.createGlyphVector(context, new String(Character.toChars(first)));
+
+        final double amount = pair.getGlyphPosition(1).getX() - pair.getGlyphPosition(0).getX() -
+                single.getGlyphMetrics(0).getAdvanceX();
+
+        return Math.round((float) amount);
+    }
+
+    private static BitmapFontSettings createSettings(final String sample) {
+
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        settings.setFontSize(20);
+        settings.setFirstChar(32);
+        settings.setLastChar(127);
+        settings.setKerning(true);
+        settings.setKerningSample(sample);
+
+        return settings;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.pack.PackingStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * The test to check atlas packers.
+ *
+ * @author JavaSaBr
+ */
+public class PackerTest {
+
+    private static final int COUNT = 500;
+    private static final int ATLAS_SIZE = 512;
+
+    @Test
+    public void packWithoutOverlapsTest() {
+
+        final Random random = new Random(42);
+        final int[] widths = new int[COUNT];
+        final int[] heights = new int[COUNT];
+        final int[] indices = new int[COUNT];
+
+        for (int i = 0; i < COUNT; i++) {
+            widths[i] = 4 + random.nextInt(20);
+            heights[i] = 8 + random.nextInt(12);
+            indices[i] = i;
+        }
+
+        for (final PackingStrategy strategy : PackingStrategy.values()) {
+
+            final int[] x = new int[COUNT];
+            final int[] y = new int[COUNT];
+            final boolean[] placed = new boolean[COUNT];
+
+            final int placedCount = strategy.getPacker()
+                    .pack(widths, heights, indices, COUNT, ATLAS_SIZE, ATLAS_SIZE, x, y, placed);
+
+            int actualCount = 0;
+
+            for (int i = 0; i < COUNT; i++) {
+
+                if (!placed[i]) {
+                    continue;
+                }
+
+                actualCount++;
+
+                assertTrue(x[i] >= 0 && y[i] >= 0, strategy + ": out of the atlas");
+                assertTrue(x[i] + widths[i] <= ATLAS_SIZE && y[i] + heights[i] <= ATLAS_SIZE,
+                        strategy + ": out of the atlas");
+
+                for (int j = i + 1; j < COUNT; j++) {
+                    if (placed[j]) {
+                        assertFalse(x[i] < x[j] + widths[j] && x[j] < x[i] + widths[i] &&
+                                y[i] < y[j] + heights[j] && y[j] < y[i] + heights[i]);
+                    }
+                }
+            }
+
+            assertEquals(placedCount, actualCount);
+            assertEquals(COUNT, placedCount);
+        }
+    }
+
+    @Test
+    public void packOverflowTest() {
+
+        final int[] widths = {300, 300};
+        final int[] heights = {300, 300};
+        final int[] indices = {0, 1};
+
+        for (final PackingStrategy strategy : PackingStrategy.values()) {
+
+            final boolean[] placed = new boolean[2];
+            final int placedCount = strategy.getPacker()
+                    .pack(widths, heights, indices, 2, ATLAS_SIZE, ATLAS_SIZE, new int[2], new int[2], placed);
+
+            assertEquals(1, placedCount);
+            assertTrue(placed[0] != placed[1]);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.CharacterSet;
+import com.ss.editor.font.generator.core.GlyphLayout;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * The test to check that pages which are drawn by strips on a pool are the same as pages which are drawn serially.
+ *
+ * @author JavaSaBr
+ */
+public class ParallelRenderTest {
+
+    @Test
+    public void parallelTest() {
+        checkParallel(false);
+    }
+
+    @Test
+    public void parallelDistanceFieldTest() {
+        checkParallel(true);
+    }
+
+    private static void checkParallel(final boolean distanceField) {
+
+        final BitmapFontGenerator serial = new BitmapFontGenerator(1);
+        final BitmapFontGenerator parallel = new BitmapFontGenerator(4);
+        final GlyphLayout layout = serial.layout(createSettings(distanceField));
+
+        // the page is taller than several strips, so glyphs cross the borders of strips
+        assertTrue(layout.getImageHeight() >= 128);
+
+        for (int page = 0; page < layout.getPageCount(); page++) {
+
+            final BufferedImage expected = serial.render(layout, page, false);
+            final BufferedImage actual = parallel.render(layout, page, false);
+
+            assertArrayEquals(getPixels(expected), getPixels(actual), "page " + page);
+        }
+    }
+
+    private static byte[] getPixels(final BufferedImage image) {
+        return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    }
+
+    private static BitmapFontSettings createSettings(final boolean distanceField) {
+
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        settings.setFontStyle(Font.ITALIC);
+        settings.setFontSize(24);
+        settings.setImageSize(256);
+        settings.setMaxPages(4);
+
+        // italic overhangs and combining marks are drawn out of the advances of their glyphs
+        settings.setCharacterSet(CharacterSet.parse("32-126, 0x300-0x36F, 0x391-0x3C9, 0x410-0x44F"));
+        settings.setDistanceField(distanceField);
+
+        return settings;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import com.ss.editor.font.generator.core.PngEncoder;
+import com.ss.editor.font.generator.core.PngFilter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The test to decode images which are encoded by strips and by blocks on a pool.
+ *
+ * @author JavaSaBr
+ */
+public class PngEncoderTest {
+
+    private static final int WIDTH = 67;
+    private static final int HEIGHT = 45;
+
+    @Test
+    public void grayscaleTest() throws IOException {
+        checkStrips(BufferedImage.TYPE_BYTE_GRAY);
+    }
+
+    @Test
+    public void rgbaTest() throws IOException {
+        checkStrips(BufferedImage.TYPE_4BYTE_ABGR);
+    }
+
+    @Test
+    public void parallelTest() throws IOException {
+
+        // the image is bigger than a few blocks, so blocks are compressed by the pool
+        final BufferedImage image = newImage(400, 300, BufferedImage.TYPE_4BYTE_ABGR);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final int[] levels = {PngEncoder.FAST_COMPRESSION_LEVEL, PngEncoder.MAX_COMPRESSION_LEVEL};
+
+        try {
+
+            for (final PngFilter filter : PngFilter.values()) {
+                for (final int level : levels) {
+
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                    try (final PngEncoder encoder = new PngEncoder(out, image.getWidth(), image.getHeight(), false,
+                            level, filter, pool)) {
+                        encoder.writeRows(image);
+                    }
+
+                    checkDecoded(image, out);
+                }
+            }
+
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void checkStrips(final int type) throws IOException {
+
+        final BufferedImage image = newImage(WIDTH, HEIGHT, type);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final int[] stripHeights = {1, 10, 16, 18};
+
+        try (final PngEncoder encoder = new PngEncoder(out, WIDTH, HEIGHT, type == BufferedImage.TYPE_BYTE_GRAY)) {
+
+            int y = 0;
+
+            for (final int stripHeight : stripHeights) {
+                encoder.writeRows(copyRows(image, y, stripHeight));
+                y += stripHeight;
+            }
+
+            assertEquals(HEIGHT, y);
+        }
+
+        checkDecoded(image, out);
+    }
+
+    private static BufferedImage newImage(final int width, final int height, final int type) {
+
+        final Random random = new Random(3);
+        final BufferedImage image = new BufferedImage(width, height, type);
+
+        // sparse pixels with empty rows between them as in atlases
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (y % 7 != 0 && random.nextInt(3) == 0) {
+                    image.setRGB(x, y, random.nextInt());
+                }
+            }
+        }
+
+        return image;
+    }
+
+    private static void checkDecoded(final BufferedImage image, final ByteArrayOutputStream out) throws IOException {
+
+        final BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(image.getWidth(), decoded.getWidth());
+        assertEquals(image.getHeight(), decoded.getHeight());
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals(image.getRGB(x, y), decoded.getRGB(x, y), "pixel " + x + ", " + y);
+            }
+        }
+    }
+
+    private static BufferedImage copyRows(final BufferedImage image, final int y, final int height) {
+
+        final BufferedImage strip = new BufferedImage(image.getWidth(), height, image.getType());
+        final byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        final byte[] stripPixels = ((DataBufferByte) strip.getRaster().getDataBuffer()).getData();
+
+        System.arraycopy(pixels, y * (stripPixels.length / height), stripPixels, 0, stripPixels.length);
+
+        return strip;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ss.editor.font.generator.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import com.ss.editor.font.generator.core.AtlasFormat;
+import com.ss.editor.font.generator.core.BitmapFontGenerator;
+import com.ss.editor.font.generator.core.BitmapFontSettings;
+import com.ss.editor.font.generator.core.GlyphLayout;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * The test to check previews of scaled regions of atlas pages.
+ *
+ * @author JavaSaBr
+ */
+public class PreviewRenderTest {
+
+    @Test
+    public void coverageRegionTest() {
+        checkRegion(newSettings(AtlasFormat.RGBA, false));
+    }
+
+    @Test
+    public void distanceFieldRegionTest() {
+        checkRegion(newSettings(AtlasFormat.ALPHA, true));
+    }
+
+    @Test
+    public void scaledSizeTest() {
+
+        final BitmapFontGenerator generator = new BitmapFontGenerator(1);
+
+        for (final AtlasFormat format : AtlasFormat.values()) {
+
+            final GlyphLayout layout = generator.layout(newSettings(format, false));
+            final Rectangle region = new Rectangle(layout.getImageWidth(), layout.getImageHeight());
+            final BufferedImage page = generator.render(layout, false);
+            final BufferedImage preview = generator.render(layout, 0, region, 0.3, true);
+
+            assertEquals(page.getType(), preview.getType());
+            assertEquals((int) Math.ceil(layout.getImageWidth() * 0.3), preview.getWidth());
+            assertEquals((int) Math.ceil(layout.getImageHeight() * 0.3), preview.getHeight());
+        }
+    }
+
+    private static BitmapFontSettings newSettings(final AtlasFormat format, final boolean distanceField) {
+
+        final BitmapFontSettings settings = new BitmapFontSettings("Dialog");
+        settings.setFontSize(24);
+        settings.setImageSize(256);
+        settings.setFirstChar(32);
+        settings.setLastChar(255);
+        settings.setAtlasFormat(format);
+        settings.setDistanceField(distanceField);
+        settings.setDistanceFieldScale(4);
+
+        return settings;
+    }
+
+    private static void checkRegion(final BitmapFontSettings settings) {
+
+        final BitmapFontGenerator generator = new BitmapFontGenerator(1);
+        final GlyphLayout layout = generator.layout(settings);
+        final BufferedImage page = generator.render(layout, false);
+        final Rectangle region = new Rectangle(37, 53, 101, 89);
+        final BufferedImage preview = generator.render(layout, 0, region, 1, false);
+
+        assertEquals(region.width, preview.getWidth());
+        assertEquals(region.height, preview.getHeight());
+
+        for (int y = 0; y < region.height; y++) {
+            for (int x = 0; x < region.width; x++) {
+                assertEquals(page.getRGB(region.x + x, region.y + y), preview.getRGB(x, y),
+                        "pixel " + x + ", " + y);
+            }
+        }
+    }
+}